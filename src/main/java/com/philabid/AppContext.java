@@ -8,7 +8,9 @@ import com.philabid.parsing.impl.EbayUrlParser;
 import com.philabid.service.*;
 import javafx.application.HostServices;
 
+import javax.money.convert.MonetaryConversions;
 import java.sql.SQLException;
+import java.time.Clock;
 import java.util.List;
 import java.util.Objects;
 
@@ -37,12 +39,14 @@ public class AppContext {
     private final ValuationService valuationService;
     private final AllegroApiService allegroApiService;
     private final DatabaseBackupService databaseBackupService;
+    private final BackgroundTaskService backgroundTaskService;
+    private final ViewResultCache viewResultCache;
     private HostServices hostServices;
 
     private AppContext() {
         i18nManager = new I18nManager();
-        databaseManager = new DatabaseManager();
         configurationService = new ConfigurationService();
+        databaseManager = new DatabaseManager(configurationService);
 
         AuctionHouseRepository auctionHouseRepository = new AuctionHouseRepository(databaseManager);
         SellerRepository sellerRepository = new SellerRepository(databaseManager);
@@ -53,24 +57,36 @@ public class AppContext {
         AuctionRepository auctionRepository = new AuctionRepository(databaseManager);
         CatalogValueRepository catalogValueRepository = new CatalogValueRepository(databaseManager);
         ExchangeRateRepository exchangeRateRepository = new ExchangeRateRepository(databaseManager);
-        ValuationEntryRepository valuationEntryRepository = new ValuationEntryRepository(databaseManager);
+        ValuationRepository valuationRepository = new ValuationRepository(databaseManager);
+        ValuationStatsRepository valuationStatsRepository = new ValuationStatsRepository(databaseManager);
 
         currencyService = new CurrencyService();
-        auctionHouseService = new AuctionHouseService(auctionHouseRepository);
+        // One clock, so that all services agree on which day it is.
+        Clock clock = Clock.systemDefaultZone();
+        exchangeRateService =
+                new ExchangeRateService(exchangeRateRepository, MonetaryConversions::getExchangeRateProvider, clock);
+        priceRecommendationService = new PriceRecommendationService(configurationService, exchangeRateService);
+        auctionHouseService =
+                new AuctionHouseService(auctionHouseRepository, configurationService, exchangeRateService);
         sellerService = new SellerService(sellerRepository);
         catalogService = new CatalogService(catalogRepository);
         categoryService = new CategoryService(categoryRepository);
         conditionService = new ConditionService(conditionRepository);
         tradingItemService = new TradingItemService(tradingItemRepository);
-        auctionService = new AuctionService(auctionRepository);
+        auctionService = new AuctionService(auctionRepository, auctionHouseService, priceRecommendationService,
+                exchangeRateService, configurationService);
         catalogValueService = new CatalogValueService(catalogValueRepository);
         urlParsingService =
                 new UrlParsingService(List.of(new AllegroUrlParser(), new EbayUrlParser()), auctionHouseService);
-        exchangeRateService = new ExchangeRateService(exchangeRateRepository);
-        priceRecommendationService = new PriceRecommendationService();
-        valuationService = new ValuationService(valuationEntryRepository);
+        valuationService =
+                new ValuationService(valuationRepository, valuationStatsRepository, clock);
+        auctionRepository.addChangeListener(valuationService::onRepositoryChange);
+        catalogValueRepository.addChangeListener(valuationService::onRepositoryChange);
+        tradingItemRepository.addChangeListener(valuationService::onRepositoryChange);
         allegroApiService = new AllegroApiService(configurationService);
         databaseBackupService = new DatabaseBackupService(databaseManager);
+        backgroundTaskService = new BackgroundTaskService();
+        viewResultCache = new ViewResultCache(databaseManager, clock);
     }
 
     public static AppContext get() {
@@ -152,13 +168,29 @@ public class AppContext {
         return get().databaseBackupService;
     }
 
+    public static BackgroundTaskService getBackgroundTaskService() {
+        return get().backgroundTaskService;
+    }
+
+    public static ViewResultCache getViewResultCache() {
+        return get().viewResultCache;
+    }
+
     public static DatabaseManager getDatabaseManager() {
         return get().databaseManager;
     }
 
     public void init(HostServices hostServices) throws SQLException {
         databaseManager.initialize();
+        valuationService.pruneCategoryPercentageChanges();
+        exchangeRateService.prefetch(currencyService.getCurrencies());
 
         this.hostServices = hostServices;
     }
+
+    public void shutdown() {
+        backgroundTaskService.shutdown();
+        exchangeRateService.shutdown();
+        databaseManager.close();
+    }
 }
\ No newline at end of file
@@ -69,6 +69,8 @@ public class PhilabidApplication extends Application {
     public void stop() throws Exception {
         logger.info("Shutting down Philabid application...");
 
+        AppContext.get().shutdown();
+
         super.stop();
         logger.info("Application shutdown completed");
     }
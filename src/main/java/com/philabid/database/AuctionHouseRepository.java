@@ -5,11 +5,17 @@ import com.philabid.database.util.query.CurrencyQueryField;
 import com.philabid.database.util.query.QueryField;
 import com.philabid.database.util.query.StringQueryField;
 import com.philabid.model.AuctionHouse;
+import com.philabid.util.BidIncrementLadder;
+import org.javatuples.Pair;
 
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Collection;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 public class AuctionHouseRepository extends CrudRepository<AuctionHouse> {
     private static final Collection<QueryField<AuctionHouse, ?>> FIELDS = List.of(
@@ -25,12 +31,99 @@ public class AuctionHouseRepository extends CrudRepository<AuctionHouse> {
                     AuctionHouse::getCurrency)
     );
 
+    private static final String BID_INCREMENTS_SQL = """
+            SELECT bi.auction_house_id, ah.currency, bi.threshold, bi.step
+            FROM bid_increments bi
+                     JOIN auction_houses ah ON ah.id = bi.auction_house_id
+            ORDER BY bi.auction_house_id, bi.threshold""";
+
+    private static final String HOUSE_BID_INCREMENTS_SQL =
+            "SELECT threshold, step FROM bid_increments WHERE auction_house_id = ? ORDER BY threshold";
+
+    private static final String DELETE_BID_INCREMENTS_SQL = "DELETE FROM bid_increments WHERE auction_house_id = ?";
+
+    private static final String INSERT_BID_INCREMENT_SQL =
+            "INSERT INTO bid_increments (auction_house_id, threshold, step) VALUES (?, ?, ?)";
+
     public AuctionHouseRepository(DatabaseManager databaseManager) {
         super(databaseManager, AuctionHouse.class, "auction_houses");
+        setEntityFactory(AuctionHouse::new);
         addFields(FIELDS);
     }
 
     public Optional<AuctionHouse> findByName(String name) throws SQLException {
         return findOne(List.of(new EqualFilterCondition<>("name", name)));
     }
+
+    /**
+     * Reads the bid increment ladders of all auction houses that have one, in the currencies of the houses, by
+     * auction house ID.
+     */
+    public Map<Long, BidIncrementLadder> findBidIncrementLadders() throws SQLException {
+        Map<Long, CurrencyUnit> currencies = new HashMap<>();
+        Map<Long, List<Pair<BigDecimal, BigDecimal>>> increments = new HashMap<>();
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(BID_INCREMENTS_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                long auctionHouseId = rs.getLong("auction_house_id");
+                String currencyCode = rs.getString("currency");
+                if (currencyCode != null) {
+                    currencies.put(auctionHouseId, Monetary.getCurrency(currencyCode));
+                }
+                increments.computeIfAbsent(auctionHouseId, k -> new ArrayList<>())
+                        .add(Pair.with(rs.getBigDecimal("threshold"), rs.getBigDecimal("step")));
+            }
+        }
+        Map<Long, BidIncrementLadder> ladders = new HashMap<>();
+        increments.forEach((id, houseIncrements) ->
+                ladders.put(id, BidIncrementLadder.of(currencies.get(id), houseIncrements)));
+        return ladders;
+    }
+
+    /**
+     * Reads the bid increment ladder of an auction house as (threshold, step) pairs ordered by threshold, empty if
+     * the house has none.
+     */
+    public List<Pair<BigDecimal, BigDecimal>> findBidIncrements(Long auctionHouseId) throws SQLException {
+        List<Pair<BigDecimal, BigDecimal>> increments = new ArrayList<>();
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(HOUSE_BID_INCREMENTS_SQL)) {
+            pstmt.setLong(1, auctionHouseId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    increments.add(Pair.with(rs.getBigDecimal("threshold"), rs.getBigDecimal("step")));
+                }
+            }
+        }
+        return increments;
+    }
+
+    /**
+     * Replaces the bid increment ladder of an auction house in one transaction. An empty list removes it, so that
+     * the house uses the default ladder.
+     */
+    public void saveBidIncrements(Long auctionHouseId, List<Pair<BigDecimal, BigDecimal>> increments)
+            throws SQLException {
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement(DELETE_BID_INCREMENTS_SQL);
+                 PreparedStatement insert = conn.prepareStatement(INSERT_BID_INCREMENT_SQL)) {
+                delete.setLong(1, auctionHouseId);
+                delete.executeUpdate();
+                for (Pair<BigDecimal, BigDecimal> increment : increments) {
+                    insert.setLong(1, auctionHouseId);
+                    insert.setBigDecimal(2, increment.getValue0());
+                    insert.setBigDecimal(3, increment.getValue1());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                conn.commit();
+                databaseManager.markDataChanged();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
 }
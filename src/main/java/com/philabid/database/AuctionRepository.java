@@ -2,9 +2,10 @@ package com.philabid.database;
 
 import com.philabid.database.util.EqualFilterCondition;
 import com.philabid.database.util.FilterCondition;
+import com.philabid.database.util.InFilterCondition;
+import com.philabid.database.util.InSubqueryFilterCondition;
 import com.philabid.database.util.query.*;
 import com.philabid.model.Auction;
-import org.javatuples.Pair;
 
 import java.util.*;
 
@@ -73,10 +74,15 @@ public class AuctionRepository extends CrudRepository<Auction> {
             new QueryLeftOuterJoin("catalogs", "cat", "cv.catalog_id = cat.id")
     );
 
+    private static final List<QueryOrder> DEFAULT_ARCHIVED_ORDERS =
+            List.of(new QueryOrder("a", "end_date", QueryOrder.Direction.DESC));
+
     public AuctionRepository(DatabaseManager databaseManager) {
         super(databaseManager, Auction.class, "auctions", "a");
+        setEntityFactory(Auction::new);
         addFields(FIELDS);
         addJoins(JOINS);
+        setChangeKeys("trading_item_id", "condition_id");
     }
 
     public Collection<Auction> findAllActive(Collection<FilterCondition> filterConditions) {
@@ -93,46 +99,42 @@ public class AuctionRepository extends CrudRepository<Auction> {
         return findAll(allConditions);
     }
 
-    public Map<Long, List<Auction>> findArchivedForActiveAuctions() {
-        Map<Long, List<Auction>> archiveMap = new HashMap<>();
+    /**
+     * Finds one page of archived auctions in the given ordering, or most recently ended first if it is empty.
+     */
+    public Page<Auction> findArchivedPage(Collection<FilterCondition> filterConditions, PageKey afterKey, int limit,
+                                          List<QueryOrder> orders) {
+        Collection<FilterCondition> allConditions = new ArrayList<>(filterConditions);
+        allConditions.add(new EqualFilterCondition<>("a.archived", true));
+        return findPage(allConditions, afterKey, limit, orders.isEmpty() ? DEFAULT_ARCHIVED_ORDERS : orders);
+    }
 
-        findMany(
-                List.of(new EqualFilterCondition<>("act_a.archived", false)),
+    /**
+     * Finds the active auctions of the given trading items.
+     */
+    public Collection<Auction> findActiveByTradingItems(Collection<Long> tradingItemIds) {
+        return findInChunks(tradingItemIds, chunk -> findMany(
+                List.of(new EqualFilterCondition<>("a.archived", false),
+                        new InFilterCondition<>("a.trading_item_id", chunk)),
                 List.of(),
-                List.of(new InternalQueryField<>("act_a", "id", "active_id")),
-                List.of(new QueryInnerJoin("auctions", "act_a",
-                        "act_a.trading_item_id = a.trading_item_id " +
-                                "AND act_a.condition_id = a.condition_id " +
-                                "AND a.archived = 1")),
-                (rs, e) -> {
-                    long activeId = rs.getLong("active_id");
-                    archiveMap.computeIfAbsent(activeId, k -> new ArrayList<>()).add(e);
-                    return true;
-                }
-        );
-        return archiveMap;
+                List.of(),
+                List.of()));
     }
 
-    public Map<Pair<Long, Long>, List<Auction>> findArchivedForActiveCategories() {
-        Map<Pair<Long, Long>, List<Auction>> archiveMap = new HashMap<>();
-
-        findMany(
-                List.of(new EqualFilterCondition<>("a.archived", true)),
+    /**
+     * Finds the archived auctions of all trading items in the given categories that are in one of the given
+     * conditions. Callers interested in specific (category, condition) pairs filter the result further.
+     */
+    public Collection<Auction> findArchivedByCategoriesAndConditions(Collection<Long> categoryIds,
+                                                                     Collection<Long> conditionIds) {
+        return findInChunks(categoryIds, chunk -> findMany(
+                List.of(new EqualFilterCondition<>("a.archived", true),
+                        new InSubqueryFilterCondition("a.trading_item_id", "id", "trading_items",
+                                new InFilterCondition<>("category_id", chunk)),
+                        new InFilterCondition<>("a.condition_id", conditionIds)),
                 List.of(),
                 List.of(),
-                List.of(
-                        new QueryInnerJoin("trading_items", "act_ti", "act_ti.category_id = ti.category_id"),
-                        new QueryInnerJoin("auctions", "act_a",
-                                "act_a.trading_item_id = act_ti.id " +
-                                        "AND act_a.condition_id = a.condition_id " +
-                                        "AND act_a.archived = 0")),
-                (rs, e) -> {
-                    archiveMap.computeIfAbsent(Pair.with(e.getTradingItemCategoryId(), e.getConditionId()),
-                            k -> new ArrayList<>()).add(e);
-                    return true;
-                }
-        );
-        return archiveMap;
+                List.of()));
     }
 
     public Collection<Auction> findArchivedByItemAndCondition(Long tradingItemId, Long conditionId) {
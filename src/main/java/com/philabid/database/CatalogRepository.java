@@ -20,6 +20,7 @@ public class CatalogRepository extends CrudRepository<Catalog> {
 
     public CatalogRepository(DatabaseManager databaseManager) {
         super(databaseManager, Catalog.class, "catalogs");
+        setEntityFactory(Catalog::new);
         addFields(FIELDS);
     }
 }
@@ -48,8 +48,10 @@ public class CatalogValueRepository extends CrudRepository<CatalogValue> {
 
     public CatalogValueRepository(DatabaseManager databaseManager) {
         super(databaseManager, CatalogValue.class, "catalog_values", "cv");
+        setEntityFactory(CatalogValue::new);
         addFields(FIELDS);
         addJoins(JOINS);
+        setChangeKeys("trading_item_id", "condition_id");
     }
 
     public Optional<CatalogValue> findByTradingItemAndCondition(long tradingItemId, long conditionId) {
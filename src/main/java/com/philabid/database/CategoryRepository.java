@@ -26,6 +26,7 @@ public class CategoryRepository extends CrudRepository<Category> {
 
     public CategoryRepository(DatabaseManager databaseManager) {
         super(databaseManager, Category.class, "categories", "catg");
+        setEntityFactory(Category::new);
         addFields(FIELDS);
         addJoins(JOINS);
     }
@@ -18,6 +18,7 @@ public class ConditionRepository extends CrudRepository<Condition> {
 
     public ConditionRepository(DatabaseManager databaseManager) {
         super(databaseManager, Condition.class, "conditions");
+        setEntityFactory(Condition::new);
         addFields(FIELDS);
     }
 }
@@ -2,19 +2,28 @@ package com.philabid.database;
 
 import com.philabid.database.util.EqualFilterCondition;
 import com.philabid.database.util.FilterCondition;
+import com.philabid.database.util.KeysetFilterCondition;
 import com.philabid.database.util.query.*;
 import com.philabid.model.BaseModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Constructor;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class CrudRepository<T extends BaseModel<T>> {
     private static final Logger logger = LoggerFactory.getLogger(CrudRepository.class);
+    private static final int MAX_COMPILED_QUERIES = 256;
 
     protected final DatabaseManager databaseManager;
     protected final Class<T> entityClass;
@@ -25,6 +34,16 @@ public abstract class CrudRepository<T extends BaseModel<T>> {
     private final Collection<QueryField<T, ?>> fields = new ArrayList<>();
     private final Collection<QueryJoin> joins = new ArrayList<>();
 
+    // SQL depends only on the static field/join lists and the shape of the per-call parts, so it is built once.
+    private final Map<QueryShape, CompiledQuery<T>> compiledQueries = new ConcurrentHashMap<>();
+    private final String deleteSql;
+    private volatile WriteStatement<T> insertStatement;
+    private volatile WriteStatement<T> updateStatement;
+    private volatile Supplier<T> entityFactory;
+    private List<QueryField<T, ?>> changeKeyFields = List.of();
+    private final List<Consumer<RepositoryChangeEvent<T>>> changeListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<RepositoryChangeEvent<T>>> asyncChangeListeners = new CopyOnWriteArrayList<>();
+
     public CrudRepository(DatabaseManager databaseManager, Class<T> entityClass, String tableName) {
         this(databaseManager, entityClass, tableName, null);
     }
@@ -39,6 +58,7 @@ public abstract class CrudRepository<T extends BaseModel<T>> {
         this.entityClass = entityClass;
         this.tableName = tableName;
         this.tableAlias = tableAlias;
+        this.deleteSql = "DELETE FROM " + tableName + " WHERE id = ?";
 
         String commonFieldsTable = tableAlias != null ? tableAlias : tableName;
 
@@ -55,28 +75,106 @@ public abstract class CrudRepository<T extends BaseModel<T>> {
 
     public void addFields(Collection<QueryField<T, ?>> fields) {
         this.fields.addAll(fields);
+        invalidateCompiledQueries();
     }
 
     public void addJoins(Collection<QueryJoin> joins) {
         this.joins.addAll(joins);
+        invalidateCompiledQueries();
+    }
+
+    private void invalidateCompiledQueries() {
+        compiledQueries.clear();
+        insertStatement = null;
+        updateStatement = null;
+    }
+
+    /**
+     * Sets the factory used to materialize entities, typically the entity's constructor reference. Repositories
+     * that don't set one fall back to invoking the no-arg constructor reflectively.
+     */
+    protected void setEntityFactory(Supplier<T> entityFactory) {
+        this.entityFactory = entityFactory;
+    }
+
+    /**
+     * Declares the fields whose values before and after a write are passed to change listeners, see
+     * {@link RepositoryChangeEvent}. The fields must have been added already and carry entity values.
+     */
+    protected void setChangeKeys(String... fieldNames) {
+        changeKeyFields = Arrays.stream(fieldNames)
+                .<QueryField<T, ?>>map(name -> fields.stream()
+                        .filter(field -> field.getFieldName().equals(name) && field.isUpdatable())
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("No writable field " + name)))
+                .toList();
+    }
+
+    /**
+     * Adds a listener called after every committed write, on the writing thread and before the write returns.
+     */
+    public void addChangeListener(Consumer<RepositoryChangeEvent<T>> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Adds a listener called after every committed write on a background thread shared by all repositories, in the
+     * order of the writes.
+     */
+    public void addAsyncChangeListener(Consumer<RepositoryChangeEvent<T>> listener) {
+        asyncChangeListeners.add(listener);
     }
 
     public T create() {
+        Supplier<T> factory = entityFactory;
+        if (factory == null) {
+            factory = createReflectiveFactory();
+            entityFactory = factory;
+        }
+        return factory.get();
+    }
+
+    private Supplier<T> createReflectiveFactory() {
+        Constructor<T> constructor;
         try {
-            return entityClass.getDeclaredConstructor().newInstance();
-        } catch (ReflectiveOperationException e) {
+            constructor = entityClass.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
             logger.error("Could not create entity class {}.", entityClass.getName(), e);
+            return () -> null;
         }
-        return null;
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                logger.error("Could not create entity class {}.", entityClass.getName(), e);
+            }
+            return null;
+        };
     }
 
     public final Optional<T> save(T entity) {
         try {
             if (entity.getId() == null) {
-                return Optional.of(insert(entity));
+                insert(entity);
+                publish(changeEvents(RepositoryChangeEvent.Operation.INSERT, List.of(entity), Map.of()));
             } else {
-                return Optional.of(update(entity));
+                Map<Long, Map<String, Object>> keysBefore;
+                try (Connection conn = databaseManager.getConnection()) {
+                    conn.setAutoCommit(false);
+                    try {
+                        keysBefore = findChangeKeys(conn, List.of(entity.getId()));
+                        update(conn, entity);
+                        conn.commit();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+                publish(changeEvents(RepositoryChangeEvent.Operation.UPDATE, List.of(entity), keysBefore));
             }
+            return Optional.of(entity);
         } catch (SQLException e) {
             logger.error("Error saving {}: {}", entityClass.getName(), entity, e);
             return Optional.empty();
@@ -84,38 +182,277 @@ public abstract class CrudRepository<T extends BaseModel<T>> {
     }
 
     public final boolean delete(Long id) {
-        String sql = "DELETE FROM " + tableName + " WHERE id = ?";
+        Map<Long, Map<String, Object>> keysBefore;
         try (Connection conn = databaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(deleteSql)) {
+            keysBefore = findChangeKeys(conn, List.of(id));
             pstmt.setLong(1, id);
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
         } catch (SQLException e) {
             logger.error("Error deleting {} with ID: {}", entityClass.getName(), id, e);
             return false;
         }
+        publish(deleteEvents(List.of(id), keysBefore));
+        return true;
     }
 
-    protected T insert(T entity) {
-        entity.setCreatedAt(LocalDateTime.now());
-        entity.setUpdatedAt(LocalDateTime.now());
+    /**
+     * Saves all entities in a single transaction. Inserts and updates are sent to SQLite in JDBC batches of at most
+     * {@link DatabaseManager#getBatchSize()} rows, and new entities get their generated IDs in input order once the
+     * transaction commits.
+     *
+     * @return the saved entities, or an empty Optional if the transaction was rolled back
+     */
+    public final Optional<List<T>> saveAll(Collection<T> entities) {
+        List<T> toInsert = entities.stream().filter(entity -> entity.getId() == null).toList();
+        List<T> toUpdate = entities.stream().filter(entity -> entity.getId() != null).toList();
+
+        Map<Long, Map<String, Object>> keysBefore;
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                keysBefore = findChangeKeys(conn, toUpdate.stream().map(BaseModel::getId).toList());
+                long[] generatedIds = insertBatched(conn, toInsert);
+                updateBatched(conn, toUpdate);
+                conn.commit();
+                for (int i = 0; i < generatedIds.length; i++) {
+                    toInsert.get(i).setId(generatedIds[i]);
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error saving {} entities of {}", entities.size(), entityClass.getName(), e);
+            return Optional.empty();
+        }
+        List<RepositoryChangeEvent<T>> events =
+                new ArrayList<>(changeEvents(RepositoryChangeEvent.Operation.INSERT, toInsert, Map.of()));
+        events.addAll(changeEvents(RepositoryChangeEvent.Operation.UPDATE, toUpdate, keysBefore));
+        publish(events);
+        return Optional.of(List.copyOf(entities));
+    }
 
-        List<QueryField<T, ?>> effectiveFields = fields.stream()
-                .filter(QueryField::isInsertable)
+    /**
+     * Deletes all entities with the given IDs in a single transaction, in JDBC batches of at most
+     * {@link DatabaseManager#getBatchSize()} rows.
+     *
+     * @return true if the transaction committed and every ID matched a row
+     */
+    public final boolean deleteAll(Collection<Long> ids) {
+        List<Long> idList = List.copyOf(ids);
+        int batchSize = databaseManager.getBatchSize();
+        List<Long> deletedIds = new ArrayList<>();
+        Map<Long, Map<String, Object>> keysBefore;
+
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(deleteSql)) {
+                keysBefore = findChangeKeys(conn, idList);
+                for (int start = 0; start < idList.size(); start += batchSize) {
+                    int end = Math.min(start + batchSize, idList.size());
+                    for (Long id : idList.subList(start, end)) {
+                        pstmt.setLong(1, id);
+                        pstmt.addBatch();
+                    }
+                    int[] affectedRows = pstmt.executeBatch();
+                    for (int i = 0; i < affectedRows.length; i++) {
+                        if (affectedRows[i] != 0) {
+                            deletedIds.add(idList.get(start + i));
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error deleting {} entities of {}", idList.size(), entityClass.getName(), e);
+            return false;
+        }
+        publish(deleteEvents(deletedIds, keysBefore));
+        return deletedIds.size() == idList.size();
+    }
+
+    /**
+     * Reads the change keys of the given entities as stored, before they are written. Nothing is read if no one
+     * listens.
+     */
+    private Map<Long, Map<String, Object>> findChangeKeys(Connection conn, List<Long> ids) throws SQLException {
+        Map<Long, Map<String, Object>> keys = new HashMap<>();
+        if (changeKeyFields.isEmpty() || !hasChangeListeners() || ids.isEmpty()) {
+            return keys;
+        }
+        String idColumn = (tableAlias != null ? tableAlias : tableName) + ".id";
+        String select = "SELECT " + idColumn + ", "
+                + changeKeyFields.stream().map(QueryField::toSql).collect(Collectors.joining(", "))
+                + " FROM " + tableName + (tableAlias != null ? " " + tableAlias : "")
+                + " WHERE " + idColumn + " IN (";
+        int batchSize = databaseManager.getBatchSize();
+        for (int start = 0; start < ids.size(); start += batchSize) {
+            List<Long> chunk = ids.subList(start, Math.min(start + batchSize, ids.size()));
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    select + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")")) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setLong(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        T stored = create();
+                        changeKeyFields.forEach(field -> field.mapToEntity(rs, stored));
+                        keys.put(rs.getLong(1), changeKeys(stored));
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    private Map<String, Object> changeKeys(T entity) {
+        // Keys may be null, which Map.of does not allow.
+        Map<String, Object> keys = new LinkedHashMap<>();
+        changeKeyFields.forEach(field -> keys.put(field.getFieldName(), field.getEntityValue(entity)));
+        return Collections.unmodifiableMap(keys);
+    }
+
+    private boolean hasChangeListeners() {
+        return !changeListeners.isEmpty() || !asyncChangeListeners.isEmpty();
+    }
+
+    private List<RepositoryChangeEvent<T>> changeEvents(RepositoryChangeEvent.Operation operation,
+                                                        Collection<T> entities,
+                                                        Map<Long, Map<String, Object>> keysBefore) {
+        if (!hasChangeListeners()) {
+            return List.of();
+        }
+        return entities.stream()
+                .map(entity -> new RepositoryChangeEvent<>(entityClass, entity.getId(), operation,
+                        keysBefore.getOrDefault(entity.getId(), Map.of()), changeKeys(entity)))
                 .toList();
+    }
 
-        String fields = effectiveFields.stream()
-                .map(QueryField::getFieldName)
-                .collect(Collectors.joining(", "));
+    private List<RepositoryChangeEvent<T>> deleteEvents(Collection<Long> ids,
+                                                        Map<Long, Map<String, Object>> keysBefore) {
+        if (!hasChangeListeners()) {
+            return List.of();
+        }
+        return ids.stream()
+                .map(id -> new RepositoryChangeEvent<>(entityClass, id, RepositoryChangeEvent.Operation.DELETE,
+                        keysBefore.getOrDefault(id, Map.<String, Object>of()), Map.<String, Object>of()))
+                .toList();
+    }
 
-        String valuesPlaceholders = String.join(", ", Collections.nCopies(effectiveFields.size(), "?"));
+    /**
+     * Announces committed writes: raises the data generation and notifies the change listeners. A failing listener
+     * is logged and does not affect the others, nor the write.
+     */
+    private void publish(List<RepositoryChangeEvent<T>> events) {
+        databaseManager.markDataChanged();
+        for (Consumer<RepositoryChangeEvent<T>> listener : changeListeners) {
+            events.forEach(event -> notifyListener(listener, event));
+        }
+        if (!asyncChangeListeners.isEmpty() && !events.isEmpty()) {
+            databaseManager.getChangeEventExecutor().execute(() -> asyncChangeListeners
+                    .forEach(listener -> events.forEach(event -> notifyListener(listener, event))));
+        }
+    }
 
-        String sql = "INSERT INTO " + tableName + " (" + fields + ") VALUES(" + valuesPlaceholders + ")";
+    private void notifyListener(Consumer<RepositoryChangeEvent<T>> listener, RepositoryChangeEvent<T> event) {
+        try {
+            listener.accept(event);
+        } catch (RuntimeException e) {
+            logger.error("Change listener failed for {}", event, e);
+        }
+    }
+
+    private long[] insertBatched(Connection conn, List<T> entities) throws SQLException {
+        long[] generatedIds = new long[entities.size()];
+        if (entities.isEmpty()) {
+            return generatedIds;
+        }
 
-        logger.debug("INSERT: {}", sql);
+        WriteStatement<T> statement = getInsertStatement();
+        List<QueryField<T, ?>> effectiveFields = statement.fields();
+        int batchSize = databaseManager.getBatchSize();
+        LocalDateTime now = LocalDateTime.now();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(statement.sql());
+             PreparedStatement lastIdStmt = conn.prepareStatement("SELECT last_insert_rowid()")) {
+            for (int start = 0; start < entities.size(); start += batchSize) {
+                int end = Math.min(start + batchSize, entities.size());
+                for (T entity : entities.subList(start, end)) {
+                    entity.setCreatedAt(now);
+                    entity.setUpdatedAt(now);
+                    for (int i = 0; i < effectiveFields.size(); ++i) {
+                        effectiveFields.get(i).mapToStatementParam(pstmt, i + 1, entity);
+                    }
+                    pstmt.addBatch();
+                }
+                for (int affectedRows : pstmt.executeBatch()) {
+                    if (affectedRows == 0) {
+                        throw new SQLException("Creating " + entityClass.getName() + " failed, no rows affected.");
+                    }
+                }
+
+                // The transaction holds the write lock, so the rows of this chunk got consecutive IDs ending
+                // with the last inserted one.
+                long lastId;
+                try (ResultSet rs = lastIdStmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Creating " + entityClass.getName() + " failed, no ID obtained.");
+                    }
+                    lastId = rs.getLong(1);
+                }
+                for (int i = start; i < end; i++) {
+                    generatedIds[i] = lastId - (end - 1 - i);
+                }
+            }
+        }
+        return generatedIds;
+    }
+
+    private void updateBatched(Connection conn, List<T> entities) throws SQLException {
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        WriteStatement<T> statement = getUpdateStatement();
+        List<QueryField<T, ?>> effectiveFields = statement.fields();
+        int batchSize = databaseManager.getBatchSize();
+        LocalDateTime now = LocalDateTime.now();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(statement.sql())) {
+            for (int start = 0; start < entities.size(); start += batchSize) {
+                int end = Math.min(start + batchSize, entities.size());
+                for (T entity : entities.subList(start, end)) {
+                    entity.setUpdatedAt(now);
+                    for (int i = 0; i < effectiveFields.size(); ++i) {
+                        effectiveFields.get(i).mapToStatementParam(pstmt, i + 1, entity);
+                    }
+                    pstmt.setLong(effectiveFields.size() + 1, entity.getId());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    protected T insert(T entity) throws SQLException {
+        entity.setCreatedAt(LocalDateTime.now());
+        entity.setUpdatedAt(LocalDateTime.now());
+
+        WriteStatement<T> statement = getInsertStatement();
+        List<QueryField<T, ?>> effectiveFields = statement.fields();
 
         try (Connection conn = databaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement pstmt = conn.prepareStatement(statement.sql(), Statement.RETURN_GENERATED_KEYS)) {
 
             for (int i = 0; i < effectiveFields.size(); ++i) {
                 effectiveFields.get(i).mapToStatementParam(pstmt, i + 1, entity);
@@ -134,30 +471,19 @@ public abstract class CrudRepository<T extends BaseModel<T>> {
                     throw new SQLException("Creating " + entityClass.getName() + " failed, no ID obtained.");
                 }
             }
-        } catch (SQLException e) {
-            logger.error("Error inserting {}: {}", entityClass.getName(), entity.getDisplayName(), e);
-            throw new RuntimeException(e);
         }
     }
 
-    protected T update(T entity) throws SQLException {
+    /**
+     * Updates the entity on the given connection, within the caller's transaction if one is open.
+     */
+    protected T update(Connection conn, T entity) throws SQLException {
         entity.setUpdatedAt(LocalDateTime.now());
 
-        List<QueryField<T, ?>> effectiveFields = fields.stream()
-                .filter(QueryField::isUpdatable)
-                .toList();
-
-        String fields = effectiveFields.stream()
-                .map(qf -> qf.getFieldName() + " = ?")
-                .collect(Collectors.joining(", "));
-
-        String sql = "UPDATE " + tableName + " SET " + fields + " WHERE id = ?";
-
-        logger.debug("UPDATE: {}", sql);
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        WriteStatement<T> statement = getUpdateStatement();
+        List<QueryField<T, ?>> effectiveFields = statement.fields();
 
+        try (PreparedStatement pstmt = conn.prepareStatement(statement.sql())) {
             for (int i = 0; i < effectiveFields.size(); ++i) {
                 effectiveFields.get(i).mapToStatementParam(pstmt, i + 1, entity);
             }
@@ -165,12 +491,77 @@ public abstract class CrudRepository<T extends BaseModel<T>> {
 
             pstmt.executeUpdate();
             return entity;
-        } catch (SQLException e) {
-            logger.error("Error updating {}: {}", entityClass.getName(), entity.getDisplayName(), e);
-            throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Starts a SELECT of all repository fields with the repository joins applied.
+     */
+    QueryBuilder<T> newQuery() {
+        return new QueryBuilder<T>()
+                .select(fields)
+                .from(tableName, tableAlias)
+                .join(joins);
+    }
+
+    private WriteStatement<T> getInsertStatement() {
+        WriteStatement<T> statement = insertStatement;
+        if (statement == null) {
+            List<QueryField<T, ?>> effectiveFields = fields.stream()
+                    .filter(QueryField::isInsertable)
+                    .toList();
+
+            String fields = effectiveFields.stream()
+                    .map(QueryField::getFieldName)
+                    .collect(Collectors.joining(", "));
+
+            String valuesPlaceholders = String.join(", ", Collections.nCopies(effectiveFields.size(), "?"));
+
+            String sql = "INSERT INTO " + tableName + " (" + fields + ") VALUES(" + valuesPlaceholders + ")";
+
+            logger.debug("INSERT: {}", sql);
+
+            statement = new WriteStatement<>(sql, effectiveFields);
+            insertStatement = statement;
+        }
+        return statement;
+    }
+
+    private WriteStatement<T> getUpdateStatement() {
+        WriteStatement<T> statement = updateStatement;
+        if (statement == null) {
+            List<QueryField<T, ?>> effectiveFields = fields.stream()
+                    .filter(QueryField::isUpdatable)
+                    .toList();
+
+            String fields = effectiveFields.stream()
+                    .map(qf -> qf.getFieldName() + " = ?")
+                    .collect(Collectors.joining(", "));
+
+            String sql = "UPDATE " + tableName + " SET " + fields + " WHERE id = ?";
+
+            logger.debug("UPDATE: {}", sql);
+
+            statement = new WriteStatement<>(sql, effectiveFields);
+            updateStatement = statement;
+        }
+        return statement;
+    }
+
+    /**
+     * Runs a query once per chunk of keys and concatenates the results. Used for {@code IN (...)} lookups, so the
+     * number of bound parameters per statement stays well below SQLite's limit.
+     */
+    protected <K> Collection<T> findInChunks(Collection<K> keys, Function<List<K>, Collection<T>> query) {
+        List<K> distinctKeys = keys.stream().distinct().toList();
+        int chunkSize = databaseManager.getBatchSize();
+        List<T> result = new ArrayList<>();
+        for (int i = 0; i < distinctKeys.size(); i += chunkSize) {
+            result.addAll(query.apply(distinctKeys.subList(i, Math.min(i + chunkSize, distinctKeys.size()))));
+        }
+        return result;
+    }
+
     public Collection<T> findAll(Collection<FilterCondition> filterConditions) {
         return findMany(filterConditions, List.of(), List.of(), List.of());
     }
@@ -191,14 +582,6 @@ public abstract class CrudRepository<T extends BaseModel<T>> {
         });
     }
 
-    private T mapResultSetToEntity(ResultSet rs, Collection<QueryField<T, ?>> fields) {
-        T entity = create();
-
-        fields.forEach(field -> field.mapToEntity(rs, entity));
-
-        return entity;
-    }
-
     public Optional<T> findById(Long id) {
         return findOne(List.of(new EqualFilterCondition<>((tableAlias != null ? tableAlias : tableName) + ".id", id)));
     }
@@ -217,45 +600,207 @@ public abstract class CrudRepository<T extends BaseModel<T>> {
     public void findMany(Collection<FilterCondition> filterConditions, Collection<QueryOrder> orders,
                          Collection<QueryField<T, ?>> additionalFields,
                          Collection<QueryJoin> additionalJoins, EntityConsumer<T> consumer) {
-        doFindQuery(filterConditions, additionalFields, additionalJoins, orders, consumer);
+        doFindQuery(filterConditions, additionalFields, additionalJoins, orders, null, consumer);
     }
 
     public Optional<T> findOne(Collection<FilterCondition> filterConditions) {
         List<T> entities = new ArrayList<>();
-        doFindQuery(filterConditions, List.of(), List.of(), List.of(), (rs, e) -> {
+        doFindQuery(filterConditions, List.of(), List.of(), List.of(), null, (rs, e) -> {
             entities.add(e);
             return false;
         });
         return entities.isEmpty() ? Optional.empty() : Optional.of(entities.getFirst());
     }
 
+    /**
+     * Returns a lazy stream over the matching entities. Rows are read from the database cursor as the stream is
+     * consumed, so the stream holds a pooled connection until it is closed and must be used in a
+     * try-with-resources block.
+     */
+    public Stream<T> stream(Collection<FilterCondition> filterConditions, Collection<QueryOrder> orders) {
+        Cursor cursor;
+        try {
+            cursor = openCursor(filterConditions, List.of(), List.of(), orders, null);
+        } catch (SQLException e) {
+            logger.error("Error retrieving entities {}", entityClass.getName(), e);
+            return Stream.empty();
+        }
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    T entity = cursor.next();
+                    if (entity == null) {
+                        return false;
+                    }
+                    action.accept(entity);
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                cursor.close();
+            } catch (SQLException e) {
+                logger.warn("Error closing cursor over {}", entityClass.getName(), e);
+            }
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} entities that follow {@code afterKey} in the given ordering, using keyset
+     * pagination: the position is expressed as a condition on the order columns instead of an OFFSET, so every
+     * page costs the same regardless of how deep it is. The entity id is appended to the ordering to break ties.
+     *
+     * @param afterKey the key of the previous page, or null for the first page
+     */
+    public Page<T> findPage(Collection<FilterCondition> filterConditions, PageKey afterKey, int limit,
+                            List<QueryOrder> orders) {
+        String idTable = tableAlias != null ? tableAlias : tableName;
+        QueryOrder.Direction idDirection =
+                orders.isEmpty() ? QueryOrder.Direction.ASC : orders.getLast().getDirection();
+        List<QueryOrder> keyOrders = new ArrayList<>(orders);
+        keyOrders.add(new QueryOrder(idTable, "id", idDirection));
+
+        List<QueryField<T, ?>> keyFields = new ArrayList<>();
+        for (int i = 0; i < keyOrders.size(); i++) {
+            keyFields.add(new InternalQueryField<>(keyOrders.get(i).getTable(), keyOrders.get(i).getField(),
+                    "page_key_" + i));
+        }
+
+        Collection<FilterCondition> conditions = new ArrayList<>(filterConditions);
+        if (afterKey != null) {
+            conditions.add(new KeysetFilterCondition(keyOrders, afterKey));
+        }
+
+        List<T> entities = new ArrayList<>();
+        List<Object> lastKeyValues = new ArrayList<>();
+        boolean[] hasNext = {false};
+        // One extra row tells whether another page follows.
+        doFindQuery(conditions, keyFields, List.of(), keyOrders, limit + 1, (rs, e) -> {
+            if (entities.size() == limit) {
+                hasNext[0] = true;
+                return false;
+            }
+            entities.add(e);
+            lastKeyValues.clear();
+            for (int i = 0; i < keyFields.size(); i++) {
+                lastKeyValues.add(rs.getObject("page_key_" + i));
+            }
+            return true;
+        });
+        return new Page<>(entities, hasNext[0] ? new PageKey(Collections.unmodifiableList(lastKeyValues)) : null);
+    }
+
     private void doFindQuery(Collection<FilterCondition> filterConditions,
                              Collection<QueryField<T, ?>> additionalFields, Collection<QueryJoin> additionalJoins,
-                             Collection<QueryOrder> orders,
+                             Collection<QueryOrder> orders, Integer limit,
                              EntityConsumer<T> consumer) {
-        QueryBuilder.QueryBuildResult<T> query = new QueryBuilder<T>()
-                .select(fields)
+        try (Cursor cursor = openCursor(filterConditions, additionalFields, additionalJoins, orders, limit)) {
+            T entity;
+            while ((entity = cursor.next()) != null) {
+                if (!consumer.accept(cursor.resultSet(), entity)) {
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving entities {}", entityClass.getName(), e);
+        }
+    }
+
+    private Cursor openCursor(Collection<FilterCondition> filterConditions,
+                              Collection<QueryField<T, ?>> additionalFields, Collection<QueryJoin> additionalJoins,
+                              Collection<QueryOrder> orders, Integer limit) throws SQLException {
+        QueryBuilder<T> queryBuilder = newQuery()
                 .withFields(additionalFields)
-                .from(tableName, tableAlias)
-                .join(joins)
                 .join(additionalJoins)
                 .where(filterConditions)
                 .order(orders)
-                .build();
+                .limit(limit);
+        CompiledQuery<T> query = getCompiledQuery(queryBuilder,
+                QueryShape.of(additionalFields, additionalJoins, filterConditions, orders, limit != null));
+        List<Object> params = queryBuilder.collectParams();
 
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query.sql())
-        ) {
-            for (int i = 0; i < query.params().size(); i++) {
-                stmt.setObject(i + 1, query.params().get(i));
+        Cursor cursor = new Cursor(databaseManager.getConnection());
+        try {
+            cursor.stmt = cursor.conn.prepareStatement(query.sql());
+            for (int i = 0; i < params.size(); i++) {
+                cursor.stmt.setObject(i + 1, params.get(i));
             }
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (true) {
-                    if (!rs.next() || !consumer.accept(rs, mapResultSetToEntity(rs, query.fields()))) break;
-                }
+            cursor.rs = cursor.stmt.executeQuery();
+            // Queries of the same shape may map their extra fields differently, so only the mapper of a query
+            // without extra fields is cached.
+            cursor.rowMapper = additionalFields.isEmpty()
+                    ? query.getRowMapper(cursor.rs)
+                    : RowMapper.compile(queryBuilder.getFields(), cursor.rs);
+            cursor.row = cursor.rowMapper.newRowContext();
+            return cursor;
+        } catch (SQLException | RuntimeException e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    private CompiledQuery<T> getCompiledQuery(QueryBuilder<T> queryBuilder, QueryShape shape) {
+        QueryCacheMetrics metrics = databaseManager.getQueryCacheMetrics();
+        CompiledQuery<T> compiledQuery = compiledQueries.get(shape);
+        if (compiledQuery != null) {
+            metrics.recordHit();
+            return compiledQuery;
+        }
+
+        metrics.recordMiss();
+        compiledQuery = queryBuilder.compile();
+        if (compiledQueries.size() >= MAX_COMPILED_QUERIES) {
+            // Free-text filters produce a new shape per word count; don't let them grow the cache without bound.
+            compiledQueries.clear();
+        }
+        compiledQueries.put(shape, compiledQuery);
+        return compiledQuery;
+    }
+
+    private record WriteStatement<T extends BaseModel<T>>(String sql, List<QueryField<T, ?>> fields) {
+    }
+
+    /**
+     * An open query: the pooled connection, statement and result set it holds, and the mapper for its rows.
+     */
+    private final class Cursor implements AutoCloseable {
+        private final Connection conn;
+        private PreparedStatement stmt;
+        private ResultSet rs;
+        private RowMapper<T> rowMapper;
+        private RowContext row;
+
+        private Cursor(Connection conn) {
+            this.conn = conn;
+        }
+
+        private ResultSet resultSet() {
+            return rs;
+        }
+
+        /**
+         * Advances to the next row and maps it, or returns null when the result set is exhausted.
+         */
+        private T next() throws SQLException {
+            if (!rs.next()) {
+                return null;
+            }
+            T entity = create();
+            rowMapper.map(rs, row, entity);
+            return entity;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            // Closes the result set, then the statement, then returns the connection; unset ones are skipped.
+            try (Connection c = conn; PreparedStatement s = stmt; ResultSet r = rs) {
             }
-        } catch (SQLException e) {
-            logger.error("Error retrieving entities {}", entityClass.getName(), e);
         }
     }
 
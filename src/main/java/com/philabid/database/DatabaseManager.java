@@ -1,5 +1,10 @@
 package com.philabid.database;
 
+import com.philabid.database.pool.ConnectionPool;
+import com.philabid.database.pool.ConnectionPoolMetrics;
+import com.philabid.database.pool.ConnectionPoolSettings;
+import com.philabid.database.util.query.QueryCacheMetrics;
+import com.philabid.service.ConfigurationService;
 import org.flywaydb.core.Flyway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,28 +13,81 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages SQLite database connections and migrations for the Philabid application.
  * Handles database initialization, schema migrations using Flyway, and connection management.
+ * Connections are served from a {@link ConnectionPool} configured from the {@code database} section of the
+ * application configuration.
  */
-public class DatabaseManager {
+public class DatabaseManager implements AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
-    private static final String DATABASE_FILE = "philabid.db";
-    private static final String DATABASE_URL = "jdbc:sqlite:" + DATABASE_FILE;
+    private static final String DEFAULT_DATABASE_FILE = "philabid.db";
+    private static final String URL_PREFIX = "jdbc:sqlite:";
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final String databaseFile;
+    private final String databaseUrl;
+    private final ConnectionPool connectionPool;
+    private final int batchSize;
+    private final QueryCacheMetrics queryCacheMetrics = new QueryCacheMetrics();
+    private final AtomicLong dataGeneration = new AtomicLong();
+    private final ExecutorService changeEventExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "repository-change-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DatabaseManager(ConfigurationService configurationService) {
+        this(DEFAULT_DATABASE_FILE, readPoolSettings(configurationService),
+                Math.max(1, configurationService.getInt("database.batchSize", DEFAULT_BATCH_SIZE)));
+    }
+
+    public DatabaseManager(String databaseFile, ConnectionPoolSettings poolSettings) {
+        this(databaseFile, poolSettings, DEFAULT_BATCH_SIZE);
+    }
+
+    public DatabaseManager(String databaseFile, ConnectionPoolSettings poolSettings, int batchSize) {
+        this.databaseFile = databaseFile;
+        this.databaseUrl = URL_PREFIX + databaseFile;
+        this.connectionPool = new ConnectionPool(databaseUrl, poolSettings);
+        this.batchSize = batchSize;
+    }
+
+    private static ConnectionPoolSettings readPoolSettings(ConfigurationService configurationService) {
+        ConnectionPoolSettings defaults = ConnectionPoolSettings.DEFAULTS;
+        try {
+            return new ConnectionPoolSettings(
+                    configurationService.getInt("database.poolSize", defaults.poolSize()),
+                    configurationService.getLong("database.poolAcquireTimeout", defaults.acquireTimeoutMillis()),
+                    configurationService.getString("database.journalMode", defaults.journalMode()),
+                    configurationService.getString("database.synchronous", defaults.synchronous()),
+                    configurationService.getLong("database.mmapSize", defaults.mmapSize()),
+                    configurationService.getInt("database.cacheSize", defaults.cacheSize()),
+                    configurationService.getString("database.tempStore", defaults.tempStore()),
+                    configurationService.getInt("database.busyTimeout", defaults.busyTimeoutMillis()),
+                    configurationService.getInt("database.statementCacheSize", defaults.statementCacheSize()));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid database pool configuration, using defaults: {}", e.getMessage());
+            return defaults;
+        }
+    }
 
     /**
      * Initializes the database, creating the file if it doesn't exist and running migrations.
      */
     public void initialize() throws SQLException {
-        logger.info("Initializing database at: {}", DATABASE_FILE);
+        logger.info("Initializing database at: {}", databaseFile);
 
         try {
             // Ensure database directory exists
-            Path dbPath = Paths.get(DATABASE_FILE).getParent();
+            Path dbPath = Paths.get(databaseFile).getParent();
             if (dbPath != null && !Files.exists(dbPath)) {
                 Files.createDirectories(dbPath);
             }
@@ -54,7 +112,7 @@ public class DatabaseManager {
         logger.info("Running database migrations...");
 
         Flyway flyway = Flyway.configure()
-                .dataSource(DATABASE_URL, null, null)
+                .dataSource(databaseUrl, null, null)
                 .locations("classpath:db/migration")
                 .load();
 
@@ -64,18 +122,71 @@ public class DatabaseManager {
     }
 
     /**
-     * Gets a database connection.
+     * Gets a database connection from the pool.
      *
      * @return active database connection
      * @throws SQLException if connection is not available
      */
     public Connection getConnection() throws SQLException {
-        // Always return a new connection. The calling code (using try-with-resources) is responsible for closing it.
-        return DriverManager.getConnection(DATABASE_URL);
+        // The calling code (using try-with-resources) is responsible for closing it, which returns it to the pool.
+        return connectionPool.getConnection();
+    }
+
+    public ConnectionPoolMetrics getPoolMetrics() {
+        return connectionPool.getMetrics();
+    }
+
+    /**
+     * Maximum number of rows sent to SQLite in a single JDBC batch by bulk repository operations.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * A counter raised after every write of {@link CrudRepository} and of stored exchange rates, so that a result read
+     * while it had some value is known to be current as long as the value stays the same.
+     */
+    public long getDataGeneration() {
+        return dataGeneration.get();
+    }
+
+    public void markDataChanged() {
+        dataGeneration.incrementAndGet();
+    }
+
+    /**
+     * The thread that runs the asynchronous change listeners of all repositories, one write after another.
+     */
+    public ExecutorService getChangeEventExecutor() {
+        return changeEventExecutor;
+    }
+
+    public QueryCacheMetrics getQueryCacheMetrics() {
+        return queryCacheMetrics;
+    }
+
+    /**
+     * Moves all committed WAL content into the main database file, so it can be safely copied.
+     */
+    public void checkpoint() {
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+        } catch (SQLException e) {
+            logger.warn("Failed to checkpoint the database WAL", e);
+        }
     }
 
     public Path getDatabasePath() {
-        Path relativeOrAbsolutePath = Path.of(DATABASE_URL.substring("jdbc:sqlite:".length()));
+        Path relativeOrAbsolutePath = Path.of(databaseUrl.substring(URL_PREFIX.length()));
         return relativeOrAbsolutePath.toAbsolutePath();
     }
+
+    @Override
+    public void close() {
+        logger.info("Compiled query cache: {}", queryCacheMetrics);
+        changeEventExecutor.shutdown();
+        connectionPool.close();
+    }
 }
\ No newline at end of file
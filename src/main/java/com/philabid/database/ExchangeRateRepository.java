@@ -10,7 +10,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class ExchangeRateRepository {
 
@@ -38,6 +42,17 @@ public class ExchangeRateRepository {
         return Optional.empty();
     }
 
+    public void findAll(Consumer<ExchangeRate> consumer) throws SQLException {
+        String sql = "SELECT * FROM exchange_rates";
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                consumer.accept(mapRowToExchangeRate(rs));
+            }
+        }
+    }
+
     public void saveRate(ExchangeRate exchangeRate) throws SQLException {
         String sql =
                 "INSERT OR IGNORE INTO exchange_rates(rate_date, source_currency, target_currency, rate) VALUES(?,?," +
@@ -49,11 +64,39 @@ public class ExchangeRateRepository {
             pstmt.setString(3, exchangeRate.getTargetCurrency().getCurrencyCode());
             pstmt.setBigDecimal(4, exchangeRate.getRate());
             pstmt.executeUpdate();
+            databaseManager.markDataChanged();
             logger.debug("Saved exchange rate for {} from {} to {}: {}", exchangeRate.getDate(),
                     exchangeRate.getSourceCurrency(), exchangeRate.getTargetCurrency(), exchangeRate.getRate());
         }
     }
 
+    /**
+     * Saves many rates in one transaction; rates already stored for the same day and pair are kept.
+     */
+    public void saveRates(Collection<ExchangeRate> exchangeRates) throws SQLException {
+        String sql = "INSERT OR IGNORE INTO exchange_rates(rate_date, source_currency, target_currency, rate) " +
+                "VALUES(?,?,?,?)";
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (ExchangeRate exchangeRate : exchangeRates) {
+                    pstmt.setString(1, exchangeRate.getDate().toString());
+                    pstmt.setString(2, exchangeRate.getSourceCurrency().getCurrencyCode());
+                    pstmt.setString(3, exchangeRate.getTargetCurrency().getCurrencyCode());
+                    pstmt.setBigDecimal(4, exchangeRate.getRate());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                databaseManager.markDataChanged();
+                logger.debug("Saved {} exchange rates", exchangeRates.size());
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
     private ExchangeRate mapRowToExchangeRate(ResultSet rs) throws SQLException {
         ExchangeRate rate = new ExchangeRate();
         rate.setId(rs.getLong("id"));
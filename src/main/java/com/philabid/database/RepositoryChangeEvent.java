@@ -0,0 +1,25 @@
+package com.philabid.database;
+
+import com.philabid.model.BaseModel;
+
+import java.util.Map;
+
+/**
+ * Announces a committed write of a {@link CrudRepository}. The keys are the values of the fields the repository
+ * declared as change keys, such as {@code trading_item_id} and {@code condition_id} of an auction, so that a listener
+ * can tell which of its derived state went stale without reading the entity.
+ *
+ * @param entityClass The class of the written entity.
+ * @param id          The ID of the written entity.
+ * @param operation   What was done to it.
+ * @param keysBefore  The change keys before the write, empty for an insert.
+ * @param keysAfter   The change keys after the write, empty for a delete.
+ */
+public record RepositoryChangeEvent<T extends BaseModel<T>>(Class<T> entityClass, Long id, Operation operation,
+                                                          Map<String, Object> keysBefore,
+                                                          Map<String, Object> keysAfter) {
+
+    public enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+}
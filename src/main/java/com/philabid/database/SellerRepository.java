@@ -22,6 +22,7 @@ public class SellerRepository extends CrudRepository<Seller> {
 
     public SellerRepository(DatabaseManager databaseManager) {
         super(databaseManager, Seller.class, "sellers");
+        setEntityFactory(Seller::new);
         addFields(FIELDS);
     }
 
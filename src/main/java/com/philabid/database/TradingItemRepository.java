@@ -31,6 +31,7 @@ public class TradingItemRepository extends CrudRepository<TradingItem> {
 
     public TradingItemRepository(DatabaseManager databaseManager) {
         super(databaseManager, TradingItem.class, "trading_items", "ti");
+        setEntityFactory(TradingItem::new);
         addFields(FIELDS);
         addJoins(JOINS);
     }
@@ -0,0 +1,56 @@
+package com.philabid.database;
+
+import com.philabid.database.util.query.*;
+import com.philabid.model.Valuation;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads valuations from the pre-aggregated {@code valuation_stats} table; see {@link ValuationStatsRepository}.
+ */
+public class ValuationRepository extends VirtualViewCrudRepository<Valuation> {
+    private static final Collection<QueryField<Valuation, ?>> FIELDS = List.of(
+            new LongQueryField<>("tiv", "trading_item_id", Valuation::setTradingItemId),
+            new LongQueryField<>("tiv", "condition_id", Valuation::setConditionId),
+            new IntQueryField<>("tiv", "auction_count", Valuation::setAuctionCount),
+            new InternalQueryField<>("tiv", "currency_code", "stats_currency_code"),
+            new MonetaryAmountQueryField<>("tiv", "average_price", "stats_currency_code", Valuation::setAveragePrice),
+            new MonetaryAmountQueryField<>("tiv", "median_price", "stats_currency_code", Valuation::setMedianPrice),
+            new MonetaryAmountQueryField<>("tiv", "min_price", "stats_currency_code", Valuation::setMinPrice),
+            new MonetaryAmountQueryField<>("tiv", "max_price", "stats_currency_code", Valuation::setMaxPrice),
+            new StringQueryField<>("ti", "catalog_number", "trading_item_catalog_number",
+                    Valuation::setTradingItemCatalogNumber),
+            new LongQueryField<>("ti", "order_number", "trading_item_order_number",
+                    Valuation::setTradingItemOrderNumber),
+            new StringQueryField<>("cond", "name", "condition_name", Valuation::setConditionName),
+            new StringQueryField<>("cond", "code", "condition_code", Valuation::setConditionCode),
+            new StringQueryField<>("catg", "name", "trading_item_category_name",
+                    Valuation::setTradingItemCategoryName),
+            new StringQueryField<>("catg", "code", "trading_item_category_code",
+                    Valuation::setTradingItemCategoryCode),
+            new LongQueryField<>("catg", "order_number", "trading_item_category_order_number",
+                    Valuation::setTradingItemCategoryOrderNumber),
+            new LongQueryField<>("catg", "id", "trading_item_category_id", Valuation::setTradingItemCategoryId),
+            new CurrencyQueryField<>("cv", "currency_code", "catalog_currency_code", null),
+            new MonetaryAmountQueryField<>("cv", "value", "catalog_value", "catalog_currency_code",
+                    Valuation::setCatalogValue),
+            new BooleanQueryField<>("cat", "is_active", Valuation::setCatalogActive)
+    );
+
+    private static final Collection<QueryJoin> JOINS = List.of(
+            new QueryInnerJoin("trading_items", "ti", "ti.id = tiv.trading_item_id"),
+            new QueryLeftOuterJoin("catalog_values", "cv",
+                    "tiv.trading_item_id = cv.trading_item_id AND tiv.condition_id = cv.condition_id"),
+            new QueryLeftOuterJoin("categories", "catg", "ti.category_id = catg.id"),
+            new QueryLeftOuterJoin("catalogs", "cat", "cv.catalog_id = cat.id"),
+            new QueryLeftOuterJoin("conditions", "cond", "tiv.condition_id = cond.id")
+    );
+
+    public ValuationRepository(DatabaseManager databaseManager) {
+        super(databaseManager, Valuation.class, "valuation_stats", "tiv");
+        setEntityFactory(Valuation::new);
+        addFields(FIELDS);
+        addJoins(JOINS);
+    }
+}
@@ -0,0 +1,393 @@
+package com.philabid.database;
+
+import com.philabid.model.Valuation;
+import com.philabid.util.MultiCurrencyMonetaryAmount;
+import org.javamoney.moneta.Money;
+import org.javatuples.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Maintains the {@code valuation_stats} table. Triggers mark rows stale when auctions or catalog values change;
+ * this repository finds the stale rows and stores the statistics computed for them.
+ */
+public class ValuationStatsRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationStatsRepository.class);
+
+    // Rows are also stale when computed for another currency or boundary, or - if any of their amounts needs an
+    // exchange rate - when computed on an earlier day.
+    private static final String FIND_STALE_SQL = """
+            SELECT vs.trading_item_id, vs.condition_id
+            FROM valuation_stats vs
+            WHERE vs.computed_on IS NULL
+               OR vs.currency_code IS NOT ?
+               OR vs.max_price_multiplier IS NOT ?
+               OR (vs.computed_on < ?
+                   AND (EXISTS (SELECT 1
+                                FROM auctions a
+                                WHERE a.trading_item_id = vs.trading_item_id
+                                  AND a.archived = 1
+                                  AND a.condition_id = vs.condition_id
+                                  AND a.currency_code IS NOT ?)
+                        OR EXISTS (SELECT 1
+                                   FROM catalog_values cv
+                                   WHERE cv.trading_item_id = vs.trading_item_id
+                                     AND cv.condition_id = vs.condition_id
+                                     AND cv.currency_code IS NOT ?)))""";
+
+    private static final String CURRENCIES_SQL = """
+            WITH items (trading_item_id) AS (VALUES %s)
+            SELECT a.currency_code
+            FROM auctions a
+            WHERE a.trading_item_id IN items
+              AND a.archived = 1
+            UNION
+            SELECT cv.currency_code
+            FROM catalog_values cv
+            WHERE cv.trading_item_id IN items""";
+
+    // Prices are normalized to the default currency with the given rates (an unknown rate counts as 1, as the
+    // conversion in MultiCurrencyMonetaryAmount does). The median covers every price, the other aggregates only
+    // those within the catalog value boundary.
+    private static final String COMPUTE_SQL = """
+            WITH items (trading_item_id) AS (VALUES %s),
+                 rates (currency_code, rate) AS (VALUES %s),
+                 prices AS (SELECT a.trading_item_id, a.condition_id, a.current_price * COALESCE(r.rate, 1) AS price
+                            FROM auctions a
+                                     LEFT JOIN rates r ON r.currency_code = a.currency_code
+                            WHERE a.trading_item_id IN items
+                              AND a.archived = 1
+                              AND a.current_price IS NOT NULL),
+                 ranked AS (SELECT trading_item_id, condition_id, price,
+                                   ROW_NUMBER() OVER item_prices AS position,
+                                   COUNT(*) OVER (PARTITION BY trading_item_id, condition_id) AS total
+                            FROM prices
+                            WINDOW item_prices AS (PARTITION BY trading_item_id, condition_id ORDER BY price)),
+                 medians AS (SELECT trading_item_id, condition_id, AVG(price) AS median_price
+                             FROM ranked
+                             WHERE position IN ((total + 1) / 2, total / 2 + 1)
+                             GROUP BY trading_item_id, condition_id),
+                 bounded AS (SELECT p.trading_item_id, p.condition_id, COUNT(*) AS auction_count,
+                                    SUM(p.price) AS sum_price, MIN(p.price) AS min_price, MAX(p.price) AS max_price
+                             FROM prices p
+                                      LEFT JOIN catalog_values cv ON cv.trading_item_id = p.trading_item_id
+                                 AND cv.condition_id = p.condition_id
+                                      LEFT JOIN rates cr ON cr.currency_code = cv.currency_code
+                             WHERE cv.value IS NULL
+                                OR (p.price > 0 AND p.price < cv.value * COALESCE(cr.rate, 1) * ?)
+                             GROUP BY p.trading_item_id, p.condition_id)
+            SELECT vs.trading_item_id, vs.condition_id, b.auction_count, b.sum_price, b.min_price, b.max_price,
+                   m.median_price
+            FROM valuation_stats vs
+                     LEFT JOIN bounded b ON b.trading_item_id = vs.trading_item_id
+                AND b.condition_id = vs.condition_id
+                     LEFT JOIN medians m ON m.trading_item_id = vs.trading_item_id
+                AND m.condition_id = vs.condition_id
+            WHERE vs.trading_item_id IN items""";
+
+    private static final String UPDATE_SQL = """
+            UPDATE valuation_stats
+            SET auction_count = ?, currency_code = ?, average_price = ?, median_price = ?, min_price = ?,
+                max_price = ?, max_price_multiplier = ?, computed_on = ?
+            WHERE trading_item_id = ? AND condition_id = ?""";
+
+    // Only stale rows can have lost their last auction or catalog value.
+    private static final String DELETE_ORPHANS_SQL = """
+            DELETE
+            FROM valuation_stats
+            WHERE computed_on IS NULL
+              AND NOT EXISTS (SELECT 1
+                              FROM auctions a
+                              WHERE a.trading_item_id = valuation_stats.trading_item_id
+                                AND a.condition_id = valuation_stats.condition_id)
+              AND NOT EXISTS (SELECT 1
+                              FROM catalog_values cv
+                              WHERE cv.trading_item_id = valuation_stats.trading_item_id
+                                AND cv.condition_id = valuation_stats.condition_id)""";
+
+    private static final String LAST_CATEGORY_PERCENTAGE_CHANGE_SQL =
+            "SELECT COALESCE(MAX(id), 0) FROM category_percentage_changes";
+
+    private static final String CATEGORY_PERCENTAGE_TOTALS_SQL = """
+            SELECT ti.category_id, a.condition_id, SUM(CAST(ROUND(a.archived_catalog_value_percentage * ?) AS INTEGER)),
+                   COUNT(*)
+            FROM auctions a
+                     JOIN trading_items ti ON ti.id = a.trading_item_id
+            WHERE a.archived = 1
+              AND a.current_price IS NOT NULL
+              AND a.archived_catalog_value_percentage > 0
+              AND a.archived_catalog_value_percentage < ?
+            GROUP BY ti.category_id, a.condition_id""";
+
+    private static final String CATEGORY_PERCENTAGE_CHANGES_SQL = """
+            SELECT id, category_id, condition_id, percentage, CAST(ROUND(percentage * ?) AS INTEGER), delta
+            FROM category_percentage_changes
+            WHERE id > ?
+            ORDER BY id""";
+
+    private static final String DELETE_CATEGORY_PERCENTAGE_CHANGES_SQL =
+            "DELETE FROM category_percentage_changes WHERE id <= ?";
+
+    /**
+     * Ratios are summed in millionths, as integers, so that a sum stays exact however many ratios enter and leave it.
+     */
+    public static final long PERCENTAGE_SCALE = 1_000_000;
+
+    private final DatabaseManager databaseManager;
+
+    public ValuationStatsRepository(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+    }
+
+    /**
+     * Finds the (trading item, condition) pairs whose statistics have to be recomputed.
+     */
+    public List<Pair<Long, Long>> findStaleKeys(LocalDate today, CurrencyUnit currency, double maxPriceMultiplier)
+            throws SQLException {
+        List<Pair<Long, Long>> keys = new ArrayList<>();
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FIND_STALE_SQL)) {
+            pstmt.setString(1, currency.getCurrencyCode());
+            pstmt.setDouble(2, maxPriceMultiplier);
+            pstmt.setString(3, today.toString());
+            pstmt.setString(4, currency.getCurrencyCode());
+            pstmt.setString(5, currency.getCurrencyCode());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(Pair.with(rs.getLong(1), rs.getLong(2)));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Finds the currencies of the archived auctions and catalog values of the given trading items.
+     */
+    public Set<CurrencyUnit> findCurrencies(Collection<Long> tradingItemIds) throws SQLException {
+        Set<CurrencyUnit> currencies = new HashSet<>();
+        for (List<Long> chunk : chunks(tradingItemIds)) {
+            try (Connection conn = databaseManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(
+                         CURRENCIES_SQL.formatted(placeholders(chunk.size(), "(?)")))) {
+                int index = 1;
+                for (Long tradingItemId : chunk) {
+                    pstmt.setLong(index++, tradingItemId);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        currencies.add(Monetary.getCurrency(rs.getString(1)));
+                    }
+                }
+            }
+        }
+        return currencies;
+    }
+
+    /**
+     * Computes the statistics of every condition of the given trading items in SQL, one row per valuation.
+     * Prices are converted to {@code currency} with {@code rates}, the exchange rates of other currencies to it.
+     */
+    public List<Valuation> computeStats(Collection<Long> tradingItemIds, Map<CurrencyUnit, BigDecimal> rates,
+                                        CurrencyUnit currency, double maxPriceMultiplier) throws SQLException {
+        List<Valuation> valuations = new ArrayList<>();
+        for (List<Long> chunk : chunks(tradingItemIds)) {
+            String sql = COMPUTE_SQL.formatted(placeholders(chunk.size(), "(?)"),
+                    placeholders(rates.size() + 1, "(?, ?)"));
+            try (Connection conn = databaseManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                for (Long tradingItemId : chunk) {
+                    pstmt.setLong(index++, tradingItemId);
+                }
+                pstmt.setString(index++, currency.getCurrencyCode());
+                pstmt.setBigDecimal(index++, BigDecimal.ONE);
+                for (Map.Entry<CurrencyUnit, BigDecimal> rate : rates.entrySet()) {
+                    pstmt.setString(index++, rate.getKey().getCurrencyCode());
+                    pstmt.setBigDecimal(index++, rate.getValue());
+                }
+                pstmt.setDouble(index, maxPriceMultiplier);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        valuations.add(mapRowToValuation(rs, currency));
+                    }
+                }
+            }
+        }
+        return valuations;
+    }
+
+    /**
+     * Removes the rows of pairs that no longer have any auction or catalog value.
+     *
+     * @return the number of removed rows
+     */
+    public int deleteOrphans() throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_ORPHANS_SQL)) {
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Stores freshly computed statistics.
+     */
+    public void saveStats(Collection<Valuation> valuations, LocalDate computedOn, CurrencyUnit currency,
+                          double maxPriceMultiplier) throws SQLException {
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement update = conn.prepareStatement(UPDATE_SQL)) {
+                for (Valuation valuation : valuations) {
+                    update.setObject(1, valuation.getAuctionCount());
+                    update.setString(2, currency.getCurrencyCode());
+                    update.setBigDecimal(3, toDecimal(valuation.getAveragePrice()));
+                    update.setBigDecimal(4, toDecimal(valuation.getMedianPrice()));
+                    update.setBigDecimal(5, toDecimal(valuation.getMinPrice()));
+                    update.setBigDecimal(6, toDecimal(valuation.getMaxPrice()));
+                    update.setDouble(7, maxPriceMultiplier);
+                    update.setString(8, computedOn.toString());
+                    update.setLong(9, valuation.getTradingItemId());
+                    update.setLong(10, valuation.getConditionId());
+                    update.addBatch();
+                }
+                update.executeBatch();
+                conn.commit();
+                logger.debug("Stored valuation statistics for {} items", valuations.size());
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Sums the archived price to catalog value ratios per (category, condition), in {@link #PERCENTAGE_SCALE}ths,
+     * skipping ratios outside (0, maxPriceMultiplier). The totals are read in one transaction together with the id of
+     * the last {@code category_percentage_changes} entry they already include.
+     */
+    public Pair<Long, List<CategoryPercentageTotal>> findCategoryPercentageTotals(double maxPriceMultiplier)
+            throws SQLException {
+        List<CategoryPercentageTotal> totals = new ArrayList<>();
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement();
+                 PreparedStatement pstmt = conn.prepareStatement(CATEGORY_PERCENTAGE_TOTALS_SQL)) {
+                long lastChangeId;
+                try (ResultSet rs = stmt.executeQuery(LAST_CATEGORY_PERCENTAGE_CHANGE_SQL)) {
+                    lastChangeId = rs.getLong(1);
+                }
+                pstmt.setLong(1, PERCENTAGE_SCALE);
+                pstmt.setDouble(2, maxPriceMultiplier);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        totals.add(new CategoryPercentageTotal(rs.getObject(1, Long.class), rs.getLong(2),
+                                rs.getLong(3), rs.getInt(4)));
+                    }
+                }
+                conn.commit();
+                return Pair.with(lastChangeId, totals);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Finds the ratio changes logged after the given entry, oldest first.
+     */
+    public List<CategoryPercentageChange> findCategoryPercentageChanges(long afterId) throws SQLException {
+        List<CategoryPercentageChange> changes = new ArrayList<>();
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(CATEGORY_PERCENTAGE_CHANGES_SQL)) {
+            pstmt.setLong(1, PERCENTAGE_SCALE);
+            pstmt.setLong(2, afterId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    changes.add(new CategoryPercentageChange(rs.getLong(1), rs.getObject(2, Long.class),
+                            rs.getLong(3), rs.getDouble(4), rs.getLong(5), rs.getInt(6)));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Finds the id of the last logged ratio change, 0 if none was ever logged.
+     */
+    public long findLastCategoryPercentageChangeId() throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(LAST_CATEGORY_PERCENTAGE_CHANGE_SQL)) {
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Removes the logged ratio changes up to and including the given entry once they have been applied.
+     */
+    public void deleteCategoryPercentageChanges(long upToId) throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_CATEGORY_PERCENTAGE_CHANGES_SQL)) {
+            pstmt.setLong(1, upToId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private List<List<Long>> chunks(Collection<Long> keys) {
+        List<Long> distinctKeys = keys.stream().distinct().toList();
+        int chunkSize = databaseManager.getBatchSize();
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinctKeys.size(); i += chunkSize) {
+            chunks.add(distinctKeys.subList(i, Math.min(i + chunkSize, distinctKeys.size())));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count, String placeholder) {
+        return String.join(", ", Collections.nCopies(count, placeholder));
+    }
+
+    private static Valuation mapRowToValuation(ResultSet rs, CurrencyUnit currency) throws SQLException {
+        Valuation valuation = new Valuation();
+        valuation.setTradingItemId(rs.getLong("trading_item_id"));
+        valuation.setConditionId(rs.getLong("condition_id"));
+        int auctionCount = rs.getInt("auction_count");
+        if (auctionCount > 0) {
+            valuation.setAuctionCount(auctionCount);
+            valuation.setAveragePrice(Money.of(BigDecimal.valueOf(rs.getDouble("sum_price"))
+                    .divide(BigDecimal.valueOf(auctionCount), 2, RoundingMode.HALF_UP), currency));
+            valuation.setMinPrice(toMoney(rs, "min_price", 4, currency));
+            valuation.setMaxPrice(toMoney(rs, "max_price", 4, currency));
+        }
+        if (rs.getObject("median_price") != null) {
+            valuation.setMedianPrice(toMoney(rs, "median_price", 2, currency));
+        }
+        return valuation;
+    }
+
+    private static Money toMoney(ResultSet rs, String column, int scale, CurrencyUnit currency)
+            throws SQLException {
+        return Money.of(BigDecimal.valueOf(rs.getDouble(column)).setScale(scale, RoundingMode.HALF_UP), currency);
+    }
+
+    private static BigDecimal toDecimal(MultiCurrencyMonetaryAmount amount) {
+        return amount != null ? amount.defaultCurrencyAmount().getNumber().numberValue(BigDecimal.class) : null;
+    }
+
+    public record CategoryPercentageTotal(Long categoryId, Long conditionId, long scaledSum, int count) {
+    }
+
+    public record CategoryPercentageChange(long id, Long categoryId, Long conditionId, double percentage,
+                                           long scaledPercentage, int delta) {
+    }
+}
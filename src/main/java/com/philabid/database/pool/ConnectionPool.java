@@ -0,0 +1,142 @@
+package com.philabid.database.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of long-lived SQLite connections.
+ * <p>
+ * Opening a SQLite connection means opening the database file, parsing the schema and warming up the page cache,
+ * so the pool keeps up to {@link ConnectionPoolSettings#poolSize()} physical connections alive and hands out leases
+ * to them. Every physical connection is configured with the pragmas from {@link ConnectionPoolSettings}.
+ * <p>
+ * A thread that already holds a lease never blocks waiting for a second one (e.g. an exchange-rate lookup triggered
+ * while a result set is being mapped); if no idle connection is available it gets a short-lived overflow connection
+ * instead, which avoids self-deadlocks when the pool is exhausted.
+ * <p>
+ * Pooled connections cache up to {@link ConnectionPoolSettings#statementCacheSize()} prepared statements each;
+ * overflow connections are short-lived and do not cache.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final ConnectionPoolSettings settings;
+    private final Deque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    private final Semaphore leases;
+    private final ThreadLocal<int[]> leasesHeldByThread = ThreadLocal.withInitial(() -> new int[1]);
+    private final ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, ConnectionPoolSettings settings) {
+        this.url = url;
+        this.settings = settings;
+        this.leases = new Semaphore(settings.poolSize(), true);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        int[] heldByThread = leasesHeldByThread.get();
+        long start = System.nanoTime();
+        boolean permitted = leases.tryAcquire();
+        boolean contended = !permitted;
+        if (!permitted && heldByThread[0] == 0) {
+            try {
+                permitted = leases.tryAcquire(settings.acquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+        }
+        metrics.recordAcquire(System.nanoTime() - start, contended);
+
+        PooledConnection connection;
+        if (permitted) {
+            try {
+                connection = takeIdleOrOpen();
+            } catch (SQLException e) {
+                leases.release();
+                throw e;
+            }
+        } else {
+            logger.debug("Connection pool exhausted, opening an overflow connection");
+            metrics.recordOverflow();
+            connection = new PooledConnection(this, openPhysicalConnection(), false, 0);
+        }
+
+        heldByThread[0]++;
+        return connection.lease(heldByThread);
+    }
+
+    void release(PooledConnection connection, int[] heldByOwner) {
+        heldByOwner[0]--;
+        if (!connection.isPooled()) {
+            connection.closePhysical();
+            return;
+        }
+        try {
+            if (!closed && connection.resetForReuse()) {
+                idleConnections.offerFirst(connection);
+            } else {
+                connection.closePhysical();
+            }
+        } finally {
+            leases.release();
+        }
+    }
+
+    private PooledConnection takeIdleOrOpen() throws SQLException {
+        PooledConnection connection = idleConnections.pollFirst();
+        if (connection != null) {
+            return connection;
+        }
+        return new PooledConnection(this, openPhysicalConnection(), true, settings.statementCacheSize());
+    }
+
+    private Connection openPhysicalConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = " + settings.journalMode());
+            stmt.execute("PRAGMA synchronous = " + settings.synchronous());
+            stmt.execute("PRAGMA mmap_size = " + settings.mmapSize());
+            stmt.execute("PRAGMA cache_size = " + settings.cacheSize());
+            stmt.execute("PRAGMA temp_store = " + settings.tempStore());
+            stmt.execute("PRAGMA busy_timeout = " + settings.busyTimeoutMillis());
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        metrics.recordPhysicalOpen();
+        return connection;
+    }
+
+    public ConnectionPoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    public ConnectionPoolSettings getSettings() {
+        return settings;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection connection;
+        while ((connection = idleConnections.pollFirst()) != null) {
+            connection.closePhysical();
+        }
+        logger.info("Connection pool closed: {}", metrics.snapshot());
+    }
+}
@@ -0,0 +1,80 @@
+package com.philabid.database.pool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing how callers obtain connections from a {@link ConnectionPool}.
+ * All counters are cumulative since the pool was created.
+ */
+public class ConnectionPoolMetrics {
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder overflowConnections = new LongAdder();
+    private final LongAdder physicalConnectionsOpened = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    void recordAcquire(long waitNanos, boolean contended) {
+        acquisitions.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        if (contended) {
+            contendedAcquisitions.increment();
+        }
+    }
+
+    void recordOverflow() {
+        overflowConnections.increment();
+    }
+
+    void recordPhysicalOpen() {
+        physicalConnectionsOpened.increment();
+    }
+
+    void recordStatementCacheHit() {
+        statementCacheHits.increment();
+    }
+
+    void recordStatementCacheMiss() {
+        statementCacheMisses.increment();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(acquisitions.sum(), contendedAcquisitions.sum(), totalWaitNanos.sum(), maxWaitNanos.get(),
+                overflowConnections.sum(), physicalConnectionsOpened.sum(), statementCacheHits.sum(),
+                statementCacheMisses.sum());
+    }
+
+    /**
+     * Point-in-time copy of the pool counters.
+     *
+     * @param acquisitions              number of connections handed out
+     * @param contendedAcquisitions     number of acquisitions that found no idle connection and had to wait
+     * @param totalWaitNanos            total time spent waiting for a connection
+     * @param maxWaitNanos              longest single wait for a connection
+     * @param overflowConnections       number of short-lived connections opened because the pool was exhausted
+     * @param physicalConnectionsOpened number of physical SQLite connections opened, including overflow ones
+     * @param statementCacheHits        number of prepared statements served from a connection's statement cache
+     * @param statementCacheMisses      number of prepared statements that had to be compiled by SQLite
+     */
+    public record Snapshot(long acquisitions, long contendedAcquisitions, long totalWaitNanos, long maxWaitNanos,
+                           long overflowConnections, long physicalConnectionsOpened, long statementCacheHits,
+                           long statementCacheMisses) {
+
+        public double averageWaitMillis() {
+            return acquisitions == 0 ? 0.0 : (double) totalWaitNanos / acquisitions / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("acquisitions=%d, contended=%d, avgWait=%.3fms, maxWait=%.3fms, overflow=%d, " +
+                            "opened=%d, statementCacheHits=%d, statementCacheMisses=%d", acquisitions,
+                    contendedAcquisitions, averageWaitMillis(), (double) maxWaitNanos / TimeUnit.MILLISECONDS.toNanos(1),
+                    overflowConnections, physicalConnectionsOpened, statementCacheHits, statementCacheMisses);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.philabid.database.pool;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tunables of the SQLite connection pool and the pragmas applied to every physical connection it opens.
+ *
+ * @param poolSize             maximum number of long-lived connections kept by the pool
+ * @param acquireTimeoutMillis how long a caller waits for a pooled connection before an overflow connection is opened
+ * @param journalMode          value of {@code PRAGMA journal_mode}, e.g. {@code WAL}
+ * @param synchronous          value of {@code PRAGMA synchronous}, e.g. {@code NORMAL}
+ * @param mmapSize             value of {@code PRAGMA mmap_size} in bytes
+ * @param cacheSize            value of {@code PRAGMA cache_size}; negative values are KiB, positive values are pages
+ * @param tempStore            value of {@code PRAGMA temp_store}, e.g. {@code MEMORY}
+ * @param busyTimeoutMillis    value of {@code PRAGMA busy_timeout}
+ * @param statementCacheSize   number of prepared statements kept open per pooled connection; 0 disables caching
+ */
+public record ConnectionPoolSettings(int poolSize, long acquireTimeoutMillis, String journalMode, String synchronous,
+                                     long mmapSize, int cacheSize, String tempStore, int busyTimeoutMillis,
+                                     int statementCacheSize) {
+
+    private static final Set<String> JOURNAL_MODES = Set.of("DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+    private static final Set<String> SYNCHRONOUS_MODES = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+    private static final Set<String> TEMP_STORES = Set.of("DEFAULT", "FILE", "MEMORY");
+
+    public static final ConnectionPoolSettings DEFAULTS =
+            new ConnectionPoolSettings(4, 2000, "WAL", "NORMAL", 268435456L, -65536, "MEMORY", 5000, 64);
+
+    public ConnectionPoolSettings {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Connection pool size must be positive: " + poolSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size must not be negative: " + statementCacheSize);
+        }
+        journalMode = requireOneOf("journal_mode", journalMode, JOURNAL_MODES);
+        synchronous = requireOneOf("synchronous", synchronous, SYNCHRONOUS_MODES);
+        tempStore = requireOneOf("temp_store", tempStore, TEMP_STORES);
+    }
+
+    private static String requireOneOf(String pragma, String value, Set<String> allowed) {
+        String normalized = value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+        if (!allowed.contains(normalized)) {
+            throw new IllegalArgumentException("Unsupported value for PRAGMA " + pragma + ": " + value);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,264 @@
+package com.philabid.database.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A physical SQLite connection owned by a {@link ConnectionPool}.
+ * Callers never see this object directly; they get a lease (a {@link Connection} proxy) whose {@code close()}
+ * hands the physical connection back to the pool instead of closing it.
+ * <p>
+ * Pooled connections also keep an LRU cache of prepared statements keyed by their SQL text, so repeated queries
+ * are compiled by SQLite only once per connection. Closing a cached statement only clears its parameters.
+ */
+class PooledConnection {
+    private final ConnectionPool pool;
+    private final Connection physicalConnection;
+    private final boolean pooled;
+    private final int statementCacheSize;
+    private final Map<StatementKey, CachedStatement> statementCache;
+
+    PooledConnection(ConnectionPool pool, Connection physicalConnection, boolean pooled, int statementCacheSize) {
+        this.pool = pool;
+        this.physicalConnection = physicalConnection;
+        this.pooled = pooled;
+        this.statementCacheSize = pooled ? statementCacheSize : 0;
+        this.statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest) {
+                if (size() > PooledConnection.this.statementCacheSize) {
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    boolean isPooled() {
+        return pooled;
+    }
+
+    Connection lease(int[] heldByOwner) {
+        return (Connection) Proxy.newProxyInstance(PooledConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Lease(heldByOwner));
+    }
+
+    /**
+     * Brings the connection back to the state a fresh lease expects.
+     *
+     * @return false if the connection is no longer usable and should be discarded
+     */
+    boolean resetForReuse() {
+        try {
+            if (physicalConnection.isClosed()) {
+                return false;
+            }
+            if (!physicalConnection.getAutoCommit()) {
+                physicalConnection.rollback();
+                physicalConnection.setAutoCommit(true);
+            }
+            // Statements that were leaked by the previous lease holder are handed out again.
+            statementCache.values().forEach(statement -> statement.inUse = false);
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void closePhysical() {
+        statementCache.values().forEach(CachedStatement::evict);
+        statementCache.clear();
+        try {
+            physicalConnection.close();
+        } catch (SQLException e) {
+            // Nothing sensible to do, the connection is being discarded anyway.
+        }
+    }
+
+    private PreparedStatement prepareStatement(Connection lease, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        if (statementCacheSize == 0) {
+            return physicalConnection.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+        CachedStatement cached = statementCache.get(key);
+        if (cached != null && cached.inUse) {
+            // The same SQL is already executing on this lease (e.g. a nested query); use a throwaway statement.
+            pool.getMetrics().recordStatementCacheMiss();
+            return physicalConnection.prepareStatement(sql, autoGeneratedKeys);
+        }
+        if (cached == null || cached.statement.isClosed()) {
+            pool.getMetrics().recordStatementCacheMiss();
+            cached = new CachedStatement(physicalConnection.prepareStatement(sql, autoGeneratedKeys));
+            statementCache.put(key, cached);
+        } else {
+            pool.getMetrics().recordStatementCacheHit();
+        }
+        return cached.checkout(lease);
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record StatementKey(String sql, int autoGeneratedKeys) {
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse = false;
+        private boolean evicted = false;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private PreparedStatement checkout(Connection lease) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(PooledConnection.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new StatementLease(this, lease));
+        }
+
+        private void checkin() {
+            inUse = false;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                closeQuietly();
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // The statement is being discarded anyway.
+            }
+        }
+    }
+
+    private static final class StatementLease implements InvocationHandler {
+        private final CachedStatement cachedStatement;
+        private final Connection lease;
+        private boolean returned = false;
+
+        private StatementLease(CachedStatement cachedStatement, Connection lease) {
+            this.cachedStatement = cachedStatement;
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        cachedStatement.checkin();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    if (returned) {
+                        return true;
+                    }
+                }
+                case "getConnection" -> {
+                    return lease;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "CachedStatement[" + cachedStatement.statement + "]";
+                }
+                default -> {
+                }
+            }
+
+            if (returned) {
+                throw new SQLException("Statement has already been closed");
+            }
+            return invokeOn(cachedStatement.statement, method, args);
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        private final int[] heldByOwner;
+        private boolean returned = false;
+
+        private Lease(int[] heldByOwner) {
+            this.heldByOwner = heldByOwner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        pool.release(PooledConnection.this, heldByOwner);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    if (returned) {
+                        return true;
+                    }
+                }
+                case "prepareStatement" -> {
+                    if (!returned && args.length == 1) {
+                        return prepareStatement((Connection) proxy, (String) args[0], Statement.NO_GENERATED_KEYS);
+                    }
+                    if (!returned && args.length == 2 && args[1] instanceof Integer autoGeneratedKeys) {
+                        return prepareStatement((Connection) proxy, (String) args[0], autoGeneratedKeys);
+                    }
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Lease[" + physicalConnection + "]";
+                }
+                default -> {
+                }
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            return invokeOn(physicalConnection, method, args);
+        }
+    }
+}
@@ -14,7 +14,12 @@ public class EqualFilterCondition<V> implements FilterCondition {
 
     @Override
     public String getSqlText() {
-        return filterField + " = ? COLLATE NOCASE";
+        // SQLite only uses an index when the comparison collation matches the indexed one, so case-insensitive
+        // matching is limited to text values; ids and flags keep the default collation and stay indexable.
+        if (filterValue instanceof String) {
+            return filterField + " = ? COLLATE NOCASE";
+        }
+        return filterField + " = ?";
     }
 
     @Override
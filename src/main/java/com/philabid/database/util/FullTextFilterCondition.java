@@ -0,0 +1,67 @@
+package com.philabid.database.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Matches rows whose key is found in a {@link FullTextIndex} for every word of the search text, i.e. the same
+ * "each word is a substring of some field" semantics as {@link MultiTextFilterCondition}, but answered by the index.
+ * <p>
+ * Words of three or more characters are combined into a single trigram {@code MATCH}. Shorter words cannot be
+ * looked up by trigrams and fall back to {@code LIKE} over the index columns.
+ */
+public class FullTextFilterCondition implements FilterCondition {
+    private static final int TRIGRAM_LENGTH = 3;
+
+    private final FullTextIndex index;
+    private final String keyField;
+    private final List<String> matchWords = new ArrayList<>();
+    private final List<String> likeWords = new ArrayList<>();
+
+    public FullTextFilterCondition(FullTextIndex index, String keyField, String text) {
+        this.index = index;
+        this.keyField = keyField;
+        if (text != null && !text.isBlank()) {
+            for (String word : text.trim().split("\\s+")) {
+                (word.length() >= TRIGRAM_LENGTH ? matchWords : likeWords).add(word);
+            }
+        }
+    }
+
+    @Override
+    public String getSqlText() {
+        if (matchWords.isEmpty() && likeWords.isEmpty()) {
+            return "";
+        }
+
+        List<String> terms = new ArrayList<>();
+        if (!matchWords.isEmpty()) {
+            terms.add(index.table() + " MATCH ?");
+        }
+        String singleWordCondition = index.columns().stream()
+                .map(column -> column + " LIKE ?")
+                .collect(Collectors.joining(" OR ", "(", ")"));
+        likeWords.forEach(word -> terms.add(singleWordCondition));
+
+        return keyField + " IN (SELECT rowid FROM " + index.table() + " WHERE " + String.join(" AND ", terms) + ")";
+    }
+
+    @Override
+    public Collection<Object> getSqlParams() {
+        List<Object> params = new ArrayList<>();
+        if (!matchWords.isEmpty()) {
+            // Quoting every word as a phrase keeps FTS5 query syntax (AND, NOT, *, ...) in the input literal.
+            params.add(matchWords.stream()
+                    .map(word -> "\"" + word.replace("\"", "\"\"") + "\"")
+                    .collect(Collectors.joining(" ")));
+        }
+        for (String word : likeWords) {
+            for (int i = 0; i < index.columns().size(); i++) {
+                params.add("%" + word + "%");
+            }
+        }
+        return params;
+    }
+}
@@ -0,0 +1,21 @@
+package com.philabid.database.util;
+
+import java.util.List;
+
+/**
+ * An FTS5 trigram table whose rowids are the ids of the entity it indexes (see the {@code V25} migration).
+ *
+ * @param table   name of the virtual table
+ * @param columns indexed columns, used for search words too short for the trigram index
+ */
+public record FullTextIndex(String table, List<String> columns) {
+    public static final FullTextIndex TRADING_ITEMS =
+            new FullTextIndex("trading_item_search", List.of("catalog_number", "category_code", "category_name"));
+    public static final FullTextIndex AUCTIONS =
+            new FullTextIndex("auction_search", List.of("catalog_number", "category_code", "category_name", "lot_id",
+                    "seller_name", "seller_full_name"));
+
+    public FullTextIndex {
+        columns = List.copyOf(columns);
+    }
+}
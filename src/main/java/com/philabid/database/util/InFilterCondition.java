@@ -0,0 +1,34 @@
+package com.philabid.database.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Matches rows whose field equals one of the given values; an empty collection matches nothing.
+ */
+public class InFilterCondition<V> implements FilterCondition {
+    private final String filterField;
+    private final List<V> filterValues;
+
+    public InFilterCondition(String filterField, Collection<V> filterValues) {
+        this.filterField = filterField;
+        this.filterValues = List.copyOf(filterValues);
+    }
+
+    @Override
+    public String getSqlText() {
+        if (filterValues.isEmpty()) {
+            return "1=0";
+        }
+        return filterValues.stream()
+                .map(v -> "?")
+                .collect(Collectors.joining(", ", filterField + " IN (", ")"));
+    }
+
+    @Override
+    public Collection<Object> getSqlParams() {
+        return new ArrayList<>(filterValues);
+    }
+}
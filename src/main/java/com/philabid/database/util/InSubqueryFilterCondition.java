@@ -0,0 +1,32 @@
+package com.philabid.database.util;
+
+import java.util.Collection;
+
+/**
+ * Matches rows whose field is among the values selected from another table, e.g.
+ * {@code a.trading_item_id IN (SELECT id FROM trading_items WHERE category_id IN (?, ?))}.
+ * Unlike a condition on a joined column this lets SQLite drive the lookup from the subquery's index.
+ */
+public class InSubqueryFilterCondition implements FilterCondition {
+    private final String filterField;
+    private final String selectField;
+    private final String table;
+    private final FilterCondition condition;
+
+    public InSubqueryFilterCondition(String filterField, String selectField, String table, FilterCondition condition) {
+        this.filterField = filterField;
+        this.selectField = selectField;
+        this.table = table;
+        this.condition = condition;
+    }
+
+    @Override
+    public String getSqlText() {
+        return filterField + " IN (SELECT " + selectField + " FROM " + table + " WHERE " + condition.getSqlText() + ")";
+    }
+
+    @Override
+    public Collection<Object> getSqlParams() {
+        return condition.getSqlParams();
+    }
+}
@@ -0,0 +1,100 @@
+package com.philabid.database.util;
+
+import com.philabid.database.util.query.PageKey;
+import com.philabid.database.util.query.QueryOrder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Restricts a query to the rows that follow a {@link PageKey} in the given ordering.
+ * When all orders share one direction and none of them is nullable the condition is a single row-value comparison,
+ * which SQLite can answer from an index; otherwise it is expanded to {@code (a > ?) OR (a = ? AND b < ?) ...}.
+ * The expansion treats NULL as smaller than any other value, as SQLite sorts it.
+ */
+public class KeysetFilterCondition implements FilterCondition {
+    private final List<QueryOrder> orders;
+    private final List<Object> keyValues;
+    private final String sqlText;
+    private final List<Object> sqlParams = new ArrayList<>();
+
+    public KeysetFilterCondition(List<QueryOrder> orders, PageKey afterKey) {
+        if (orders.size() != afterKey.values().size()) {
+            throw new IllegalArgumentException("Page key does not match the query ordering");
+        }
+        this.orders = orders;
+        this.keyValues = afterKey.values();
+        this.sqlText = isRowValueComparable() ? buildRowValueComparison() : buildExpansion();
+    }
+
+    @Override
+    public String getSqlText() {
+        return sqlText;
+    }
+
+    @Override
+    public Collection<Object> getSqlParams() {
+        return sqlParams;
+    }
+
+    private boolean isRowValueComparable() {
+        return orders.stream().map(QueryOrder::getDirection).distinct().count() == 1 &&
+                orders.stream().noneMatch(QueryOrder::isNullable);
+    }
+
+    private String buildRowValueComparison() {
+        String columns = orders.stream()
+                .map(QueryOrder::getColumnSqlText)
+                .collect(Collectors.joining(", ", "(", ")"));
+        String placeholders = orders.stream()
+                .map(o -> "?")
+                .collect(Collectors.joining(", ", "(", ")"));
+        sqlParams.addAll(keyValues);
+        return columns + " " + operator(orders.getFirst()) + " " + placeholders;
+    }
+
+    private String buildExpansion() {
+        List<String> alternatives = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            QueryOrder order = orders.get(i);
+            Object value = keyValues.get(i);
+            // Nothing sorts after NULL in descending order.
+            if (value == null && order.getDirection() == QueryOrder.Direction.DESC) {
+                continue;
+            }
+            List<String> terms = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                terms.add(equalTo(orders.get(j), keyValues.get(j)));
+            }
+            terms.add(follows(order, value));
+            alternatives.add("(" + String.join(" AND ", terms) + ")");
+        }
+        return alternatives.isEmpty() ? "0" : "(" + String.join(" OR ", alternatives) + ")";
+    }
+
+    private String equalTo(QueryOrder order, Object value) {
+        if (value == null) {
+            return order.getColumnSqlText() + " IS NULL";
+        }
+        sqlParams.add(value);
+        return order.getColumnSqlText() + " = ?";
+    }
+
+    private String follows(QueryOrder order, Object value) {
+        if (value == null) {
+            return order.getColumnSqlText() + " IS NOT NULL";
+        }
+        sqlParams.add(value);
+        String comparison = order.getColumnSqlText() + " " + operator(order) + " ?";
+        if (order.isNullable() && order.getDirection() == QueryOrder.Direction.DESC) {
+            return "(" + comparison + " OR " + order.getColumnSqlText() + " IS NULL)";
+        }
+        return comparison;
+    }
+
+    private static String operator(QueryOrder order) {
+        return order.getDirection() == QueryOrder.Direction.ASC ? ">" : "<";
+    }
+}
@@ -0,0 +1,12 @@
+package com.philabid.database.util.query;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads a value from a column of the current row, addressed by its index.
+ */
+@FunctionalInterface
+public interface ColumnValueReader<V> {
+    V read(ResultSet rs, int columnIndex, RowContext row) throws SQLException;
+}
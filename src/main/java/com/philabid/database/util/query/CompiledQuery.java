@@ -0,0 +1,43 @@
+package com.philabid.database.util.query;
+
+import com.philabid.model.BaseModel;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * The parameter-independent part of a query built by {@link QueryBuilder}: its SQL text and the fields it selects.
+ * A compiled query can be cached and executed repeatedly with freshly collected parameters.
+ */
+public final class CompiledQuery<T extends BaseModel<T>> {
+    private final String sql;
+    private final Collection<QueryField<T, ?>> fields;
+    private volatile RowMapper<T> rowMapper;
+
+    public CompiledQuery(String sql, Collection<QueryField<T, ?>> fields) {
+        this.sql = sql;
+        this.fields = fields;
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    public Collection<QueryField<T, ?>> fields() {
+        return fields;
+    }
+
+    /**
+     * Returns the row mapper for this query's fields, compiling it against the first result set it is asked for.
+     * Column positions depend only on the SQL text, so the mapper is valid for every later execution.
+     */
+    public RowMapper<T> getRowMapper(ResultSet rs) throws SQLException {
+        RowMapper<T> mapper = rowMapper;
+        if (mapper == null) {
+            mapper = RowMapper.compile(fields, rs);
+            rowMapper = mapper;
+        }
+        return mapper;
+    }
+}
@@ -4,19 +4,12 @@ import com.philabid.model.BaseModel;
 import com.philabid.util.MultiCurrencyMonetaryAmount;
 
 import javax.money.CurrencyUnit;
-import javax.money.Monetary;
 import java.util.function.BiConsumer;
 
 public class CurrencyQueryField<T extends BaseModel<T>> extends QueryField<T, CurrencyUnit> {
     public CurrencyQueryField(String table, String fieldName, String alias,
                               BiConsumer<T, CurrencyUnit> valueConsumer) {
-        super(table, fieldName, alias, (r, name) -> {
-                    String currencyCode = r.getString(name);
-                    if (currencyCode == null) {
-                        return null;
-                    }
-                    return Monetary.getCurrency(currencyCode);
-                }, valueConsumer,
+        super(table, fieldName, alias, (rs, column, row) -> row.getCurrency(rs, column), valueConsumer,
                 (stmt, index, value) -> {
                     stmt.setString(index, value.getCurrencyCode());
                 });
@@ -4,8 +4,7 @@ import com.philabid.model.BaseModel;
 
 public class InternalQueryField<T extends BaseModel<T>> extends QueryField<T, Void> {
     public InternalQueryField(String table, String fieldName, String alias) {
-        super(table, fieldName, alias, (rs, name) -> null, (entity, value) -> {
-        }, null);
+        super(table, fieldName, alias, (rs, name) -> null, null, null);
     }
 
     public InternalQueryField(String tableName, String fieldName) {
@@ -4,11 +4,16 @@ import com.philabid.model.BaseModel;
 import com.philabid.util.MultiCurrencyMonetaryAmount;
 import org.javamoney.moneta.Money;
 
+import javax.money.CurrencyUnit;
 import javax.money.MonetaryAmount;
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.function.BiConsumer;
 
 public class MonetaryAmountQueryField<T extends BaseModel<T>> extends QueryField<T, MonetaryAmount> {
+    private final String currencyCodeField;
+
     public MonetaryAmountQueryField(String table, String fieldName, String alias, String currencyCodeField,
                                     BiConsumer<T, MonetaryAmount> valueConsumer) {
         super(table, fieldName, alias, (r, name) -> {
@@ -22,6 +27,7 @@ public class MonetaryAmountQueryField<T extends BaseModel<T>> extends QueryField
         }, valueConsumer, (stmt, index, value) -> {
             stmt.setBigDecimal(index, value.getNumber().numberValue(BigDecimal.class));
         });
+        this.currencyCodeField = currencyCodeField;
     }
 
     public MonetaryAmountQueryField(String table, String fieldName, String currencyCodeField,
@@ -29,6 +35,20 @@ public class MonetaryAmountQueryField<T extends BaseModel<T>> extends QueryField
         this(table, fieldName, null, currencyCodeField, valueConsumer);
     }
 
+    @Override
+    protected ColumnValueReader<MonetaryAmount> resolveReader(ResultSet rs) throws SQLException {
+        // The currency column is usually shared by several amounts of the same row, see RowContext.
+        int currencyColumnIndex = rs.findColumn(currencyCodeField);
+        return (r, columnIndex, row) -> {
+            BigDecimal amount = r.getBigDecimal(columnIndex);
+            if (amount == null) {
+                return null;
+            }
+            CurrencyUnit currency = row.getCurrency(r, currencyColumnIndex);
+            return currency != null ? Money.of(amount, currency) : null;
+        };
+    }
+
     public QueryField<T, MonetaryAmount> withMultiCurrencyEntityValue(
             EntityValueAccessor<T, MultiCurrencyMonetaryAmount> entityValueAccessor) {
         return withEntityValue(entity -> {
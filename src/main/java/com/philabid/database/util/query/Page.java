@@ -0,0 +1,18 @@
+package com.philabid.database.util.query;
+
+import com.philabid.model.BaseModel;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated query.
+ *
+ * @param items   the rows of this page, in query order
+ * @param nextKey the key to pass to fetch the following page, or null if this is the last page
+ */
+public record Page<T extends BaseModel<T>>(List<T> items, PageKey nextKey) {
+
+    public boolean hasNext() {
+        return nextKey != null;
+    }
+}
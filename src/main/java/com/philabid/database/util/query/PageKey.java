@@ -0,0 +1,11 @@
+package com.philabid.database.util.query;
+
+import java.util.List;
+
+/**
+ * Position of the last row of a page in keyset pagination: the values of the order columns of that row,
+ * followed by its id, which breaks ties between rows with equal order values. Values of nullable columns can be
+ * null.
+ */
+public record PageKey(List<Object> values) {
+}
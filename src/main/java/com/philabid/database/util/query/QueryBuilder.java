@@ -19,6 +19,7 @@ public class QueryBuilder<T extends BaseModel<T>> {
     private QueryType queryType;
     private String fromTable;
     private String fromAlias;
+    private Integer limit;
 
     public QueryBuilder<T> select() {
         return select(List.of());
@@ -80,36 +81,70 @@ public class QueryBuilder<T extends BaseModel<T>> {
         return this;
     }
 
+    public QueryBuilder<T> limit(Integer limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public Collection<QueryField<T, ?>> getFields() {
+        return fields;
+    }
+
     public QueryBuildResult<T> build() {
+        CompiledQuery<T> compiledQuery = compile();
+        List<Object> params = collectParams();
+
+        logger.debug("Params: {}", params);
+
+        return new QueryBuildResult<>(compiledQuery.sql(), params, compiledQuery.fields());
+    }
+
+    /**
+     * Builds the SQL text of the query without collecting parameter values, so the result can be cached and
+     * reused together with {@link #collectParams()}.
+     */
+    public CompiledQuery<T> compile() {
         Collection<String> fieldNames = fields.stream().map(QueryField::toSql).toList();
 
         String selectClause = queryType.getType() + " " + String.join(", ", fieldNames);
         String fromClause = "FROM " + fromTable + (fromAlias != null ? " AS " + fromAlias : "");
-        List<Object> params = new ArrayList<>();
 
         String joinClause = joins.stream()
-                .peek(j -> params.addAll(j.getParams()))
                 .map(QueryJoin::getSqlText)
                 .collect(Collectors.joining(" "));
 
         String whereClause = filterConditions.stream()
-                .peek(fc -> params.addAll(fc.getSqlParams()))
                 .map(fc -> "AND " + fc.getSqlText())
                 .collect(Collectors.joining(" ", "WHERE 1=1 ", ""));
 
         String orderClause = orders.stream()
                 .map(QueryOrder::getSqlText)
-                .collect(Collectors.joining(" "));
+                .collect(Collectors.joining(", "));
         if (!orderClause.isBlank()) {
             orderClause = "ORDER BY " + orderClause;
         }
 
-        String sql = String.join(" ", selectClause, fromClause, joinClause, whereClause, orderClause);
+        // The limit is bound as a parameter, so all pages of a query share one statement.
+        String limitClause = limit != null ? "LIMIT ?" : "";
+
+        String sql = String.join(" ", selectClause, fromClause, joinClause, whereClause, orderClause, limitClause);
 
         logger.debug("SQL: {}", sql);
-        logger.debug("Params: {}", params);
 
-        return new QueryBuildResult<>(sql, params, fields);
+        return new CompiledQuery<>(sql, List.copyOf(fields));
+    }
+
+    /**
+     * Collects the parameter values in the order their placeholders appear in the compiled SQL.
+     */
+    public List<Object> collectParams() {
+        List<Object> params = new ArrayList<>();
+        joins.forEach(j -> params.addAll(j.getParams()));
+        filterConditions.forEach(fc -> params.addAll(fc.getSqlParams()));
+        if (limit != null) {
+            params.add(limit);
+        }
+        return params;
     }
 
     public enum QueryType {
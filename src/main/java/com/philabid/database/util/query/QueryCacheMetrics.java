@@ -0,0 +1,33 @@
+package com.philabid.database.util.query;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing how often repositories reuse already compiled SQL instead of building it again.
+ * All counters are cumulative since the application started.
+ */
+public class QueryCacheMetrics {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + ", misses=" + getMisses();
+    }
+}
@@ -14,6 +14,7 @@ public class QueryField<T extends BaseModel<T>, V> {
     private final String fieldName;
     private final String alias;
     private final ResultSetValueAccessor<V> rsValueAccessor;
+    private final ColumnValueReader<V> columnValueReader;
     private final BiConsumer<T, V> valueConsumer;
     private final StatementParamSetter<V> statementParamSetter;
     private EntityValueAccessor<T, V> entityValueAccessor;
@@ -21,10 +22,25 @@ public class QueryField<T extends BaseModel<T>, V> {
     public QueryField(String table, String fieldName, String alias,
                       ResultSetValueAccessor<V> rsValueAccessor,
                       BiConsumer<T, V> valueConsumer, StatementParamSetter<V> statementParamSetter) {
+        this(table, fieldName, alias, rsValueAccessor, null, valueConsumer, statementParamSetter);
+    }
+
+    public QueryField(String table, String fieldName, String alias,
+                      ColumnValueReader<V> columnValueReader,
+                      BiConsumer<T, V> valueConsumer, StatementParamSetter<V> statementParamSetter) {
+        this(table, fieldName, alias,
+                (rs, name) -> columnValueReader.read(rs, rs.findColumn(name), new RowContext(0)),
+                columnValueReader, valueConsumer, statementParamSetter);
+    }
+
+    private QueryField(String table, String fieldName, String alias,
+                       ResultSetValueAccessor<V> rsValueAccessor, ColumnValueReader<V> columnValueReader,
+                       BiConsumer<T, V> valueConsumer, StatementParamSetter<V> statementParamSetter) {
         this.table = table;
         this.fieldName = fieldName;
         this.alias = alias;
         this.rsValueAccessor = rsValueAccessor;
+        this.columnValueReader = columnValueReader;
         this.valueConsumer = valueConsumer;
         if (statementParamSetter != null) {
             this.statementParamSetter = statementParamSetter;
@@ -91,6 +107,26 @@ public class QueryField<T extends BaseModel<T>, V> {
         }
     }
 
+    /**
+     * Resolves the column(s) of this field in the given result set and returns a mapper reading them by index,
+     * or null if the field does not populate the entity.
+     */
+    public RowMapper.FieldMapper<T> compileMapper(ResultSet rs) throws SQLException {
+        if (valueConsumer == null) {
+            return null;
+        }
+        ColumnValueReader<V> reader = resolveReader(rs);
+        if (reader == null) {
+            return (r, row, entity) -> mapToEntity(r, entity);
+        }
+        int columnIndex = rs.findColumn(getResultSetFieldName());
+        return (r, row, entity) -> valueConsumer.accept(entity, reader.read(r, columnIndex, row));
+    }
+
+    protected ColumnValueReader<V> resolveReader(ResultSet rs) throws SQLException {
+        return columnValueReader;
+    }
+
     public void mapToStatementParam(PreparedStatement pstmt, int index, T entity) throws SQLException {
         V value = entityValueAccessor.supply(entity);
         if (value == null) {
@@ -1,18 +1,68 @@
 package com.philabid.database.util.query;
 
+import java.util.Objects;
+
 public class QueryOrder {
     String table;
     String field;
     Direction direction;
+    boolean nullable;
 
     public QueryOrder(String table, String field, Direction direction) {
+        this(table, field, direction, false);
+    }
+
+    /**
+     * @param nullable Whether the column can hold NULL, e.g. because it comes from an outer join. SQLite sorts NULL
+     *                 before any other value.
+     */
+    public QueryOrder(String table, String field, Direction direction, boolean nullable) {
         this.table = table;
         this.field = field;
         this.direction = direction;
+        this.nullable = nullable;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public QueryOrder withDirection(Direction direction) {
+        return new QueryOrder(table, field, direction, nullable);
+    }
+
+    public String getColumnSqlText() {
+        return table + "." + field;
     }
 
     public String getSqlText() {
-        return table + "." + field + " " + direction.toString();
+        return getColumnSqlText() + " " + direction.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof QueryOrder that)) {
+            return false;
+        }
+        return nullable == that.nullable && Objects.equals(table, that.table) && Objects.equals(field, that.field) &&
+                direction == that.direction;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(table, field, direction, nullable);
     }
 
     public enum Direction {
@@ -0,0 +1,25 @@
+package com.philabid.database.util.query;
+
+import com.philabid.database.util.FilterCondition;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cache key describing the SQL text a query compiles to, independent of its parameter values.
+ * Two queries with the same shape produce the same SQL and differ only in the values bound to it.
+ */
+public record QueryShape(List<String> fields, List<String> joins, List<String> filters, List<String> orders,
+                         boolean limited) {
+
+    public static QueryShape of(Collection<? extends QueryField<?, ?>> fields, Collection<QueryJoin> joins,
+                                Collection<FilterCondition> filterConditions, Collection<QueryOrder> orders,
+                                boolean limited) {
+        return new QueryShape(
+                fields.stream().map(QueryField::toSql).toList(),
+                joins.stream().map(QueryJoin::getSqlText).toList(),
+                filterConditions.stream().map(FilterCondition::getSqlText).toList(),
+                orders.stream().map(QueryOrder::getSqlText).toList(),
+                limited);
+    }
+}
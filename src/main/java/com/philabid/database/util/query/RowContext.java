@@ -0,0 +1,51 @@
+package com.philabid.database.util.query;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-row scratch space shared by the field mappers of a {@link RowMapper}.
+ * Several money fields of one row usually share the same currency column, so the column is read and resolved to a
+ * {@link CurrencyUnit} only once per row.
+ */
+public final class RowContext {
+    private static final Map<String, CurrencyUnit> CURRENCIES = new ConcurrentHashMap<>();
+
+    private final CurrencyUnit[] currencies;
+    private final boolean[] resolved;
+
+    RowContext(int columnCount) {
+        currencies = new CurrencyUnit[columnCount + 1];
+        resolved = new boolean[columnCount + 1];
+    }
+
+    void reset() {
+        Arrays.fill(resolved, false);
+    }
+
+    /**
+     * Returns the currency stored in the given column of the current row, or null if the column is null.
+     */
+    public CurrencyUnit getCurrency(ResultSet rs, int columnIndex) throws SQLException {
+        if (columnIndex >= resolved.length) {
+            return currencyOf(rs.getString(columnIndex));
+        }
+        if (!resolved[columnIndex]) {
+            currencies[columnIndex] = currencyOf(rs.getString(columnIndex));
+            resolved[columnIndex] = true;
+        }
+        return currencies[columnIndex];
+    }
+
+    public static CurrencyUnit currencyOf(String currencyCode) {
+        if (currencyCode == null) {
+            return null;
+        }
+        return CURRENCIES.computeIfAbsent(currencyCode, Monetary::getCurrency);
+    }
+}
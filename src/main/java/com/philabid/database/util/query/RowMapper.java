@@ -0,0 +1,52 @@
+package com.philabid.database.util.query;
+
+import com.philabid.model.BaseModel;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maps rows of a result set to entities using column indices resolved once, when the mapper is compiled.
+ * A mapper can be reused for every execution of the same SQL; the per-row state lives in a {@link RowContext}
+ * obtained from {@link #newRowContext()}.
+ */
+public final class RowMapper<T extends BaseModel<T>> {
+    private final List<FieldMapper<T>> fieldMappers;
+    private final int columnCount;
+
+    private RowMapper(List<FieldMapper<T>> fieldMappers, int columnCount) {
+        this.fieldMappers = fieldMappers;
+        this.columnCount = columnCount;
+    }
+
+    public static <T extends BaseModel<T>> RowMapper<T> compile(Collection<QueryField<T, ?>> fields, ResultSet rs)
+            throws SQLException {
+        List<FieldMapper<T>> fieldMappers = new ArrayList<>(fields.size());
+        for (QueryField<T, ?> field : fields) {
+            FieldMapper<T> fieldMapper = field.compileMapper(rs);
+            if (fieldMapper != null) {
+                fieldMappers.add(fieldMapper);
+            }
+        }
+        return new RowMapper<>(List.copyOf(fieldMappers), rs.getMetaData().getColumnCount());
+    }
+
+    public RowContext newRowContext() {
+        return new RowContext(columnCount);
+    }
+
+    public void map(ResultSet rs, RowContext row, T entity) throws SQLException {
+        row.reset();
+        for (FieldMapper<T> fieldMapper : fieldMappers) {
+            fieldMapper.map(rs, row, entity);
+        }
+    }
+
+    @FunctionalInterface
+    public interface FieldMapper<T> {
+        void map(ResultSet rs, RowContext row, T entity) throws SQLException;
+    }
+}
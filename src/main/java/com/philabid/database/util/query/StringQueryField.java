@@ -2,13 +2,12 @@ package com.philabid.database.util.query;
 
 import com.philabid.model.BaseModel;
 
-import java.sql.ResultSet;
 import java.util.function.BiConsumer;
 
 public class StringQueryField<T extends BaseModel<T>> extends QueryField<T, String> {
     public StringQueryField(String table, String fieldName, String alias,
                             BiConsumer<T, String> valueConsumer) {
-        super(table, fieldName, alias, ResultSet::getString, valueConsumer, null);
+        super(table, fieldName, alias, (rs, column, row) -> rs.getString(column), valueConsumer, null);
     }
 
     public StringQueryField(String table, String fieldName, BiConsumer<T, String> valueConsumer) {
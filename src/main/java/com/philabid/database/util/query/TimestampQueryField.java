@@ -9,7 +9,7 @@ import java.util.function.BiConsumer;
 public class TimestampQueryField<T extends BaseModel<T>> extends QueryField<T, LocalDateTime> {
     public TimestampQueryField(String table, String fieldName, String alias,
                                BiConsumer<T, LocalDateTime> valueConsumer) {
-        super(table, fieldName, alias, (r, name) -> r.getTimestamp(name).toLocalDateTime(), valueConsumer,
+        super(table, fieldName, alias, (rs, column, row) -> rs.getTimestamp(column).toLocalDateTime(), valueConsumer,
                 (stmt, index, dt) -> {
                     stmt.setTimestamp(index, Timestamp.valueOf(dt));
                 });
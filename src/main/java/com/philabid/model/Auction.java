@@ -1,20 +1,31 @@
 package com.philabid.model;
 
 import com.philabid.AppContext;
+import com.philabid.service.AuctionHouseService;
 import com.philabid.util.MultiCurrencyMonetaryAmount;
 
 import javax.money.CurrencyUnit;
 import javax.money.Monetary;
 import javax.money.MonetaryAmount;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * Represents an auction for a specific philatelic item.
  */
 public class Auction extends BaseModel<Auction> {
 
+    // Bits of statusFlags.
+    private static final int ALREADY_PURCHASED = 1;
+    private static final int OVERPRICED = 1 << 1;
+    private static final int NEXT_BID_OVERPRICED = 1 << 2;
+    private static final int OTHER_ACTIVE_WINNING = 1 << 3;
+    private static final int NOT_COMPUTED = -1;
+
     private Long auctionHouseId;
     private Long sellerId;
     private Long tradingItemId;
@@ -53,6 +64,15 @@ public class Auction extends BaseModel<Auction> {
     private List<Auction> categoryArchivedAuctions;
     private List<Auction> activeAuctions;
 
+    // Derived from the fields above when first needed, or by updateStatuses() while loading, and reset when one of
+    // them is set. Table cells only read them.
+    private Boolean winningBid;
+    private int statusFlags = NOT_COMPUTED;
+    private MultiCurrencyMonetaryAmount nextBid;
+    private long endEpochMilli = Long.MAX_VALUE;
+    private List<AuctionStatus> auctionStatuses;
+    private boolean auctionStatusesFinished;
+
     public Auction() {
         this.archived = false;
     }
@@ -64,6 +84,7 @@ public class Auction extends BaseModel<Auction> {
 
     public void setAuctionHouseId(Long auctionHouseId) {
         this.auctionHouseId = auctionHouseId;
+        resetStatuses();
     }
 
     public Long getSellerId() {
@@ -112,10 +133,12 @@ public class Auction extends BaseModel<Auction> {
 
     public void setCurrentPrice(MonetaryAmount currentPrice) {
         this.currentPrice = MultiCurrencyMonetaryAmount.of(currentPrice);
+        resetStatuses();
     }
 
     public void setRawCurrentPrice(MonetaryAmount currentPrice) {
         this.currentPrice = MultiCurrencyMonetaryAmount.of(currentPrice, null);
+        resetStatuses();
     }
 
     public MultiCurrencyMonetaryAmount getStartingPrice() {
@@ -124,10 +147,12 @@ public class Auction extends BaseModel<Auction> {
 
     public void setStartingPrice(MonetaryAmount startingPrice) {
         this.startingPrice = MultiCurrencyMonetaryAmount.of(startingPrice);
+        resetStatuses();
     }
 
     public void setRawStartingPrice(MonetaryAmount startingPrice) {
         this.startingPrice = MultiCurrencyMonetaryAmount.of(startingPrice, null);
+        resetStatuses();
     }
 
     public LocalDateTime getEndDate() {
@@ -136,6 +161,8 @@ public class Auction extends BaseModel<Auction> {
 
     public void setEndDate(LocalDateTime endDate) {
         this.endDate = endDate;
+        endEpochMilli = endDate != null ? endDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : Long.MAX_VALUE;
     }
 
     public String getTradingItemCatalogNumber() {
@@ -294,16 +321,46 @@ public class Auction extends BaseModel<Auction> {
         this.archived = archived;
     }
 
+    /**
+     * Marks the auction as archived and freezes its current catalog value and the price-to-catalog ratio.
+     */
+    public void archive() {
+        setArchived(true);
+        if (catalogValue == null) {
+            return;
+        }
+
+        setArchivedCatalogValue(catalogValue);
+        if (currentPrice != null) {
+            Double catalogValueAmount = catalogValue.defaultCurrencyAmount().getNumber().doubleValue();
+            Double currentPriceAmount = currentPrice.defaultCurrencyAmount().getNumber().doubleValue();
+            setArchivedCatalogValuePercentage(currentPriceAmount / catalogValueAmount);
+        }
+    }
+
     public MultiCurrencyMonetaryAmount getMaxBid() {
         return maxBid;
     }
 
     public void setMaxBid(MonetaryAmount maxBid) {
         this.maxBid = maxBid != null ? MultiCurrencyMonetaryAmount.of(maxBid) : null;
+        resetStatuses();
     }
 
     public void setRawMaxBid(MonetaryAmount maxBid) {
         this.maxBid = maxBid != null ? new MultiCurrencyMonetaryAmount(maxBid, null) : null;
+        resetStatuses();
+    }
+
+    /**
+     * Converts the prices and the catalog value, as read from the database, with the given function.
+     */
+    public void convertAmounts(Function<MonetaryAmount, MultiCurrencyMonetaryAmount> converter) {
+        currentPrice = currentPrice != null ? converter.apply(currentPrice.originalAmount()) : null;
+        startingPrice = startingPrice != null ? converter.apply(startingPrice.originalAmount()) : null;
+        maxBid = maxBid != null ? converter.apply(maxBid.originalAmount()) : null;
+        catalogValue = catalogValue != null ? converter.apply(catalogValue.originalAmount()) : null;
+        resetStatuses();
     }
 
     public MultiCurrencyMonetaryAmount getRecommendedPrice() {
@@ -312,10 +369,11 @@ public class Auction extends BaseModel<Auction> {
 
     public void setRecommendedPrice(MultiCurrencyMonetaryAmount recommendedPrice) {
         this.recommendedPrice = recommendedPrice;
+        resetStatuses();
     }
 
     public boolean isFinished() {
-        return endDate.isBefore(LocalDateTime.now());
+        return System.currentTimeMillis() > endEpochMilli;
     }
 
     public List<Auction> getArchivedAuctions() {
@@ -324,6 +382,7 @@ public class Auction extends BaseModel<Auction> {
 
     public void setArchivedAuctions(List<Auction> archivedAuctions) {
         this.archivedAuctions = archivedAuctions;
+        resetStatuses();
     }
 
     public List<Auction> getCategoryArchivedAuctions() {
@@ -340,6 +399,7 @@ public class Auction extends BaseModel<Auction> {
 
     public void setActiveAuctions(List<Auction> activeAuctions) {
         this.activeAuctions = activeAuctions;
+        resetStatuses();
     }
 
     public CurrencyUnit getAuctionHouseCurrency() {
@@ -369,55 +429,123 @@ public class Auction extends BaseModel<Auction> {
     }
 
     public boolean isWinningBid() {
-        if (currentPrice == null || maxBid == null) {
-            return false;
+        if (winningBid == null) {
+            winningBid = currentPrice != null && maxBid != null &&
+                    maxBid.defaultCurrencyAmount().isGreaterThanOrEqualTo(currentPrice.defaultCurrencyAmount());
         }
-        return maxBid.defaultCurrencyAmount().isGreaterThanOrEqualTo(currentPrice.defaultCurrencyAmount());
+        return winningBid;
     }
 
     public boolean isAlreadyPurchased() {
-        return archivedAuctions != null && archivedAuctions.stream().anyMatch(Auction::isWinningBid);
+        return hasStatusFlag(ALREADY_PURCHASED);
     }
 
     public boolean isOverpriced() {
-        if (getRecommendedPrice() == null || (getCurrentPrice() == null && getStartingPrice() == null)) {
-            return false;
-        }
-        if (getCurrentPrice() != null) {
-            return getCurrentPrice().defaultCurrencyAmount()
-                    .isGreaterThan(getRecommendedPrice().defaultCurrencyAmount());
-        } else {
-            return getStartingPrice().defaultCurrencyAmount()
-                    .isGreaterThan(getRecommendedPrice().defaultCurrencyAmount());
-        }
+        return hasStatusFlag(OVERPRICED);
     }
 
     public boolean isNextBidOverpriced() {
-        if (getCurrentPrice() == null || getRecommendedPrice() == null) {
-            return false;
-        }
-        MultiCurrencyMonetaryAmount nextBid =
-                AppContext.getAuctionHouseService().getNextBid(auctionHouseId, getCurrentPrice());
-        return nextBid.defaultCurrencyAmount().isGreaterThan(getRecommendedPrice().defaultCurrencyAmount());
+        return hasStatusFlag(NEXT_BID_OVERPRICED);
+    }
+
+    /**
+     * Whether another active auction of the same trading item and condition has a winning bid.
+     */
+    public boolean isOtherActiveAuctionWinning() {
+        return hasStatusFlag(OTHER_ACTIVE_WINNING);
+    }
+
+    /**
+     * The bid following the current price, or null without a current price.
+     */
+    public MultiCurrencyMonetaryAmount getNextBid() {
+        updateStatuses();
+        return nextBid;
     }
 
+    /**
+     * The statuses shown for the auction. Only {@link AuctionStatus#EXPIRED} depends on the time; the list is built
+     * again once the auction ends.
+     */
     public List<AuctionStatus> getAuctionStatuses() {
-        List<AuctionStatus> statuses = new ArrayList<>();
-        if (isWinningBid()) {
-            statuses.add(AuctionStatus.WINNING);
+        boolean finished = isFinished();
+        if (auctionStatuses == null || auctionStatusesFinished != finished) {
+            List<AuctionStatus> statuses = new ArrayList<>();
+            if (isWinningBid()) {
+                statuses.add(AuctionStatus.WINNING);
+            }
+            if (isAlreadyPurchased()) {
+                statuses.add(AuctionStatus.OWNED);
+            }
+            if (finished) {
+                statuses.add(AuctionStatus.EXPIRED);
+            }
+            if (isOverpriced()) {
+                statuses.add(AuctionStatus.OVERPRICED);
+            } else if (isNextBidOverpriced() && !isWinningBid()) {
+                statuses.add(AuctionStatus.NEXT_BID_OVERPRICED);
+            }
+            auctionStatuses = List.copyOf(statuses);
+            auctionStatusesFinished = finished;
         }
-        if (isAlreadyPurchased()) {
-            statuses.add(AuctionStatus.OWNED);
+        return auctionStatuses;
+    }
+
+    /**
+     * Computes the statuses derived from the prices, the recommendation and the related auctions, unless they are
+     * known already. Called once the auction is fully loaded, so that showing it does not compute them.
+     */
+    public void updateStatuses() {
+        if (statusFlags != NOT_COMPUTED) {
+            return;
         }
-        if (isFinished()) {
-            statuses.add(AuctionStatus.EXPIRED);
+        updateStatuses(AppContext.getAuctionHouseService());
+    }
+
+    /**
+     * Computes the statuses like {@link #updateStatuses()}, with the next bid taken from the given service.
+     */
+    public void updateStatuses(AuctionHouseService auctionHouseService) {
+        if (statusFlags != NOT_COMPUTED) {
+            return;
         }
-        if (isOverpriced()) {
-            statuses.add(AuctionStatus.OVERPRICED);
-        } else if (isNextBidOverpriced() && !isWinningBid()) {
-            statuses.add(AuctionStatus.NEXT_BID_OVERPRICED);
+        MultiCurrencyMonetaryAmount next = currentPrice != null
+                ? auctionHouseService.getNextBid(auctionHouseId, currentPrice) : null;
+        int flags = 0;
+        if (archivedAuctions != null && archivedAuctions.stream().anyMatch(Auction::isWinningBid)) {
+            flags |= ALREADY_PURCHASED;
         }
-        return statuses;
+        if (activeAuctions != null && activeAuctions.stream()
+                .anyMatch(other -> !Objects.equals(getId(), other.getId()) && other.isWinningBid())) {
+            flags |= OTHER_ACTIVE_WINNING;
+        }
+        if (recommendedPrice != null) {
+            MultiCurrencyMonetaryAmount price = currentPrice != null ? currentPrice : startingPrice;
+            if (price != null &&
+                    price.defaultCurrencyAmount().isGreaterThan(recommendedPrice.defaultCurrencyAmount())) {
+                flags |= OVERPRICED;
+            }
+            if (next != null &&
+                    next.defaultCurrencyAmount().isGreaterThan(recommendedPrice.defaultCurrencyAmount())) {
+                flags |= NEXT_BID_OVERPRICED;
+            }
+        }
+        // Computed on first use otherwise, which would be while rendering.
+        isWinningBid();
+        nextBid = next;
+        statusFlags = flags;
+    }
+
+    private boolean hasStatusFlag(int flag) {
+        updateStatuses();
+        return (statusFlags & flag) != 0;
+    }
+
+    private void resetStatuses() {
+        winningBid = null;
+        statusFlags = NOT_COMPUTED;
+        nextBid = null;
+        auctionStatuses = null;
     }
 
     public enum AuctionStatus {
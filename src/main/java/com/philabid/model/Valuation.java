@@ -3,16 +3,12 @@ package com.philabid.model;
 import com.philabid.util.MultiCurrencyMonetaryAmount;
 
 import javax.money.MonetaryAmount;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 
 /**
  * A record representing aggregated statistics for a specific trading item and condition.
  * This is used to display data in the statistics view.
  */
 public final class Valuation extends BaseModel<Valuation> {
-    private final List<ValuationEntry> valuationEntries = new ArrayList<>();
     private Boolean catalogActive = false;
     private long tradingItemId;
     private String tradingItemCatalogNumber;
@@ -74,6 +70,10 @@ public final class Valuation extends BaseModel<Valuation> {
         this.averagePrice = averagePrice;
     }
 
+    public void setAveragePrice(MonetaryAmount averagePrice) {
+        this.averagePrice = MultiCurrencyMonetaryAmount.of(averagePrice);
+    }
+
     public MultiCurrencyMonetaryAmount getMedianPrice() {
         return medianPrice;
     }
@@ -82,6 +82,10 @@ public final class Valuation extends BaseModel<Valuation> {
         this.medianPrice = medianPrice;
     }
 
+    public void setMedianPrice(MonetaryAmount medianPrice) {
+        this.medianPrice = MultiCurrencyMonetaryAmount.of(medianPrice);
+    }
+
     public MultiCurrencyMonetaryAmount getMinPrice() {
         return minPrice;
     }
@@ -90,6 +94,10 @@ public final class Valuation extends BaseModel<Valuation> {
         this.minPrice = minPrice;
     }
 
+    public void setMinPrice(MonetaryAmount minPrice) {
+        this.minPrice = MultiCurrencyMonetaryAmount.of(minPrice);
+    }
+
     public MultiCurrencyMonetaryAmount getMaxPrice() {
         return maxPrice;
     }
@@ -98,6 +106,10 @@ public final class Valuation extends BaseModel<Valuation> {
         this.maxPrice = maxPrice;
     }
 
+    public void setMaxPrice(MonetaryAmount maxPrice) {
+        this.maxPrice = MultiCurrencyMonetaryAmount.of(maxPrice);
+    }
+
     public Integer getAuctionCount() {
         return auctionCount;
     }
@@ -198,14 +210,6 @@ public final class Valuation extends BaseModel<Valuation> {
         this.catalogValue = catalogValue;
     }
 
-    public void addValuationEntry(ValuationEntry valuationEntry) {
-        valuationEntries.add(valuationEntry);
-    }
-
-    public Collection<ValuationEntry> getValuationEntries() {
-        return valuationEntries;
-    }
-
     @Override
     public String getDisplayName() {
         return getTradingItemCatalogNumber();
@@ -6,6 +6,7 @@ import com.philabid.database.util.query.QueryOrder;
 import com.philabid.model.BaseModel;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public abstract class AbstractCrudService<T extends BaseModel<T>> extends CrudService<T> {
@@ -27,12 +28,27 @@ public abstract class AbstractCrudService<T extends BaseModel<T>> extends CrudSe
         return crudRepository.save(entity);
     }
 
+    /**
+     * Saves all entities in one transaction. Nothing is saved if any of them fails validation.
+     */
+    public final Optional<List<T>> saveAll(Collection<T> entities) {
+        if (!entities.stream().allMatch(this::validate)) {
+            return Optional.empty();
+        }
+
+        return crudRepository.saveAll(entities);
+    }
+
     protected abstract boolean validate(T entity);
 
     public final boolean delete(Long id) {
         return crudRepository.delete(id);
     }
 
+    public final boolean deleteAll(Collection<Long> ids) {
+        return crudRepository.deleteAll(ids);
+    }
+
     public final Collection<T> getAll(Collection<FilterCondition> filterConditions, Collection<QueryOrder> orders) {
         return crudRepository.findAll(filterConditions, orders);
     }
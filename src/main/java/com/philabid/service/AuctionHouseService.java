@@ -2,27 +2,44 @@ package com.philabid.service;
 
 import com.philabid.database.AuctionHouseRepository;
 import com.philabid.model.AuctionHouse;
+import com.philabid.util.BidIncrementLadder;
 import com.philabid.util.MultiCurrencyMonetaryAmount;
 import org.javamoney.moneta.Money;
+import org.javatuples.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.money.MonetaryAmount;
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * Service layer for managing auction houses.
  * Encapsulates business logic and separates it from the UI and database layers.
+ * <p>
+ * The bid increment ladders are read once and kept until a ladder or an auction house is saved or deleted. Ladders
+ * should be changed through {@link #saveBidIncrements}; rows changed in the {@code bid_increments} table directly take
+ * effect after a restart.
  */
 public class AuctionHouseService extends AbstractCrudService<AuctionHouse> {
 
     private static final Logger logger = LoggerFactory.getLogger(AuctionHouseService.class);
     private final AuctionHouseRepository auctionHouseRepository;
+    private final ConfigurationService configurationService;
+    private final ExchangeRateService exchangeRateService;
+    // Read on first use; auction house changes may have deleted a ladder, so they make it read again.
+    private volatile Map<Long, BidIncrementLadder> bidIncrementLadders;
 
-    public AuctionHouseService(AuctionHouseRepository auctionHouseRepository) {
+    public AuctionHouseService(AuctionHouseRepository auctionHouseRepository,
+                               ConfigurationService configurationService, ExchangeRateService exchangeRateService) {
         super(auctionHouseRepository);
         this.auctionHouseRepository = auctionHouseRepository;
+        this.configurationService = configurationService;
+        this.exchangeRateService = exchangeRateService;
+        auctionHouseRepository.addChangeListener(event -> bidIncrementLadders = null);
     }
 
     /**
@@ -56,28 +73,64 @@ public class AuctionHouseService extends AbstractCrudService<AuctionHouse> {
         }
     }
 
-    public MultiCurrencyMonetaryAmount getNextBid(Long auctionHouseId, MultiCurrencyMonetaryAmount currentPrice) {
-        long step = 1;
-        BigDecimal current = currentPrice.originalAmount().getNumber().numberValue(BigDecimal.class);
-        if (current.compareTo(BigDecimal.valueOf(10000)) > 0) {
-            step = 250;
-        } else if (current.compareTo(BigDecimal.valueOf(5000)) > 0) {
-            step = 100;
-        } else if (current.compareTo(BigDecimal.valueOf(2500)) > 0) {
-            step = 50;
-        } else if (current.compareTo(BigDecimal.valueOf(1000)) > 0) {
-            step = 25;
-        } else if (current.compareTo(BigDecimal.valueOf(500)) > 0) {
-            step = 15;
-        } else if (current.compareTo(BigDecimal.valueOf(250)) > 0) {
-            step = 10;
-        } else if (current.compareTo(BigDecimal.valueOf(100)) > 0) {
-            step = 5;
-        } else if (current.compareTo(BigDecimal.valueOf(25)) > 0) {
-            step = 2;
+    /**
+     * The bid increment ladder of an auction house as (threshold, step) pairs in the house's currency, empty if the
+     * house uses the default ladder or on error.
+     */
+    public List<Pair<BigDecimal, BigDecimal>> getBidIncrements(Long auctionHouseId) {
+        try {
+            return auctionHouseRepository.findBidIncrements(auctionHouseId);
+        } catch (SQLException e) {
+            logger.error("Failed to read bid increments of auction house: {}", auctionHouseId, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Replaces the bid increment ladder of an auction house; an empty list makes it use the default ladder.
+     *
+     * @param increments (threshold, step) pairs in the house's currency.
+     * @return Whether the ladder was saved.
+     */
+    public boolean saveBidIncrements(Long auctionHouseId, List<Pair<BigDecimal, BigDecimal>> increments) {
+        try {
+            auctionHouseRepository.saveBidIncrements(auctionHouseId, increments);
+            return true;
+        } catch (SQLException e) {
+            logger.error("Failed to save bid increments of auction house: {}", auctionHouseId, e);
+            return false;
+        } finally {
+            bidIncrementLadders = null;
         }
+    }
 
+    /**
+     * The lowest bid above the current price at the auction house, by its bid increment ladder. The ladder is in the
+     * house's currency, so a price in another currency rises by the default ladder instead.
+     */
+    public MultiCurrencyMonetaryAmount getNextBid(Long auctionHouseId, MultiCurrencyMonetaryAmount currentPrice) {
+        MonetaryAmount current = currentPrice.originalAmount();
+        BidIncrementLadder ladder = getBidIncrementLadder(auctionHouseId);
+        if (!ladder.appliesTo(current.getCurrency())) {
+            ladder = BidIncrementLadder.DEFAULT;
+        }
         return MultiCurrencyMonetaryAmount.of(
-                currentPrice.originalAmount().add(Money.of(step, currentPrice.getOriginalCurrency())));
+                current.add(Money.of(ladder.getStep(current.getNumber().doubleValue()), current.getCurrency())),
+                configurationService.getDefaultCurrency(), exchangeRateService);
+    }
+
+    private BidIncrementLadder getBidIncrementLadder(Long auctionHouseId) {
+        Map<Long, BidIncrementLadder> ladders = bidIncrementLadders;
+        if (ladders == null) {
+            try {
+                ladders = auctionHouseRepository.findBidIncrementLadders();
+            } catch (SQLException e) {
+                // Kept empty rather than read again for every bid.
+                logger.error("Failed to read bid increments, using the default ones", e);
+                ladders = Map.of();
+            }
+            bidIncrementLadders = ladders;
+        }
+        return ladders.getOrDefault(auctionHouseId, BidIncrementLadder.DEFAULT);
     }
 }
@@ -1,17 +1,20 @@
 package com.philabid.service;
 
-import com.philabid.AppContext;
 import com.philabid.database.AuctionRepository;
 import com.philabid.database.util.FilterCondition;
+import com.philabid.database.util.query.Page;
+import com.philabid.database.util.query.PageKey;
+import com.philabid.database.util.query.QueryOrder;
 import com.philabid.model.Auction;
+import com.philabid.util.MultiCurrencyMonetaryAmount;
 import org.javatuples.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import javax.money.MonetaryAmount;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service layer for managing Auctions.
@@ -20,27 +23,88 @@ public class AuctionService extends AbstractCrudService<Auction> {
 
     private static final Logger logger = LoggerFactory.getLogger(AuctionService.class);
     private final AuctionRepository auctionRepository;
+    private final AuctionHouseService auctionHouseService;
+    private final PriceRecommendationService priceRecommendationService;
+    private final ExchangeRateService exchangeRateService;
+    private final ConfigurationService configurationService;
 
-    public AuctionService(AuctionRepository auctionRepository) {
+    public AuctionService(AuctionRepository auctionRepository, AuctionHouseService auctionHouseService,
+                          PriceRecommendationService priceRecommendationService,
+                          ExchangeRateService exchangeRateService, ConfigurationService configurationService) {
         super(auctionRepository);
         this.auctionRepository = auctionRepository;
+        this.auctionHouseService = auctionHouseService;
+        this.priceRecommendationService = priceRecommendationService;
+        this.exchangeRateService = exchangeRateService;
+        this.configurationService = configurationService;
     }
 
+    /**
+     * Loads active auctions together with everything the recommendation needs: the other active auctions of the same
+     * item and condition, and the archived auctions of the same item (or category) and condition.
+     * Besides the auctions themselves only rows keyed by their (item, condition) and (category, condition) pairs are
+     * read: one extra query for the archive, and one for the other active auctions of the same items when filtering.
+     */
     public Collection<Auction> getActiveAuctions(Collection<FilterCondition> filterConditions) {
         Collection<Auction> auctions = auctionRepository.findAllActive(filterConditions);
-        Collection<Auction> allActiveAuctions = auctionRepository.findAllActive(List.of());
-        allActiveAuctions.forEach(this::enrichAuction);
-        Map<Long, List<Auction>> auctionsArchiveMap = auctionRepository.findArchivedForActiveAuctions();
-        Map<Pair<Long, Long>, List<Auction>> categoriesArchiveMap =
-                auctionRepository.findArchivedForActiveCategories();
+        if (auctions.isEmpty()) {
+            return auctions;
+        }
+
+        // Without filters the loaded set already holds every active auction; otherwise only the active auctions of
+        // the same items are added, which are enriched on their own since they are not shown.
+        Map<Long, Auction> activeAuctions = new HashMap<>();
+        auctions.forEach(auction -> activeAuctions.put(auction.getId(), auction));
+        List<Auction> otherActiveAuctions = new ArrayList<>();
+        if (!filterConditions.isEmpty()) {
+            auctionRepository.findActiveByTradingItems(
+                            auctions.stream().map(Auction::getTradingItemId).collect(Collectors.toSet()))
+                    .stream()
+                    .filter(auction -> !activeAuctions.containsKey(auction.getId()))
+                    .forEach(auction -> {
+                        otherActiveAuctions.add(auction);
+                        activeAuctions.put(auction.getId(), auction);
+                    });
+        }
+        Map<Pair<Long, Long>, List<Auction>> auctionsActiveMap = activeAuctions.values().stream()
+                .collect(Collectors.groupingBy(a -> Pair.with(a.getTradingItemId(), a.getConditionId())));
+
+        // The categories of the loaded auctions contain their items, so one read covers both archive maps.
+        Set<Pair<Long, Long>> categoryKeys = auctions.stream()
+                .map(a -> Pair.with(a.getTradingItemCategoryId(), a.getConditionId()))
+                .collect(Collectors.toSet());
+        Collection<Auction> archivedAuctions = auctionRepository.findArchivedByCategoriesAndConditions(
+                categoryKeys.stream().map(Pair::getValue0).collect(Collectors.toSet()),
+                categoryKeys.stream().map(Pair::getValue1).collect(Collectors.toSet()));
 
-        Map<Pair<Long, Long>, List<Auction>> auctionsActiveMap =
-                allActiveAuctions.stream()
-                        .collect(Collectors.groupingBy(a -> Pair.with(a.getTradingItemId(), a.getConditionId())));
+        Map<Pair<Long, Long>, List<Auction>> categoriesArchiveMap = archivedAuctions.stream()
+                .filter(a -> categoryKeys.contains(Pair.with(a.getTradingItemCategoryId(), a.getConditionId())))
+                .collect(Collectors.groupingBy(a -> Pair.with(a.getTradingItemCategoryId(), a.getConditionId())));
+        Set<Pair<Long, Long>> itemKeys = auctions.stream()
+                .map(a -> Pair.with(a.getTradingItemId(), a.getConditionId()))
+                .collect(Collectors.toSet());
+        Map<Pair<Long, Long>, List<Auction>> itemsArchiveMap = archivedAuctions.stream()
+                .filter(a -> itemKeys.contains(Pair.with(a.getTradingItemId(), a.getConditionId())))
+                .collect(Collectors.groupingBy(a -> Pair.with(a.getTradingItemId(), a.getConditionId())));
 
-        auctionsArchiveMap.values().stream().flatMap(List::stream).forEach(this::enrichAuction);
+        // Enrichment converts every amount at today's rate; the rates of all their currencies are made available in
+        // one batch first, rather than looked up one currency at a time in the middle of it.
+        exchangeRateService.backfillCurrent(
+                Stream.concat(activeAuctions.values().stream(), itemsArchiveMap.values().stream().flatMap(List::stream))
+                        .flatMap(auction -> Stream.of(auction.getCurrentPrice(), auction.getStartingPrice(),
+                                auction.getMaxBid(), auction.getCatalogValue()))
+                        .filter(Objects::nonNull)
+                        .map(MultiCurrencyMonetaryAmount::getOriginalCurrency)
+                        .collect(Collectors.toSet()),
+                configurationService.getDefaultCurrency());
+
+        otherActiveAuctions.forEach(this::enrichAuction);
+        itemsArchiveMap.values().stream().flatMap(List::stream).forEach(this::enrichAuction);
         auctions.forEach(
-                auction -> enrichAuction(auction, auctionsArchiveMap, categoriesArchiveMap, auctionsActiveMap));
+                auction -> enrichAuction(auction, itemsArchiveMap, categoriesArchiveMap, auctionsActiveMap));
+        // The statuses compare an auction with the other active auctions of its item, so they are computed only
+        // once every one of them has its amounts converted.
+        auctions.forEach(auction -> auction.updateStatuses(auctionHouseService));
         return auctions;
     }
 
@@ -50,6 +114,19 @@ public class AuctionService extends AbstractCrudService<Auction> {
         return auctions;
     }
 
+    /**
+     * Returns one page of archived auctions in the given ordering, or most recently ended first if it is empty.
+     *
+     * @param afterKey the key of the previous page, or null for the first page
+     * @param orders   the ordering, which must be the same for all pages
+     */
+    public Page<Auction> getArchivedAuctionsPage(Collection<FilterCondition> filterConditions, PageKey afterKey,
+                                                 int limit, List<QueryOrder> orders) {
+        Page<Auction> page = auctionRepository.findArchivedPage(filterConditions, afterKey, limit, orders);
+        page.items().forEach(this::enrichAuction);
+        return page;
+    }
+
     public Collection<Auction> getArchivedAuctionsForItem(Long tradingItemId, Long conditionId) {
         Collection<Auction> auctions = auctionRepository.findArchivedByItemAndCondition(tradingItemId, conditionId);
         auctions.forEach(this::enrichAuction);
@@ -77,33 +154,25 @@ public class AuctionService extends AbstractCrudService<Auction> {
 
     private void enrichAuction(Auction auction) {
         enrichAuction(auction, Map.of(), Map.of(), Map.of());
+        auction.updateStatuses(auctionHouseService);
     }
 
-    private void enrichAuction(Auction auction, Map<Long, List<Auction>> auctionArchiveMap,
+    private void enrichAuction(Auction auction, Map<Pair<Long, Long>, List<Auction>> itemArchiveMap,
                                Map<Pair<Long, Long>, List<Auction>> categoryArchiveMap,
                                Map<Pair<Long, Long>, List<Auction>> activeAuctionsMap) {
         // This is where we calculate derived properties after the main DB query is closed.
         // This prevents database locks by separating read and potential write (cache) operations.
-        if (auction.getCurrentPrice() != null) {
-            auction.setCurrentPrice(auction.getCurrentPrice().originalAmount());
-        }
-        if (auction.getStartingPrice() != null) {
-            auction.setStartingPrice(auction.getStartingPrice().originalAmount());
-        }
-        if (auction.getMaxBid() != null) {
-            auction.setMaxBid(auction.getMaxBid().originalAmount());
-        }
-        if (auction.getCatalogValue() != null) {
-            auction.setCatalogValue(auction.getCatalogValue().originalAmount());
-        }
-        auction.setActiveAuctions(
-                activeAuctionsMap.getOrDefault(Pair.with(auction.getTradingItemId(), auction.getConditionId()),
-                        List.of()));
-        auction.setArchivedAuctions(auctionArchiveMap.getOrDefault(auction.getId(), List.of()));
+        auction.convertAmounts(this::convert);
+        Pair<Long, Long> itemKey = Pair.with(auction.getTradingItemId(), auction.getConditionId());
+        auction.setActiveAuctions(activeAuctionsMap.getOrDefault(itemKey, List.of()));
+        auction.setArchivedAuctions(itemArchiveMap.getOrDefault(itemKey, List.of()));
         auction.setCategoryArchivedAuctions(
                 categoryArchiveMap.getOrDefault(Pair.with(auction.getTradingItemCategoryId(), auction.getConditionId()),
                         List.of()));
-        auction.setRecommendedPrice(
-                AppContext.getPriceRecommendationService().calculateRecommendation(auction).orElse(null));
+        auction.setRecommendedPrice(priceRecommendationService.calculateRecommendation(auction).orElse(null));
+    }
+
+    private MultiCurrencyMonetaryAmount convert(MonetaryAmount amount) {
+        return MultiCurrencyMonetaryAmount.of(amount, configurationService.getDefaultCurrency(), exchangeRateService);
     }
 }
@@ -0,0 +1,80 @@
+package com.philabid.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs slow work, such as loading table views, off the JavaFX application thread and keeps track of what is running
+ * so that the status bar can show it. Each task gets its own virtual thread.
+ */
+public class BackgroundTaskService {
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundTaskService.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Object, Instant> runningTasks = new ConcurrentHashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile Duration lastTaskDuration;
+
+    /**
+     * Runs the task in the background. Cancelling the returned future only discards the result; the task itself
+     * runs to completion.
+     */
+    public <T> CompletableFuture<T> submit(String name, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            Object token = new Object();
+            Instant start = Instant.now();
+            runningTasks.put(token, start);
+            notifyListeners();
+            try {
+                return task.get();
+            } finally {
+                lastTaskDuration = Duration.between(start, Instant.now());
+                runningTasks.remove(token);
+                logger.debug("{} finished in {} ms", name, lastTaskDuration.toMillis());
+                notifyListeners();
+            }
+        }, executor);
+    }
+
+    public int getRunningTaskCount() {
+        return runningTasks.size();
+    }
+
+    /**
+     * When the longest running task started, if any task is running.
+     */
+    public Optional<Instant> getOldestRunningTaskStart() {
+        return runningTasks.values().stream().min(Instant::compareTo);
+    }
+
+    public Optional<Duration> getLastTaskDuration() {
+        return Optional.ofNullable(lastTaskDuration);
+    }
+
+    /**
+     * Adds a listener called, on the task's thread, whenever a task starts or finishes.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void notifyListeners() {
+        listeners.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,124 @@
+package com.philabid.service;
+
+import com.philabid.database.ValuationStatsRepository;
+import com.philabid.database.ValuationStatsRepository.CategoryPercentageChange;
+import com.philabid.database.ValuationStatsRepository.CategoryPercentageTotal;
+import org.javatuples.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Running per (category, condition) sums of archived price to catalog value ratios, held in memory.
+ * The totals are read once and then kept current by applying the changes the database triggers log to
+ * {@code category_percentage_changes}, so a lookup does not depend on the size of the archive. The sums are kept as
+ * integers, so that they do not drift however many changes are applied.
+ */
+class CategoryAveragePercentages {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryAveragePercentages.class);
+    // Past this many unapplied changes the log is dropped and the totals are reloaded instead.
+    static final int MAX_PENDING_CHANGES = 10_000;
+
+    private final ValuationStatsRepository valuationStatsRepository;
+    private final Map<Pair<Long, Long>, Total> totals = new HashMap<>();
+    private double maxPriceMultiplier;
+    private long lastChangeId = -1;
+
+    CategoryAveragePercentages(ValuationStatsRepository valuationStatsRepository) {
+        this.valuationStatsRepository = valuationStatsRepository;
+    }
+
+    /**
+     * Brings the totals up to date. They are reloaded from scratch on the first call and whenever the multiplier
+     * bounding the ratios changes.
+     */
+    synchronized void refresh(double maxPriceMultiplier) {
+        try {
+            if (lastChangeId < 0 || this.maxPriceMultiplier != maxPriceMultiplier) {
+                load(maxPriceMultiplier);
+            } else {
+                applyChanges();
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to refresh category average percentages", e);
+            lastChangeId = -1;
+        }
+    }
+
+    synchronized Optional<Double> get(Long categoryId, Long conditionId) {
+        return Optional.ofNullable(totals.get(Pair.with(categoryId, conditionId)))
+                .map(t -> (double) t.scaledSum / ValuationStatsRepository.PERCENTAGE_SCALE / t.count);
+    }
+
+    /**
+     * Keeps the change log short when the totals are not read. Changes are of no use while the totals are not loaded,
+     * so they are all removed then, e.g. on startup; once more than {@link #MAX_PENDING_CHANGES} have piled up, they
+     * are removed as well and the totals are reloaded on the next read.
+     */
+    synchronized void prune() {
+        try {
+            if (lastChangeId >= 0) {
+                long pendingChanges = valuationStatsRepository.findLastCategoryPercentageChangeId() - lastChangeId;
+                if (pendingChanges <= MAX_PENDING_CHANGES) {
+                    return;
+                }
+                logger.debug("Dropping category average percentages after {} changes", pendingChanges);
+            }
+            totals.clear();
+            lastChangeId = -1;
+            valuationStatsRepository.deleteCategoryPercentageChanges(Long.MAX_VALUE);
+        } catch (SQLException e) {
+            logger.error("Failed to prune category percentage changes", e);
+        }
+    }
+
+    private void load(double maxPriceMultiplier) throws SQLException {
+        Pair<Long, List<CategoryPercentageTotal>> loaded =
+                valuationStatsRepository.findCategoryPercentageTotals(maxPriceMultiplier);
+        totals.clear();
+        for (CategoryPercentageTotal total : loaded.getValue1()) {
+            totals.put(Pair.with(total.categoryId(), total.conditionId()),
+                    new Total(total.scaledSum(), total.count()));
+        }
+        this.maxPriceMultiplier = maxPriceMultiplier;
+        lastChangeId = loaded.getValue0();
+        valuationStatsRepository.deleteCategoryPercentageChanges(lastChangeId);
+        logger.debug("Loaded category average percentages for {} categories", totals.size());
+    }
+
+    private void applyChanges() throws SQLException {
+        List<CategoryPercentageChange> changes = valuationStatsRepository.findCategoryPercentageChanges(lastChangeId);
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (CategoryPercentageChange change : changes) {
+            if (change.percentage() > 0 && change.percentage() < maxPriceMultiplier) {
+                Pair<Long, Long> key = Pair.with(change.categoryId(), change.conditionId());
+                Total total = totals.computeIfAbsent(key, k -> new Total(0, 0));
+                total.scaledSum += change.delta() * change.scaledPercentage();
+                total.count += change.delta();
+                if (total.count <= 0) {
+                    totals.remove(key);
+                }
+            }
+        }
+        lastChangeId = changes.getLast().id();
+        valuationStatsRepository.deleteCategoryPercentageChanges(lastChangeId);
+    }
+
+    private static final class Total {
+        private long scaledSum;
+        private int count;
+
+        private Total(long scaledSum, int count) {
+            this.scaledSum = scaledSum;
+            this.count = count;
+        }
+    }
+}
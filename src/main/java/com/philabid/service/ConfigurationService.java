@@ -21,10 +21,20 @@ public class ConfigurationService {
     private static final Logger logger = LoggerFactory.getLogger(ConfigurationService.class);
     private static final String CONFIG_FILE = "philabid-config.json";
 
+    private final Path configPath;
     private final ObjectMapper objectMapper;
     private ObjectNode configuration;
 
     public ConfigurationService() {
+        this(Paths.get(CONFIG_FILE));
+    }
+
+    /**
+     * @param configPath The JSON file the configuration is loaded from and saved to; created with the defaults if it
+     *                   does not exist.
+     */
+    public ConfigurationService(Path configPath) {
+        this.configPath = configPath;
         this.objectMapper = new ObjectMapper();
         loadConfiguration();
     }
@@ -33,16 +43,14 @@ public class ConfigurationService {
      * Loads configuration from file or creates default configuration.
      */
     private void loadConfiguration() {
-        Path configPath = Paths.get(CONFIG_FILE);
-
         try {
             if (Files.exists(configPath)) {
                 configuration = (ObjectNode) objectMapper.readTree(configPath.toFile());
-                logger.info("Configuration loaded from: {}", CONFIG_FILE);
+                logger.info("Configuration loaded from: {}", configPath);
             } else {
                 createDefaultConfiguration();
                 saveConfiguration();
-                logger.info("Default configuration created and saved to: {}", CONFIG_FILE);
+                logger.info("Default configuration created and saved to: {}", configPath);
             }
         } catch (IOException e) {
             logger.warn("Failed to load configuration, using defaults", e);
@@ -63,11 +71,22 @@ public class ConfigurationService {
         appSettings.put("windowWidth", 1200);
         appSettings.put("windowHeight", 800);
         appSettings.put("windowMaximized", false);
+        appSettings.put("filterRefreshDelay", 300); // milliseconds
 
         // Database settings
         ObjectNode dbSettings = configuration.putObject("database");
         dbSettings.put("backupEnabled", true);
         dbSettings.put("backupInterval", 24); // hours
+        dbSettings.put("poolSize", 4);
+        dbSettings.put("poolAcquireTimeout", 2000); // milliseconds
+        dbSettings.put("journalMode", "WAL");
+        dbSettings.put("synchronous", "NORMAL");
+        dbSettings.put("mmapSize", 268435456); // bytes
+        dbSettings.put("cacheSize", -65536); // negative means KiB
+        dbSettings.put("tempStore", "MEMORY");
+        dbSettings.put("busyTimeout", 5000); // milliseconds
+        dbSettings.put("statementCacheSize", 64); // per pooled connection
+        dbSettings.put("batchSize", 500); // rows per JDBC batch in bulk saves and deletes
 
         // Auction settings
         ObjectNode auctionSettings = configuration.putObject("auction");
@@ -89,8 +108,8 @@ public class ConfigurationService {
     public void saveConfiguration() {
         try {
             objectMapper.writerWithDefaultPrettyPrinter()
-                    .writeValue(Paths.get(CONFIG_FILE).toFile(), configuration);
-            logger.info("Configuration saved to: {}", CONFIG_FILE);
+                    .writeValue(configPath.toFile(), configuration);
+            logger.info("Configuration saved to: {}", configPath);
         } catch (IOException e) {
             logger.error("Failed to save configuration", e);
         }
@@ -144,6 +163,30 @@ public class ConfigurationService {
         }
     }
 
+    /**
+     * Gets a long configuration value.
+     *
+     * @param path         dot-separated path to the configuration value
+     * @param defaultValue default value if not found
+     * @return configuration value or default
+     */
+    public long getLong(String path, long defaultValue) {
+        try {
+            String[] parts = path.split("\\.");
+            ObjectNode current = configuration;
+
+            for (int i = 0; i < parts.length - 1; i++) {
+                current = (ObjectNode) current.get(parts[i]);
+                if (current == null) return defaultValue;
+            }
+
+            return current.path(parts[parts.length - 1]).asLong(defaultValue);
+        } catch (Exception e) {
+            logger.warn("Error getting configuration value for path: {}", path, e);
+            return defaultValue;
+        }
+    }
+
     /**
      * Gets a boolean configuration value.
      *
@@ -194,6 +237,8 @@ public class ConfigurationService {
                 current.put(key, (String) value);
             } else if (value instanceof Integer) {
                 current.put(key, (Integer) value);
+            } else if (value instanceof Long) {
+                current.put(key, (Long) value);
             } else if (value instanceof Boolean) {
                 current.put(key, (Boolean) value);
             } else if (value instanceof Double) {
@@ -213,6 +258,13 @@ public class ConfigurationService {
         return 3.0;
     }
 
+    /**
+     * How long, in milliseconds, a table view waits after the last filter change before it reloads.
+     */
+    public int getFilterRefreshDelay() {
+        return getInt("application.filterRefreshDelay", 300);
+    }
+
     public int getRecommendationAnalysisDays() {
         return getInt("auction.recommendationAnalysisDays", 90);
     }
@@ -13,10 +13,14 @@ public abstract class CrudService<T extends BaseModel<T>> {
 
     public abstract Optional<T> save(T entity);
 
+    public abstract Optional<List<T>> saveAll(Collection<T> entities);
+
     protected abstract boolean validate(T entity);
 
     public abstract boolean delete(Long id);
 
+    public abstract boolean deleteAll(Collection<Long> ids);
+
     public Collection<T> getAll() {
         return getAll(List.of(), List.of());
     }
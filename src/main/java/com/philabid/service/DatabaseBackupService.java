@@ -40,6 +40,9 @@ public class DatabaseBackupService {
                 return;
             }
             
+            // With WAL journaling recent commits may still live in the -wal file
+            databaseManager.checkpoint();
+
             Path backupDir = dbPath.getParent().resolve("backups");
             createBackupDirectory(backupDir);
 
@@ -0,0 +1,10 @@
+package com.philabid.service;
+
+import javax.money.CurrencyUnit;
+import java.time.LocalDate;
+
+/**
+ * A rate wanted for converting amounts dated {@code date}, see {@link ExchangeRateService#backfill}.
+ */
+public record ExchangeRateRequest(LocalDate date, CurrencyUnit source, CurrencyUnit target) {
+}
@@ -1,6 +1,7 @@
 package com.philabid.service;
 
 import com.philabid.database.ExchangeRateRepository;
+import com.philabid.util.ExchangeRateTable;
 import org.javamoney.moneta.Money;
 import org.javamoney.moneta.convert.ExchangeRateBuilder;
 import org.javamoney.moneta.spi.DefaultNumberValue;
@@ -8,117 +9,319 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.money.CurrencyUnit;
+import javax.money.Monetary;
 import javax.money.MonetaryAmount;
 import javax.money.convert.*;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.Map;
-import java.util.Optional;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+/**
+ * Converts amounts between currencies. Only the rates of each currency against {@link #PIVOT_CURRENCY} are fetched
+ * and stored; the rate of any other pair is derived from the two.
+ */
 public class ExchangeRateService {
+    /**
+     * The currency all stored rates are quoted against. The IMF publishes its rates against it as well.
+     */
+    public static final CurrencyUnit PIVOT_CURRENCY = Monetary.getCurrency("USD");
+
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateService.class);
+    private static final int RATE_SCALE = ExchangeRateTable.SCALE;
+    /**
+     * How long a rate that could not be found is not looked for again.
+     */
+    private static final Duration MISSING_RATE_TTL = Duration.ofMinutes(30);
 
     private final Map<ExchangeRateCacheKey, ExchangeRate> exchangeRateCache = new ConcurrentHashMap<>();
     private final ExchangeRateRepository repository;
+    private final ExchangeRateTable rateTable = new ExchangeRateTable();
+    private volatile boolean rateTableLoaded;
+    private final Map<ExchangeRateCacheKey, Instant> missingRates = new ConcurrentHashMap<>();
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "exchange-rate-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Function<ConversionQuery, ExchangeRateProvider> providerLookup;
+    private final Clock clock;
 
     public ExchangeRateService(ExchangeRateRepository repository) {
+        this(repository, MonetaryConversions::getExchangeRateProvider);
+    }
+
+    public ExchangeRateService(ExchangeRateRepository repository,
+                               Function<ConversionQuery, ExchangeRateProvider> providerLookup) {
+        this(repository, providerLookup, Clock.systemDefaultZone());
+    }
+
+    public ExchangeRateService(ExchangeRateRepository repository,
+                               Function<ConversionQuery, ExchangeRateProvider> providerLookup, Clock clock) {
         this.repository = repository;
+        this.providerLookup = providerLookup;
+        this.clock = clock;
+    }
+
+    /**
+     * Loads today's and yesterday's rates of the currencies in the background, so that converting current amounts
+     * later finds them in memory.
+     */
+    public CompletableFuture<Void> prefetch(Collection<CurrencyUnit> currencies) {
+        LocalDate today = LocalDate.now(clock);
+        List<ExchangeRateRequest> requests = currencies.stream()
+                .flatMap(currency -> Stream.of(new ExchangeRateRequest(today, currency, PIVOT_CURRENCY),
+                        new ExchangeRateRequest(today.minusDays(1), currency, PIVOT_CURRENCY)))
+                .toList();
+        return CompletableFuture.runAsync(() -> backfill(requests), prefetchExecutor);
+    }
+
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Makes sure the rates for all requests are available locally, so that converting the amounts afterwards does
+     * not go to the provider or the database day by day. Stored rates are all in the rate table already; days still
+     * missing are fetched from the provider and saved, with the rates carried over to them, in one batch.
+     */
+    public void backfill(Collection<ExchangeRateRequest> requests) {
+        loadRateTable();
+        Map<CurrencyUnit, TreeSet<LocalDate>> datesByCurrency = new HashMap<>();
+        for (ExchangeRateRequest request : requests) {
+            if (!request.source().equals(request.target())) {
+                // The same day getExchangeRate looks up, for both legs of the pair.
+                for (CurrencyUnit currency : List.of(request.source(), request.target())) {
+                    if (!currency.equals(PIVOT_CURRENCY)) {
+                        datesByCurrency.computeIfAbsent(currency, k -> new TreeSet<>())
+                                .add(request.date().minusDays(1));
+                    }
+                }
+            }
+        }
+
+        List<com.philabid.model.ExchangeRate> newRates = new ArrayList<>();
+        datesByCurrency.forEach((currency, dates) -> {
+            Set<LocalDate> attempted = new HashSet<>();
+            for (LocalDate date : dates) {
+                Optional<ExchangeRateTable.Entry> rate = findLocalRate(date, currency);
+                long uncoveredDays = getUncoveredDays(date, rate);
+                for (int i = 0; i < uncoveredDays; i++) {
+                    LocalDate rateDate = date.minusDays(i);
+                    if (!attempted.add(rateDate)) {
+                        continue;
+                    }
+                    Optional<com.philabid.model.ExchangeRate> fetched = fetchRemoteRate(rateDate, currency);
+                    if (fetched.isPresent()) {
+                        rateTable.put(rateDate, PIVOT_CURRENCY, currency, fetched.get().getRate());
+                        newRates.add(fetched.get());
+                        rate = findLocalRate(date, currency);
+                        break;
+                    }
+                }
+                if (rate.isPresent() && !rate.get().date().equals(date) && date.isBefore(LocalDate.now(clock))) {
+                    rateTable.put(date, PIVOT_CURRENCY, currency, rate.get().rate());
+                    newRates.add(newExchangeRate(date, currency, rate.get().rate()));
+                }
+            }
+        });
+
+        if (!newRates.isEmpty()) {
+            try {
+                repository.saveRates(newRates);
+            } catch (SQLException e) {
+                logger.error("Failed to save {} exchange rates", newRates.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Backfills the rates that converting current amounts in the given currencies to the target currency looks up.
+     */
+    public void backfillCurrent(Collection<CurrencyUnit> currencies, CurrencyUnit target) {
+        LocalDate today = LocalDate.now(clock);
+        backfill(currencies.stream().map(currency -> new ExchangeRateRequest(today, currency, target)).toList());
     }
 
     public Optional<ExchangeRate> getCurrentExchangeRate(CurrencyUnit from, CurrencyUnit to) {
-        LocalDate date = LocalDate.now();
+        LocalDate date = LocalDate.now(clock);
         return getExchangeRate(date, from, to);
     }
 
+    /**
+     * Derives the rate from the rates of both currencies against {@link #PIVOT_CURRENCY}.
+     */
     public Optional<ExchangeRate> getExchangeRate(LocalDate desiredDate, CurrencyUnit from, CurrencyUnit to) {
         LocalDate date = desiredDate.minusDays(1);
         Optional<ExchangeRate> localRate = getCachedExchangeRate(date, from, to);
         if (localRate.isPresent()) {
             return localRate;
         }
-        localRate = getLocalExchangeRate(date, from, to);
-        if (localRate.isPresent()) {
-            cacheExchangeRate(date, from, to, localRate.get());
-            return localRate;
+
+        Optional<BigDecimal> fromRate = getPivotRate(date, from);
+        Optional<BigDecimal> toRate = fromRate.isPresent() ? getPivotRate(date, to) : Optional.empty();
+        if (toRate.isEmpty()) {
+            return Optional.empty();
         }
+        ExchangeRate exchangeRate =
+                buildExchangeRate(from, to, toRate.get().divide(fromRate.get(), RATE_SCALE, RoundingMode.HALF_UP));
+        cacheExchangeRate(date, from, to, exchangeRate);
+        return Optional.of(exchangeRate);
+    }
 
-        for (int i = 0; i < 10; i++) {
-            LocalDate rateDate = date.minusDays(i);
-            Optional<ExchangeRate> rate =
-                    getLocalExchangeRate(rateDate, from, to).or(() -> getRemoteExchangeRate(rateDate, from, to));
+    /**
+     * Finds how many units of the currency one unit of {@link #PIVOT_CURRENCY} was worth on the given day.
+     */
+    private Optional<BigDecimal> getPivotRate(LocalDate date, CurrencyUnit currency) {
+        if (currency.equals(PIVOT_CURRENCY)) {
+            return Optional.of(BigDecimal.ONE);
+        }
 
-            if (rate.isPresent()) {
-                ExchangeRate exchangeRate = rate.get();
-                if (i != 0) {
-                    exchangeRate = storeLocalExchangeRate(date, from, to,
-                            exchangeRate.getFactor().numberValue(BigDecimal.class));
-                }
-                return Optional.of(exchangeRate);
+        Optional<ExchangeRateTable.Entry> rate = findLocalRate(date, currency);
+        ExchangeRateCacheKey key = new ExchangeRateCacheKey(date, PIVOT_CURRENCY, currency);
+        if (rate.isEmpty() && isKnownMissing(key)) {
+            return Optional.empty();
+        }
+
+        // Days after the nearest stored rate may have a rate at the provider; they are tried first, newest first.
+        long uncoveredDays = getUncoveredDays(date, rate);
+        for (int i = 0; i < uncoveredDays; i++) {
+            if (getRemoteExchangeRate(date.minusDays(i), currency)) {
+                rate = findLocalRate(date, currency);
+                break;
             }
         }
-        logger.error("Cannot evaluate currency conversion rate found for date: {}, from: {}, to: {}", date, from, to);
-        return Optional.empty();
+
+        if (rate.isEmpty()) {
+            logger.error("Cannot evaluate currency conversion rate found for date: {}, from: {}, to: {}", date,
+                    PIVOT_CURRENCY, currency);
+            missingRates.put(key, clock.instant().plus(MISSING_RATE_TTL));
+            return Optional.empty();
+        }
+        if (!rate.get().date().equals(date)) {
+            storeLocalExchangeRate(date, currency, rate.get().rate());
+        }
+        return rate.map(ExchangeRateTable.Entry::rate);
+    }
+
+    private boolean isKnownMissing(ExchangeRateCacheKey key) {
+        Instant expiry = missingRates.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (clock.instant().isBefore(expiry)) {
+            return true;
+        }
+        missingRates.remove(key, expiry);
+        return false;
     }
 
-    private Optional<ExchangeRate> getRemoteExchangeRate(LocalDate date, CurrencyUnit from, CurrencyUnit to) {
+    private boolean getRemoteExchangeRate(LocalDate date, CurrencyUnit currency) {
+        Optional<com.philabid.model.ExchangeRate> rate = fetchRemoteRate(date, currency);
+        if (rate.isEmpty()) {
+            return false;
+        }
+        try {
+            repository.saveRate(rate.get());
+        } catch (SQLException e) {
+            logger.error(e.getMessage(), e);
+        }
+        rateTable.put(date, PIVOT_CURRENCY, currency, rate.get().getRate());
+        return true;
+    }
+
+    private Optional<com.philabid.model.ExchangeRate> fetchRemoteRate(LocalDate date, CurrencyUnit currency) {
         try {
             String providerName = "IMF-HIST";
-            if (date.equals(LocalDate.now())) {
+            if (date.equals(LocalDate.now(clock))) {
                 providerName = "IMF";
             }
 
             ConversionQuery conversionQuery = ConversionQueryBuilder.of()
-                    .setBaseCurrency(from)
-                    .setTermCurrency(to)
+                    .setBaseCurrency(PIVOT_CURRENCY)
+                    .setTermCurrency(currency)
                     .setProviderName(providerName)
                     .set(date)
                     .build();
-            ExchangeRateProvider provider = MonetaryConversions.getExchangeRateProvider(conversionQuery);
+            ExchangeRateProvider provider = providerLookup.apply(conversionQuery);
 
             BigDecimal factor =
                     provider.getExchangeRate(conversionQuery).getFactor().numberValue(BigDecimal.class)
-                            .setScale(4, RoundingMode.HALF_UP);
-
-            com.philabid.model.ExchangeRate newExchangeRate = new com.philabid.model.ExchangeRate();
-            newExchangeRate.setDate(date);
-            newExchangeRate.setSourceCurrency(from);
-            newExchangeRate.setTargetCurrency(to);
-            newExchangeRate.setRate(factor);
-            repository.saveRate(newExchangeRate);
-
-            return getLocalExchangeRate(date, from, to);
+                            .setScale(RATE_SCALE, RoundingMode.HALF_UP);
+            return Optional.of(newExchangeRate(date, currency, factor));
         } catch (Exception e) {
             return Optional.empty();
         }
     }
 
-    private Optional<ExchangeRate> getLocalExchangeRate(LocalDate date, CurrencyUnit from, CurrencyUnit to) {
-        try {
-            Optional<com.philabid.model.ExchangeRate> localRate = repository.findRate(date, from, to);
-            return localRate.map(exchangeRate -> buildExchangeRate(from, to, exchangeRate.getRate()));
-        } catch (Exception e) {
-            logger.error(e.getMessage(), e);
-            return Optional.empty();
-        }
+    /**
+     * How many days, counting back from {@code date}, are newer than the nearest stored rate and so may still have a
+     * rate of their own at the provider.
+     */
+    private static long getUncoveredDays(LocalDate date, Optional<ExchangeRateTable.Entry> rate) {
+        return rate.map(r -> ChronoUnit.DAYS.between(r.date(), date)).orElse(ExchangeRateTable.MAX_FILL_DAYS + 1L);
     }
 
-    private ExchangeRate storeLocalExchangeRate(LocalDate date, CurrencyUnit from, CurrencyUnit to, BigDecimal factor) {
-        if (date.isBefore(LocalDate.now())) {
+    private Optional<ExchangeRateTable.Entry> findLocalRate(LocalDate date, CurrencyUnit currency) {
+        loadRateTable();
+        return rateTable.find(date, PIVOT_CURRENCY, currency);
+    }
+
+    private void storeLocalExchangeRate(LocalDate date, CurrencyUnit currency, BigDecimal factor) {
+        if (date.isBefore(LocalDate.now(clock))) {
             try {
-                com.philabid.model.ExchangeRate newExchangeRate = new com.philabid.model.ExchangeRate();
-                newExchangeRate.setDate(date);
-                newExchangeRate.setSourceCurrency(from);
-                newExchangeRate.setTargetCurrency(to);
-                newExchangeRate.setRate(factor);
-                repository.saveRate(newExchangeRate);
+                repository.saveRate(newExchangeRate(date, currency, factor));
+                rateTable.put(date, PIVOT_CURRENCY, currency, factor);
             } catch (Exception e) {
                 logger.error(e.getMessage(), e);
             }
         }
-        ExchangeRate exchangeRate = buildExchangeRate(from, to, factor);
-        cacheExchangeRate(date, from, to, exchangeRate);
+    }
+
+    /**
+     * Reads all stored rates into the rate table on first use; rates fetched later are added as they are saved.
+     */
+    private void loadRateTable() {
+        if (rateTableLoaded) {
+            return;
+        }
+        synchronized (rateTable) {
+            if (rateTableLoaded) {
+                return;
+            }
+            try {
+                int[] count = {0};
+                repository.findAll(rate -> {
+                    rateTable.put(rate.getDate(), rate.getSourceCurrency(), rate.getTargetCurrency(), rate.getRate());
+                    count[0]++;
+                });
+                rateTableLoaded = true;
+                logger.debug("Loaded {} exchange rates", count[0]);
+            } catch (SQLException e) {
+                logger.error("Failed to load exchange rates", e);
+            }
+        }
+    }
+
+    private static com.philabid.model.ExchangeRate newExchangeRate(LocalDate date, CurrencyUnit currency,
+                                                                   BigDecimal factor) {
+        com.philabid.model.ExchangeRate exchangeRate = new com.philabid.model.ExchangeRate();
+        exchangeRate.setDate(date);
+        exchangeRate.setSourceCurrency(PIVOT_CURRENCY);
+        exchangeRate.setTargetCurrency(currency);
+        exchangeRate.setRate(factor);
         return exchangeRate;
     }
 
@@ -144,7 +347,7 @@ public class ExchangeRateService {
     }
 
     public Optional<MonetaryAmount> exchange(MonetaryAmount amount, CurrencyUnit to) {
-        return exchange(amount, to, LocalDate.now());
+        return exchange(amount, to, LocalDate.now(clock));
     }
 
     public Optional<MonetaryAmount> exchange(MonetaryAmount amount, CurrencyUnit to, LocalDate date) {
@@ -1,20 +1,27 @@
 package com.philabid.service;
 
-import com.philabid.AppContext;
 import com.philabid.model.Auction;
 import com.philabid.model.Valuation;
+import com.philabid.util.FixedMoney;
 import com.philabid.util.MultiCurrencyMonetaryAmount;
-import org.javamoney.moneta.Money;
-import org.javamoney.moneta.function.MonetaryOperators;
-import org.javatuples.Pair;
 
+import javax.money.CurrencyUnit;
 import javax.money.MonetaryAmount;
-import java.math.RoundingMode;
-import java.util.List;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalDouble;
 
 public class PriceRecommendationService {
+    private final ConfigurationService configurationService;
+    private final ExchangeRateService exchangeRateService;
+
+    public PriceRecommendationService(ConfigurationService configurationService,
+                                      ExchangeRateService exchangeRateService) {
+        this.configurationService = configurationService;
+        this.exchangeRateService = exchangeRateService;
+    }
+
     public Optional<MultiCurrencyMonetaryAmount> calculateRecommendation(Auction auction) {
         return calculateMedianRecommendationFromTradingItem(auction)
                 .or(() -> calculateRecommendationFromCategory(auction))
@@ -27,66 +34,52 @@ public class PriceRecommendationService {
                 .map(r -> r.isGreaterThan(valuation.getCatalogValue()) ? valuation.getCatalogValue() : r);
     }
 
-    private Optional<MultiCurrencyMonetaryAmount> calculateRecommendationFromTradingItem(Auction auction) {
-        Optional<Pair<MonetaryAmount, MonetaryAmount>> catalogBoundary = getCatalogBoundary(auction);
-        return auction.getArchivedAuctions().stream()
-                .filter(a -> a.getCurrentPrice() != null)
-                .map(a -> AppContext.getExchangeRateService().exchange(a.getCurrentPrice().originalAmount(),
-                        AppContext.getConfigurationService().getDefaultCurrency(),
-                        a.getEndDate().toLocalDate()))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .filter(m -> catalogBoundary.map(cv -> m.isGreaterThan(cv.getValue0()) && m.isLessThan(cv.getValue1()))
-                        .orElse(true))
-                .map(m -> Pair.with(m, 1))
-                .reduce((a, b) -> Pair.with(a.getValue0().add(b.getValue0()), a.getValue1() + b.getValue1()))
-                .map(p -> p.getValue0().divide(p.getValue1()))
-                .map(amount -> amount.with(MonetaryOperators.rounding(RoundingMode.HALF_UP, 2)))
-                .map(MultiCurrencyMonetaryAmount::of);
+    private Optional<MultiCurrencyMonetaryAmount> calculateMedianRecommendationFromTradingItem(Auction auction) {
+        return median(auction.getArchivedAuctions().stream()
+                        .map(Auction::getCurrentPrice)
+                        .filter(Objects::nonNull)
+                        .map(MultiCurrencyMonetaryAmount::defaultCurrencyAmount)
+                        .toList(),
+                configurationService.getDefaultCurrency())
+                .map(FixedMoney::toMultiCurrencyAmount);
     }
 
-    private Optional<MultiCurrencyMonetaryAmount> calculateMedianRecommendationFromTradingItem(Auction auction) {
-        List<MonetaryAmount> entries = auction.getArchivedAuctions().stream()
-                .map(Auction::getCurrentPrice)
-                .filter(Objects::nonNull)
-                .map(MultiCurrencyMonetaryAmount::defaultCurrencyAmount)
+    /**
+     * Finds the median of the prices in the given currency. A price still in another currency, because no rate was
+     * found to convert it, is left out: it cannot be ordered against the others.
+     */
+    static Optional<FixedMoney> median(Collection<MonetaryAmount> prices, CurrencyUnit currency) {
+        long[] minorUnits = prices.stream()
+                .filter(p -> p.getCurrency().equals(currency))
+                .mapToLong(p -> FixedMoney.of(p).minorUnits())
                 .sorted()
-                .toList();
+                .toArray();
 
-        if (entries.isEmpty()) {
+        if (minorUnits.length == 0) {
             return Optional.empty();
         }
 
-        if (entries.size() % 2 != 0) {
-            return Optional.of(MultiCurrencyMonetaryAmount.of(entries.get(entries.size() / 2)));
-        } else {
-            MonetaryAmount p1 = entries.get(entries.size() / 2);
-            MonetaryAmount p2 = entries.get(entries.size() / 2 - 1);
-            return Optional.of(MultiCurrencyMonetaryAmount.of(
-                    p1.add(p2).divide(2).with(MonetaryOperators.rounding(RoundingMode.HALF_UP, 2))));
-        }
+        int middle = minorUnits.length / 2;
+        long median = minorUnits.length % 2 != 0 ? minorUnits[middle] :
+                FixedMoney.divideHalfUp(minorUnits[middle] + minorUnits[middle - 1], 2);
+        return Optional.of(FixedMoney.ofMinor(median, currency));
     }
 
     private Optional<MultiCurrencyMonetaryAmount> calculateRecommendationFromCategory(Auction auction) {
         if (auction.getCatalogValue() == null) {
             return Optional.empty();
         }
-        return auction.getCategoryArchivedAuctions().stream()
+        double maxPriceMultiplier = configurationService.getMaxPriceCatalogValueMultiplier();
+        OptionalDouble average = auction.getCategoryArchivedAuctions().stream()
                 .map(Auction::getArchivedCatalogValuePercentage)
-                .filter(d -> d != null && d > 0 &&
-                        d < AppContext.getConfigurationService().getMaxPriceCatalogValueMultiplier())
-                .map(p -> Pair.with(p, 1))
-                .reduce((a, b) -> Pair.with(a.getValue0() + b.getValue0(), a.getValue1() + b.getValue1()))
-                .map(p -> p.getValue0() / p.getValue1())
-                .map(p -> auction.getCatalogValue().originalAmount().multiply(p))
-                .map(amount -> amount.with(MonetaryOperators.rounding(RoundingMode.HALF_UP, 2)))
-                .map(MultiCurrencyMonetaryAmount::of);
-    }
-
-    private Optional<Pair<MonetaryAmount, MonetaryAmount>> getCatalogBoundary(Auction auction) {
-        return Optional.ofNullable(auction.getCatalogValue())
-                .map(MultiCurrencyMonetaryAmount::defaultCurrencyAmount)
-                .map(cv -> Pair.with(Money.of(0, AppContext.getConfigurationService().getDefaultCurrency()),
-                        cv.multiply(AppContext.getConfigurationService().getMaxPriceCatalogValueMultiplier())));
+                .filter(d -> d != null && d > 0 && d < maxPriceMultiplier)
+                .mapToDouble(Double::doubleValue)
+                .average();
+        if (average.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(MultiCurrencyMonetaryAmount.of(FixedMoney.of(auction.getCatalogValue().originalAmount())
+                        .multiply(average.getAsDouble()).toMonetaryAmount(), configurationService.getDefaultCurrency(),
+                exchangeRateService));
     }
 }
@@ -1,75 +1,72 @@
 package com.philabid.service;
 
 import com.philabid.AppContext;
-import com.philabid.database.ValuationEntryRepository;
+import com.philabid.database.RepositoryChangeEvent;
+import com.philabid.database.ValuationRepository;
+import com.philabid.database.ValuationStatsRepository;
 import com.philabid.database.util.EqualFilterCondition;
 import com.philabid.database.util.FilterCondition;
 import com.philabid.database.util.query.QueryOrder;
+import com.philabid.model.TradingItem;
 import com.philabid.model.Valuation;
-import com.philabid.model.ValuationEntry;
 import com.philabid.util.MultiCurrencyMonetaryAmount;
-import org.javamoney.moneta.Money;
 import org.javamoney.moneta.function.MonetaryOperators;
 import org.javatuples.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.money.MonetaryAmount;
+import javax.money.CurrencyUnit;
+import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 public class ValuationService extends VirtualCrudService<Valuation> {
 
     private static final Logger logger = LoggerFactory.getLogger(ValuationService.class);
 
-    private final ValuationEntryRepository valuationEntryRepository;
+    private final ValuationRepository valuationRepository;
+    private final ValuationStatsRepository valuationStatsRepository;
+    private final CategoryAveragePercentages categoryAveragePercentages;
+    private final Clock clock;
+    // Trading items whose statistics were changed by a write since the last refresh.
+    private final Set<Long> changedTradingItemIds = ConcurrentHashMap.newKeySet();
+    // What the statistics were last refreshed for, null until the first refresh succeeds.
+    private StatisticsParameters refreshedParameters;
+
+    public ValuationService(ValuationRepository valuationRepository,
+                            ValuationStatsRepository valuationStatsRepository) {
+        this(valuationRepository, valuationStatsRepository, Clock.systemDefaultZone());
+    }
 
-    public ValuationService(ValuationEntryRepository valuationEntryRepository) {
-        this.valuationEntryRepository = valuationEntryRepository;
+    /**
+     * @param clock Tells what day it is; it should be the clock of the {@link ExchangeRateService}, so that both agree
+     *              on which day's rates are current.
+     */
+    public ValuationService(ValuationRepository valuationRepository,
+                            ValuationStatsRepository valuationStatsRepository, Clock clock) {
+        this.valuationRepository = valuationRepository;
+        this.valuationStatsRepository = valuationStatsRepository;
+        this.categoryAveragePercentages = new CategoryAveragePercentages(valuationStatsRepository);
+        this.clock = clock;
     }
 
+    /**
+     * Reads valuations from the {@code valuation_stats} table, first recomputing the rows that went stale.
+     * Only the category averages, kept in memory, and the recommendation are applied on every call.
+     */
     public Collection<Valuation> getAll(Collection<FilterCondition> filterConditions, Collection<QueryOrder> orders) {
-        Map<Pair<Long, Long>, Valuation> entries = new HashMap<>();
-        Map<Pair<Long, Long>, List<Double>> categoryAveragePercentageEntries = new HashMap<>();
-
-        valuationEntryRepository.findAll(filterConditions, orders, valuationEntry -> {
-            entries.computeIfAbsent(Pair.with(valuationEntry.getTradingItemId(), valuationEntry.getConditionId()),
-                    k -> {
-                        Valuation valuation = new Valuation();
-                        valuation.setTradingItemId(valuationEntry.getTradingItemId());
-                        valuation.setTradingItemCatalogNumber(valuationEntry.getTradingItemCatalogNumber());
-                        valuation.setTradingItemOrderNumber(valuationEntry.getTradingItemOrderNumber());
-                        valuation.setTradingItemCategoryName(valuationEntry.getTradingItemCategoryName());
-                        valuation.setTradingItemCategoryCode(valuationEntry.getTradingItemCategoryCode());
-                        valuation.setTradingItemCategoryOrderNumber(valuationEntry.getTradingItemCategoryOrderNumber());
-                        valuation.setTradingItemCategoryId(valuationEntry.getTradingItemCategoryId());
-                        valuation.setConditionId(valuationEntry.getConditionId());
-                        valuation.setConditionName(valuationEntry.getConditionName());
-                        valuation.setConditionCode(valuationEntry.getConditionCode());
-                        valuation.setCatalogValue(valuationEntry.getCatalogValue());
-                        valuation.setCatalogActive(valuationEntry.isCatalogActive());
-                        return valuation;
-                    }).addValuationEntry(valuationEntry);
-        });
-
-        valuationEntryRepository.findAll(List.of(), orders, valuationEntry -> {
-            categoryAveragePercentageEntries.computeIfAbsent(
-                    Pair.with(valuationEntry.getTradingItemCategoryId(), valuationEntry.getConditionId()),
-                    k -> new ArrayList<>()).add(valuationEntry.getArchivedCatalogValuePercentage());
-        });
-
-        Map<Pair<Long, Long>, Double> categoryAveragePercentages = new HashMap<>();
-
-        categoryAveragePercentageEntries.forEach((k, v) -> {
-            v.stream()
-                    .filter(Objects::nonNull)
-                    .filter(p -> p > 0 && p < AppContext.getConfigurationService().getMaxPriceCatalogValueMultiplier())
-                    .map(p -> Pair.with(p, 1))
-                    .reduce((a, b) -> Pair.with(a.getValue0() + b.getValue0(), a.getValue1() + b.getValue1()))
-                    .ifPresent(p -> categoryAveragePercentages.put(k, p.getValue0() / p.getValue1()));
-        });
-
-        return entries.values().stream().peek(v -> calculateStatistics(v, categoryAveragePercentages)).toList();
+        double maxPriceMultiplier = AppContext.getConfigurationService().getMaxPriceCatalogValueMultiplier();
+        refreshStatistics(maxPriceMultiplier);
+        categoryAveragePercentages.refresh(maxPriceMultiplier);
+
+        Collection<Valuation> valuations = valuationRepository.findAll(filterConditions, orders);
+        valuations.forEach(this::calculateCategoryStatistics);
+        return valuations;
     }
 
     public Optional<Valuation> getForItem(Long tradingItemId, Long conditionId) {
@@ -80,47 +77,82 @@ public class ValuationService extends VirtualCrudService<Valuation> {
         return valuations.stream().findFirst();
     }
 
-    private void calculateStatistics(Valuation valuation, Map<Pair<Long, Long>, Double> categoryAveragePercentages) {
-        Optional<Pair<MonetaryAmount, MonetaryAmount>> catalogBoundary = getCatalogBoundary(valuation);
-
-        valuation.getValuationEntries().stream()
-                .map(ValuationEntry::getPrice)
-                .filter(Objects::nonNull)
-                .map(MultiCurrencyMonetaryAmount::defaultCurrencyAmount)
-                .filter(m -> catalogBoundary.map(cv -> m.isGreaterThan(cv.getValue0()) && m.isLessThan(cv.getValue1()))
-                        .orElse(true))
-                .map(p -> new StatsReductor(p, p, p, 1))
-                .reduce((a, b) -> new StatsReductor(a.sum.add(b.sum), a.min.isLessThan(b.min) ? a.min : b.min,
-                        a.max.isGreaterThan(b.max) ? a.max : b.max, a.count() + 1))
-                .ifPresent(stats -> {
-                    valuation.setAveragePrice(MultiCurrencyMonetaryAmount.of(
-                            stats.sum.divide(stats.count).with(MonetaryOperators.rounding(RoundingMode.HALF_UP, 2))));
-                    valuation.setMinPrice(MultiCurrencyMonetaryAmount.of(stats.min));
-                    valuation.setMaxPrice(MultiCurrencyMonetaryAmount.of(stats.max));
-                    valuation.setAuctionCount(stats.count);
-                });
-
-        List<MonetaryAmount> entries = valuation.getValuationEntries().stream()
-                .map(ValuationEntry::getPrice)
-                .filter(Objects::nonNull)
-                .map(MultiCurrencyMonetaryAmount::defaultCurrencyAmount)
-                .sorted()
-                .toList();
-
-        if (!entries.isEmpty()) {
-            if (entries.size() % 2 != 0) {
-                valuation.setMedianPrice(MultiCurrencyMonetaryAmount.of(entries.get(entries.size() / 2)));
-            } else {
-                MonetaryAmount p1 = entries.get(entries.size() / 2);
-                MonetaryAmount p2 = entries.get(entries.size() / 2 - 1);
-                valuation.setMedianPrice(MultiCurrencyMonetaryAmount.of(
-                        p1.add(p2).divide(2).with(MonetaryOperators.rounding(RoundingMode.HALF_UP, 2))));
+    /**
+     * Notes the trading items whose statistics a write may have made stale, so that the next read recomputes only
+     * those instead of looking for stale rows in the whole table. Registered as a change listener for auctions,
+     * catalog values and trading items. Also keeps the log of category ratio changes short.
+     */
+    public void onRepositoryChange(RepositoryChangeEvent<?> event) {
+        categoryAveragePercentages.prune();
+        if (event.entityClass() == TradingItem.class) {
+            changedTradingItemIds.add(event.id());
+            return;
+        }
+        Stream.of(event.keysBefore(), event.keysAfter())
+                .map(keys -> keys.get("trading_item_id"))
+                .filter(Long.class::isInstance)
+                .map(Long.class::cast)
+                .forEach(changedTradingItemIds::add);
+    }
+
+    /**
+     * Removes the category ratio changes logged before startup, which no one is going to apply.
+     */
+    public void pruneCategoryPercentageChanges() {
+        categoryAveragePercentages.prune();
+    }
+
+    // Views load in the background, so two of them may ask for the statistics at once.
+    private synchronized void refreshStatistics(double maxPriceMultiplier) {
+        LocalDate today = LocalDate.now(clock);
+        CurrencyUnit currency = AppContext.getConfigurationService().getDefaultCurrency();
+        StatisticsParameters parameters = new StatisticsParameters(today, currency, maxPriceMultiplier);
+        List<Long> changedItemIds = new ArrayList<>(changedTradingItemIds);
+        changedTradingItemIds.removeAll(changedItemIds);
+        // Another day, currency or boundary can make any row stale; otherwise only written ones can be.
+        boolean fullScan = !parameters.equals(refreshedParameters);
+        if (!fullScan && changedItemIds.isEmpty()) {
+            return;
+        }
+        try {
+            valuationStatsRepository.deleteOrphans();
+            List<Long> staleItemIds = fullScan
+                    ? valuationStatsRepository.findStaleKeys(today, currency, maxPriceMultiplier)
+                    .stream()
+                    .map(Pair::getValue0)
+                    .distinct()
+                    .toList()
+                    : changedItemIds;
+            refreshedParameters = parameters;
+            if (staleItemIds.isEmpty()) {
+                return;
             }
+
+            Set<CurrencyUnit> currencies = valuationStatsRepository.findCurrencies(staleItemIds);
+            AppContext.getExchangeRateService().backfill(currencies.stream()
+                    .map(from -> new ExchangeRateRequest(today, from, currency))
+                    .toList());
+            Map<CurrencyUnit, BigDecimal> rates = new HashMap<>();
+            for (CurrencyUnit from : currencies) {
+                if (!from.equals(currency)) {
+                    AppContext.getExchangeRateService().getExchangeRate(today, from, currency)
+                            .ifPresent(rate -> rates.put(from, rate.getFactor().numberValue(BigDecimal.class)));
+                }
+            }
+
+            List<Valuation> valuations =
+                    valuationStatsRepository.computeStats(staleItemIds, rates, currency, maxPriceMultiplier);
+            valuationStatsRepository.saveStats(valuations, today, currency, maxPriceMultiplier);
+            logger.info("Recomputed valuation statistics for {} items", valuations.size());
+        } catch (SQLException e) {
+            logger.error("Failed to refresh valuation statistics", e);
+            refreshedParameters = null;
         }
+    }
 
+    private void calculateCategoryStatistics(Valuation valuation) {
         if (valuation.getCatalogValue() != null) {
-            Optional.ofNullable(categoryAveragePercentages.get(
-                            Pair.with(valuation.getTradingItemCategoryId(), valuation.getConditionId())))
+            categoryAveragePercentages.get(valuation.getTradingItemCategoryId(), valuation.getConditionId())
                     .ifPresent(d -> {
                         valuation.setCategoryAveragePrice(MultiCurrencyMonetaryAmount.of(
                                 valuation.getCatalogValue().defaultCurrencyAmount().multiply(d)
@@ -132,18 +164,12 @@ public class ValuationService extends VirtualCrudService<Valuation> {
                 .ifPresent(valuation::setRecommendedPrice);
     }
 
-    private Optional<Pair<MonetaryAmount, MonetaryAmount>> getCatalogBoundary(Valuation valuation) {
-        return Optional.ofNullable(valuation.getCatalogValue())
-                .map(MultiCurrencyMonetaryAmount::defaultCurrencyAmount)
-                .map(cv -> Pair.with(Money.of(0, AppContext.getConfigurationService().getDefaultCurrency()),
-                        cv.multiply(AppContext.getConfigurationService().getMaxPriceCatalogValueMultiplier())));
-    }
-
     @Override
     public Optional<Valuation> getById(Long id) {
         return Optional.empty();
     }
 
-    private record StatsReductor(MonetaryAmount sum, MonetaryAmount min, MonetaryAmount max, Integer count) {
+    private record StatisticsParameters(LocalDate today, CurrencyUnit currency, double maxPriceMultiplier) {
     }
+
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.philabid.service;
+
+import com.philabid.database.DatabaseManager;
+
+import java.lang.ref.SoftReference;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps what a view has shown while it is not visible, so that switching back to it does not load it again unless
+ * the data changed in between. Results are stamped with the {@link DatabaseManager#getDataGeneration() data
+ * generation} read before loading them, and are held through soft references, so they are dropped when memory runs
+ * low. Their keys include the day they were loaded on, because amounts are converted at that day's rates.
+ */
+public class ViewResultCache {
+
+    private final DatabaseManager databaseManager;
+    private final Clock clock;
+    private final Map<Object, SoftReference<Entry>> entries = new HashMap<>();
+
+    public ViewResultCache(DatabaseManager databaseManager) {
+        this(databaseManager, Clock.systemDefaultZone());
+    }
+
+    public ViewResultCache(DatabaseManager databaseManager, Clock clock) {
+        this.databaseManager = databaseManager;
+        this.clock = clock;
+    }
+
+    /**
+     * The key to keep a result under, read before the result is loaded: what else the result depends on, typically
+     * the view's filter conditions, followed by the current day.
+     */
+    public List<?> getKey(List<?> dependencies) {
+        List<Object> key = new ArrayList<>(dependencies);
+        key.add(LocalDate.now(clock));
+        return key;
+    }
+
+    /**
+     * The data generation to stamp a result with, read before the result is loaded.
+     */
+    public long getDataGeneration() {
+        return databaseManager.getDataGeneration();
+    }
+
+    /**
+     * Keeps the result of a view, replacing the one it kept before.
+     *
+     * @param view           The view the result was loaded for.
+     * @param key            The {@link #getKey key} read before the result was loaded.
+     * @param dataGeneration The data generation read before the result was loaded.
+     * @param result         The result.
+     */
+    public synchronized void put(Object view, List<?> key, long dataGeneration, Object result) {
+        entries.put(view, new SoftReference<>(new Entry(List.copyOf(key), dataGeneration, result)));
+    }
+
+    /**
+     * Removes the result kept for the view and returns it if it was loaded for the same key and no data changed since.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <R> Optional<R> take(Object view, List<?> key) {
+        SoftReference<Entry> reference = entries.remove(view);
+        Entry entry = reference != null ? reference.get() : null;
+        if (entry == null || entry.dataGeneration() != getDataGeneration() || !entry.key().equals(key)) {
+            return Optional.empty();
+        }
+        return Optional.of((R) entry.result());
+    }
+
+    private record Entry(List<?> key, long dataGeneration, Object result) {
+    }
+}
@@ -3,6 +3,8 @@ package com.philabid.service;
 import com.philabid.model.BaseModel;
 
 import javax.naming.OperationNotSupportedException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public abstract class VirtualCrudService<T extends BaseModel<T>> extends CrudService<T> {
@@ -14,6 +16,10 @@ public abstract class VirtualCrudService<T extends BaseModel<T>> extends CrudSer
         throw new RuntimeException(new OperationNotSupportedException());
     }
 
+    public final Optional<List<T>> saveAll(Collection<T> entities) {
+        throw new RuntimeException(new OperationNotSupportedException());
+    }
+
     protected boolean validate(T entity) {
         throw new RuntimeException(new OperationNotSupportedException());
     }
@@ -21,4 +27,8 @@ public abstract class VirtualCrudService<T extends BaseModel<T>> extends CrudSer
     public final boolean delete(Long id) {
         throw new RuntimeException(new OperationNotSupportedException());
     }
+
+    public final boolean deleteAll(Collection<Long> ids) {
+        throw new RuntimeException(new OperationNotSupportedException());
+    }
 }
\ No newline at end of file
@@ -9,6 +9,8 @@ import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.TableColumn;
@@ -21,7 +23,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static com.philabid.ui.CatalogValueEditDialogController.addOrUpdateCatalogValue;
 import static com.philabid.ui.util.TableViewHelpers.*;
@@ -60,9 +63,7 @@ public class ActiveAuctionController extends BaseAuctionController {
 
         setCatalogNumberWithWarningColumn(catalogNumberColumn, Auction::getTradingItemCatalogNumber,
                 Auction::getTradingItemOrderNumber, Auction::getTradingItemCategoryOrderNumber,
-                t -> t.getActiveAuctions().stream()
-                        .anyMatch(activeAuction -> !Objects.equals(t.getId(), activeAuction.getId()) &&
-                                activeAuction.isWinningBid()), Auction::isAlreadyPurchased);
+                Auction::isOtherActiveAuctionWinning, Auction::isAlreadyPurchased);
 
         setLabelsColumn(statusColumn, "auctionStatuses", 5);
 
@@ -105,8 +106,11 @@ public class ActiveAuctionController extends BaseAuctionController {
         showAuctionsForThisItemItem.setOnAction(
                 event -> filterToItem(getTableView().getSelectionModel().getSelectedItem()));
 
+        MenuItem archiveFinishedItem = new MenuItem("Archive finished auctions...");
+        archiveFinishedItem.setOnAction(event -> handleArchiveFinished());
+
         return List.of(showHistoricalAuctions, archiveItem, addCatalogValueItem, updateCatalogValueItem,
-                showAuctionsForThisItemItem);
+                showAuctionsForThisItemItem, archiveFinishedItem);
     }
 
     @Override
@@ -170,10 +174,10 @@ public class ActiveAuctionController extends BaseAuctionController {
                 final int selectedIndex = getTableView().getSelectionModel().getSelectedIndex();
                 final boolean archived = selectedAuction.isArchived();
 
-                refreshTable();
+                CompletableFuture<Void> reloaded = reloadRows(selectedAuction);
 
                 if (editDialogResult.editNext()) {
-                    Platform.runLater(() -> {
+                    reloaded.thenRun(() -> {
                         int nextIndex = selectedIndex;
                         if (!archived) {
                             nextIndex++;
@@ -191,6 +195,27 @@ public class ActiveAuctionController extends BaseAuctionController {
         }
     }
 
+    private void handleArchiveFinished() {
+        List<Auction> finishedAuctions = tableItems.stream().filter(Auction::isFinished).toList();
+        if (finishedAuctions.isEmpty()) {
+            return;
+        }
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Confirm Archiving");
+        alert.setHeaderText("Archive");
+        alert.setContentText("Are you sure you want to archive " + finishedAuctions.size() + " finished auctions?");
+
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            finishedAuctions.forEach(Auction::archive);
+            if (AppContext.getAuctionService().saveAll(finishedAuctions).isEmpty()) {
+                logger.error("Failed to archive {} finished auctions.", finishedAuctions.size());
+            }
+            refreshTable();
+        }
+    }
+
     @Override
     protected void handleDoubleClick() {
         handleEditState(getTableView().getSelectionModel().getSelectedItem());
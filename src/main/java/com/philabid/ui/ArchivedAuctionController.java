@@ -2,29 +2,153 @@ package com.philabid.ui;
 
 import com.philabid.AppContext;
 import com.philabid.database.util.FilterCondition;
+import com.philabid.database.util.query.PageKey;
+import com.philabid.database.util.query.QueryOrder;
 import com.philabid.model.Auction;
 import javafx.application.Platform;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
 import javafx.scene.control.TableColumn;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static com.philabid.ui.ValuationDialogController.showValuationDialog;
 
 public class ArchivedAuctionController extends BaseAuctionController {
+    private static final int PAGE_SIZE = 500;
+    // Load the next page once the user scrolls past this fraction of the loaded rows.
+    private static final double NEXT_PAGE_SCROLL_THRESHOLD = 0.9;
+
+    // The query ordering of each column, ascending. Money columns are ordered by the amount in the auction's own
+    // currency, since rates to compare amounts in different currencies are not known to the query.
+    private final Map<TableColumn<Auction, ?>, List<QueryOrder>> columnOrders = new HashMap<>();
+
+    // Kept when the view is left, like the loaded rows, and only replaced by a reload.
+    private Collection<FilterCondition> pageFilterConditions = List.of();
+    private List<QueryOrder> pageOrders = List.of();
+    private PageKey nextPageKey;
+    // The ordering of the last reload, shown or not, so that the sort run after rows are shown does not reload again.
+    private List<QueryOrder> requestedOrders;
 
     @Override
     protected void initializeView() {
         super.initializeView();
-        Platform.runLater(() -> {
-            endDateColumn.setSortType(TableColumn.SortType.DESCENDING);
-            getTableView().getSortOrder().setAll(List.of(endDateColumn));
+        columnOrders.put(auctionHouseColumn, List.of(ascending("ah", "name", false)));
+        columnOrders.put(sellerColumn, List.of(ascending("s", "name", true)));
+        columnOrders.put(categoryColumn, List.of(ascending("catg", "code", false)));
+        columnOrders.put(catalogNumberColumn,
+                List.of(ascending("catg", "order_number", false), ascending("ti", "order_number", false)));
+        columnOrders.put(conditionColumn, List.of(ascending("cond", "code", false)));
+        columnOrders.put(maxBidColumn, List.of(ascending("a", "max_bid", true)));
+        columnOrders.put(currentPriceColumn, List.of(ascending("a", "current_price", true)));
+        columnOrders.put(catalogValueColumn, List.of(ascending("cv", "value", true)));
+        columnOrders.put(endDateColumn, List.of(ascending("a", "end_date", false)));
+
+        endDateColumn.setSortType(TableColumn.SortType.DESCENDING);
+        getTableView().getSortOrder().setAll(List.of(endDateColumn));
+        // Pages are read in the table's sort order and appended as they are; sorting the loaded rows instead would
+        // interleave them with rows of pages not loaded yet, so a new sort order reloads from the first page.
+        getTableView().setSortPolicy(tableView -> {
+            if (!getQueryOrders().equals(requestedOrders)) {
+                reloadTable();
+            }
+            return true;
         });
+        getTableView().skinProperty().addListener(
+                (observable, oldValue, newValue) -> Platform.runLater(this::installPagingListener));
+    }
+
+    private static QueryOrder ascending(String table, String field, boolean nullable) {
+        return new QueryOrder(table, field, QueryOrder.Direction.ASC, nullable);
+    }
+
+    private List<QueryOrder> getQueryOrders() {
+        List<QueryOrder> orders = new ArrayList<>();
+        for (TableColumn<Auction, ?> column : getTableView().getSortOrder()) {
+            QueryOrder.Direction direction = column.getSortType() == TableColumn.SortType.ASCENDING ?
+                    QueryOrder.Direction.ASC : QueryOrder.Direction.DESC;
+            columnOrders.getOrDefault(column, List.of())
+                    .forEach(order -> orders.add(order.withDirection(direction)));
+        }
+        return List.copyOf(orders);
+    }
+
+    private void installPagingListener() {
+        for (Node node : getTableView().lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= scrollBar.getMax() * NEXT_PAGE_SCROLL_THRESHOLD) {
+                        loadNextPage();
+                    }
+                });
+            }
+        }
     }
 
     @Override
     public Collection<Auction> loadAuctions(Collection<FilterCondition> filterConditions) {
-        return AppContext.getAuctionService().getArchivedAuctions(filterConditions);
+        return AppContext.getAuctionService().getArchivedAuctionsPage(filterConditions, null, PAGE_SIZE, pageOrders)
+                .items();
+    }
+
+    @Override
+    protected List<?> getResultKey(List<FilterCondition> filterConditions) {
+        return AppContext.getViewResultCache().getKey(List.of(filterConditions, getQueryOrders()));
+    }
+
+    @Override
+    protected CompletableFuture<Void> reloadTable() {
+        List<FilterCondition> filterConditions = List.copyOf(getCrudTableView().getFilterConditions());
+        List<QueryOrder> orders = getQueryOrders();
+        requestedOrders = orders;
+        List<?> key = getResultKey(filterConditions);
+        long dataGeneration = AppContext.getViewResultCache().getDataGeneration();
+        // The paging state is only replaced together with the rows, so that a discarded load leaves it alone.
+        return loadInBackground(
+                () -> AppContext.getAuctionService().getArchivedAuctionsPage(filterConditions, null, PAGE_SIZE, orders),
+                page -> {
+                    boolean reordered = !orders.equals(pageOrders);
+                    pageFilterConditions = filterConditions;
+                    pageOrders = orders;
+                    nextPageKey = page.nextKey();
+                    setTableItems(page.items());
+                    setLoaded(key, dataGeneration);
+                    if (reordered) {
+                        getTableView().scrollTo(0);
+                    }
+                });
+    }
+
+    private void loadNextPage() {
+        // A page extends the rows of the load before it, so it waits for that one to be shown.
+        if (nextPageKey == null || isLoading()) {
+            return;
+        }
+        Collection<FilterCondition> filterConditions = pageFilterConditions;
+        List<QueryOrder> orders = pageOrders;
+        PageKey afterKey = nextPageKey;
+        loadInBackground(
+                () -> AppContext.getAuctionService().getArchivedAuctionsPage(filterConditions, afterKey, PAGE_SIZE,
+                        orders),
+                page -> {
+                    nextPageKey = page.nextKey();
+                    tableItems.addAll(page.items());
+                });
+    }
+
+    /**
+     * Rows are only loaded page by page here, so a reloaded group could bring in rows of pages not loaded yet.
+     */
+    @Override
+    protected Optional<Collection<FilterCondition>> getRowGroupConditions(Auction auction) {
+        return Optional.empty();
     }
 
     @Override
@@ -147,9 +147,8 @@ public class AuctionStateDialogController {
         }
 
         if (auction.isFinished() && archiveIfFinishedCheckBox.isSelected()) {
-            auction.setArchived(true);
-            if (!initiallyArchived && auction.getCatalogValue() != null) {
-                setArchivedValues();
+            if (!initiallyArchived) {
+                auction.archive();
             }
         }
         lastArchiveIfFinished = archiveIfFinishedCheckBox.isSelected();
@@ -157,16 +156,6 @@ public class AuctionStateDialogController {
         return true;
     }
 
-    private void setArchivedValues() {
-        auction.setArchivedCatalogValue(auction.getCatalogValue());
-
-        if (auction.getCatalogValue() != null && auction.getCurrentPrice() != null) {
-            Double catalogValue = auction.getCatalogValue().defaultCurrencyAmount().getNumber().doubleValue();
-            Double currentPrice = auction.getCurrentPrice().defaultCurrencyAmount().getNumber().doubleValue();
-            auction.setArchivedCatalogValuePercentage(currentPrice / catalogValue);
-        }
-    }
-
     @FXML
     private void handleCancel() {
         dialogStage.close();
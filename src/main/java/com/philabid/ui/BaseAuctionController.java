@@ -1,7 +1,9 @@
 package com.philabid.ui;
 
 import com.philabid.AppContext;
+import com.philabid.database.util.EqualFilterCondition;
 import com.philabid.database.util.FilterCondition;
+import com.philabid.database.util.FullTextIndex;
 import com.philabid.model.Auction;
 import com.philabid.ui.cell.CatalogNumberColumnValue;
 import com.philabid.ui.cell.ThresholdMultiCurrencyMonetaryAmountCell;
@@ -10,12 +12,14 @@ import com.philabid.util.MultiCurrencyMonetaryAmount;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.cell.PropertyValueFactory;
+import org.javatuples.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import static com.philabid.ui.util.TableViewHelpers.*;
 
@@ -47,6 +51,7 @@ public abstract class BaseAuctionController extends FilteredCrudTableViewControl
 
     public BaseAuctionController() {
         super(AppContext.getAuctionService());
+        getMultiFilter().setSearchIndex(FullTextIndex.AUCTIONS, "a.id");
     }
 
     @Override
@@ -95,8 +100,22 @@ public abstract class BaseAuctionController extends FilteredCrudTableViewControl
 
     public abstract Collection<Auction> loadAuctions(Collection<FilterCondition> filterConditions);
 
-    protected Collection<Auction> loadTableItems() {
-        return loadAuctions(getCrudTableView().getFilterConditions());
+    protected Collection<Auction> loadTableItems(Collection<FilterCondition> filterConditions) {
+        return loadAuctions(filterConditions);
+    }
+
+    /**
+     * The recommendation of an auction depends on the other auctions of the same item and condition.
+     */
+    @Override
+    protected Object getRowGroup(Auction auction) {
+        return Pair.with(auction.getTradingItemId(), auction.getConditionId());
+    }
+
+    @Override
+    protected Optional<Collection<FilterCondition>> getRowGroupConditions(Auction auction) {
+        return Optional.of(List.of(new EqualFilterCondition<>("a.trading_item_id", auction.getTradingItemId()),
+                new EqualFilterCondition<>("a.condition_id", auction.getConditionId())));
     }
 
     @Override
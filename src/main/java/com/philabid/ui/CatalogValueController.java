@@ -1,6 +1,7 @@
 package com.philabid.ui;
 
 import com.philabid.AppContext;
+import com.philabid.database.util.FullTextIndex;
 import com.philabid.model.CatalogValue;
 import com.philabid.ui.cell.CatalogNumberColumnValue;
 import com.philabid.util.MultiCurrencyMonetaryAmount;
@@ -30,6 +31,7 @@ public class CatalogValueController extends FilteredCrudTableViewController<Cata
 
     public CatalogValueController() {
         super(AppContext.getCatalogValueService());
+        getMultiFilter().setSearchIndex(FullTextIndex.TRADING_ITEMS, "cv.trading_item_id");
     }
 
     @Override
@@ -1,8 +1,10 @@
 package com.philabid.ui;
 
 import com.philabid.AppContext;
+import com.philabid.database.util.FilterCondition;
 import com.philabid.model.BaseModel;
 import com.philabid.service.CrudService;
+import com.philabid.service.ViewResultCache;
 import com.philabid.ui.control.CrudEditDialog;
 import com.philabid.ui.control.CrudTableView;
 import com.philabid.util.TriConsumer;
@@ -19,10 +21,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public abstract class CrudTableViewController<T extends BaseModel<T>> extends TableViewController {
     private static final Logger logger = LoggerFactory.getLogger(CrudTableViewController.class);
@@ -30,6 +33,12 @@ public abstract class CrudTableViewController<T extends BaseModel<T>> extends Ta
     protected final ObservableList<T> tableItems = FXCollections.observableArrayList();
     private final List<TriConsumer<TableRow<T>, T, Boolean>> rowFormatters = new ArrayList<>();
     private final CrudService<T> crudService;
+    private long refreshGeneration;
+    private CompletableFuture<?> pendingLoad = CompletableFuture.completedFuture(null);
+    private CompletableFuture<Void> pendingShow = CompletableFuture.completedFuture(null);
+    // The cache key and data generation the shown rows were loaded with, null if no rows were loaded.
+    private List<?> loadedKey;
+    private long loadedDataGeneration;
 
     @FXML
     private CrudTableView<T> crudTableView;
@@ -52,15 +61,178 @@ public abstract class CrudTableViewController<T extends BaseModel<T>> extends Ta
     protected void postInitialize() {
     }
 
+    /**
+     * Shows the rows kept when the view was left if nothing they depend on changed since, or reloads the table.
+     */
     @Override
     protected void refreshTable() {
+        List<?> key = getResultKey(List.copyOf(crudTableView.getFilterConditions()));
+        Optional<Collection<T>> cached = AppContext.getViewResultCache().take(this, key);
+        if (cached.isEmpty()) {
+            reloadTable();
+            return;
+        }
+        logger.info("Showing cached table view");
+        discardPendingLoad();
+        setTableItems(cached.get());
+        setLoaded(key, AppContext.getViewResultCache().getDataGeneration());
+    }
+
+    /**
+     * Loads the table items in the background and shows them once they are loaded.
+     *
+     * @return A future completed on the JavaFX application thread after the items are shown. It never completes if a
+     * newer refresh replaces this one first.
+     */
+    protected CompletableFuture<Void> reloadTable() {
         logger.info("Refreshing table view");
-        tableItems.setAll(loadTableItems());
+        List<FilterCondition> filterConditions = List.copyOf(crudTableView.getFilterConditions());
+        List<?> key = getResultKey(filterConditions);
+        long dataGeneration = AppContext.getViewResultCache().getDataGeneration();
+        return loadInBackground(() -> loadTableItems(filterConditions), items -> {
+            setTableItems(items);
+            setLoaded(key, dataGeneration);
+        });
+    }
+
+    /**
+     * The key the rows loaded for the given filter conditions are kept under when the view is left, see
+     * {@link ViewResultCache#getKey}. Views whose rows depend on more than the filters add it here.
+     */
+    protected List<?> getResultKey(List<FilterCondition> filterConditions) {
+        return AppContext.getViewResultCache().getKey(filterConditions);
+    }
+
+    /**
+     * Records what the rows shown after a full reload were loaded with, so that they can be kept when the view is
+     * left. Rows patched later still carry the older data generation and are not reused.
+     */
+    protected void setLoaded(List<?> key, long dataGeneration) {
+        loadedKey = key;
+        loadedDataGeneration = dataGeneration;
+    }
+
+    /**
+     * Runs {@code loader} in the background and passes its result to {@code consumer} on the JavaFX application
+     * thread. Each call starts a new generation; the result of an older one still loading is discarded.
+     */
+    protected <R> CompletableFuture<Void> loadInBackground(Supplier<R> loader, Consumer<R> consumer) {
+        long generation = ++refreshGeneration;
+        pendingLoad.cancel(false);
+
+        CompletableFuture<Void> shown = new CompletableFuture<>();
+        CompletableFuture<R> load = AppContext.getBackgroundTaskService().submit(getClass().getSimpleName(), loader);
+        load.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (generation != refreshGeneration) {
+                return;
+            }
+            if (error != null) {
+                logger.error("Failed to load table items", error);
+                shown.completeExceptionally(error);
+                return;
+            }
+            consumer.accept(result);
+            shown.complete(null);
+        }));
+        pendingLoad = load;
+        pendingShow = shown;
+        return shown;
+    }
+
+    protected void setTableItems(Collection<T> items) {
+        tableItems.setAll(items);
         crudTableView.sort();
     }
 
+    /**
+     * Reloads only the rows of the entity's group after it was saved, see {@link #getRowGroup}. The whole table is
+     * reloaded if the view cannot select a group, or if another load is still to be shown, since this one would
+     * replace it.
+     */
+    protected CompletableFuture<Void> reloadRows(T entity) {
+        Optional<Collection<FilterCondition>> groupConditions = getRowGroupConditions(entity);
+        if (groupConditions.isEmpty() || isLoading()) {
+            return reloadTable();
+        }
+        logger.info("Refreshing rows of {}", entity.getDisplayName());
+        List<FilterCondition> filterConditions = new ArrayList<>(crudTableView.getFilterConditions());
+        filterConditions.addAll(groupConditions.get());
+        Long id = entity.getId();
+        Object group = getRowGroup(entity);
+        return loadInBackground(() -> loadTableItems(filterConditions),
+                rows -> patchTableItems(rows, row -> row.getId().equals(id) || group.equals(getRowGroup(row))));
+    }
+
+    /**
+     * Replaces the rows matching {@code reloaded} with the loaded ones, removing those that were not loaded again and
+     * adding the new ones, then sorts the table and keeps the selected row selected.
+     */
+    private void patchTableItems(Collection<T> rows, Predicate<T> reloaded) {
+        T selected = getTableView().getSelectionModel().getSelectedItem();
+        Map<Long, T> loadedRows = new LinkedHashMap<>();
+        rows.forEach(row -> loadedRows.put(row.getId(), row));
+        for (ListIterator<T> iterator = tableItems.listIterator(); iterator.hasNext(); ) {
+            T row = iterator.next();
+            if (reloaded.test(row)) {
+                T loadedRow = loadedRows.remove(row.getId());
+                if (loadedRow != null) {
+                    iterator.set(loadedRow);
+                } else {
+                    iterator.remove();
+                }
+            }
+        }
+        tableItems.addAll(loadedRows.values());
+        crudTableView.sort();
+
+        if (selected != null) {
+            tableItems.stream()
+                    .filter(row -> row.getId().equals(selected.getId()))
+                    .findFirst()
+                    .ifPresent(row -> getTableView().getSelectionModel().select(row));
+        }
+    }
+
+    /**
+     * The group of rows whose shown values depend on each other. Saving an entity reloads the rows of its group only.
+     * By default every row is a group of its own.
+     */
+    protected Object getRowGroup(T entity) {
+        return entity.getId();
+    }
+
+    /**
+     * Filter conditions selecting the rows of the entity's group, or empty to reload the whole table after a save.
+     */
+    protected Optional<Collection<FilterCondition>> getRowGroupConditions(T entity) {
+        return Optional.empty();
+    }
+
+    /**
+     * Makes sure the result of a load still running is not shown, e.g. because it was loaded for filters that have
+     * changed since.
+     */
+    protected void discardPendingLoad() {
+        refreshGeneration++;
+        pendingLoad.cancel(false);
+        pendingShow = CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Whether a load started by {@link #loadInBackground} has yet to be shown.
+     */
+    protected boolean isLoading() {
+        return !pendingShow.isDone();
+    }
+
     @Override
     public void unload() {
+        // A load still running would otherwise fill the table after it was left.
+        discardPendingLoad();
+        if (loadedKey != null) {
+            AppContext.getViewResultCache().put(this, loadedKey, loadedDataGeneration, List.copyOf(tableItems));
+            loadedKey = null;
+        }
         tableItems.clear();
     }
 
@@ -146,7 +318,11 @@ public abstract class CrudTableViewController<T extends BaseModel<T>> extends Ta
         // Default implementation does nothing.
     }
 
-    protected Collection<T> loadTableItems() {
+    /**
+     * Loads the items to show. Called in the background, with the filter conditions as they were when the refresh
+     * started.
+     */
+    protected Collection<T> loadTableItems(Collection<FilterCondition> filterConditions) {
         return crudService.getAll();
     }
 
@@ -160,8 +336,7 @@ public abstract class CrudTableViewController<T extends BaseModel<T>> extends Ta
         T newEntity = crudService.create();
         EditDialogResult result = showEntityEditDialog(newEntity);
         if (result != null && result.saved()) {
-            crudService.save(newEntity);
-            refreshTable();
+            crudService.save(newEntity).ifPresentOrElse(this::reloadRows, this::refreshTable);
             if (result.editNext()) {
                 Platform.runLater(this::handleAdd);
             }
@@ -172,10 +347,16 @@ public abstract class CrudTableViewController<T extends BaseModel<T>> extends Ta
         T selected = crudTableView.getTableView().getSelectionModel().getSelectedItem();
         if (selected != null) {
             logger.info("Edit button clicked for entity: {}", selected.getDisplayName());
+            Object group = getRowGroup(selected);
             EditDialogResult result = showEntityEditDialog(selected);
             if (result != null && result.saved()) {
-                crudService.save(selected);
-                refreshTable();
+                Optional<T> saved = crudService.save(selected);
+                // Moving the entity to another group changes the rows of both groups.
+                if (saved.isPresent() && group.equals(getRowGroup(selected))) {
+                    reloadRows(selected);
+                } else {
+                    refreshTable();
+                }
             }
         }
     }
@@ -3,6 +3,7 @@ package com.philabid.ui;
 import com.philabid.AppContext;
 import com.philabid.model.Auction;
 import com.philabid.model.CatalogValue;
+import com.philabid.service.ViewResultCache;
 import com.philabid.ui.cell.CatalogNumberColumnValue;
 import com.philabid.ui.control.DashboardAuctionsSummary;
 import com.philabid.util.MultiCurrencyMonetaryAmount;
@@ -20,12 +21,16 @@ import java.math.RoundingMode;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static com.philabid.ui.util.TableViewHelpers.*;
 
 public class DashboardController implements RefreshableViewController {
     private final static Logger logger = LoggerFactory.getLogger(DashboardController.class);
     protected final ObservableList<Auction> catalogValueNeededTableItems = FXCollections.observableArrayList();
+    private Collection<Auction> auctions = List.of();
+    private List<?> auctionsKey = List.of();
+    private long auctionsDataGeneration;
 
     @FXML
     private Label activeAuctionsLabel;
@@ -142,7 +147,11 @@ public class DashboardController implements RefreshableViewController {
     public void refresh() {
         logger.info("Refreshing Dashboard");
 
-        Collection<Auction> auctions = AppContext.getAuctionService().getActiveAuctions(List.of());
+        ViewResultCache viewResultCache = AppContext.getViewResultCache();
+        auctionsKey = viewResultCache.getKey(List.of());
+        Optional<Collection<Auction>> cached = viewResultCache.take(this, auctionsKey);
+        auctionsDataGeneration = viewResultCache.getDataGeneration();
+        auctions = cached.orElseGet(() -> AppContext.getAuctionService().getActiveAuctions(List.of()));
 
         activeAuctionsLabel.setText(String.valueOf(auctions.size()));
         expiredAuctionsLabel.setText(String.valueOf(auctions.stream().filter(Auction::isFinished).count()));
@@ -183,6 +192,8 @@ public class DashboardController implements RefreshableViewController {
 
     @Override
     public void unload() {
+        AppContext.getViewResultCache().put(this, auctionsKey, auctionsDataGeneration, auctions);
+        auctions = List.of();
         catalogValueNeededTableItems.clear();
     }
 }
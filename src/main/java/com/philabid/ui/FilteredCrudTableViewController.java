@@ -1,27 +1,33 @@
 package com.philabid.ui;
 
+import com.philabid.AppContext;
+import com.philabid.database.util.FilterCondition;
+import com.philabid.database.util.FullTextIndex;
 import com.philabid.model.BaseModel;
 import com.philabid.service.CrudService;
 import com.philabid.ui.control.CrudTableViewCategoryFilter;
 import com.philabid.ui.control.CrudTableViewConditionFilter;
 import com.philabid.ui.control.CrudTableViewMultiFilter;
+import com.philabid.ui.util.RefreshScheduler;
+import javafx.util.Duration;
 
 import java.util.Collection;
-import java.util.List;
 
 public abstract class FilteredCrudTableViewController<T extends BaseModel<T>> extends CrudTableViewController<T> {
     private final CrudTableViewMultiFilter multiFilter =
-            new CrudTableViewMultiFilter(List.of("ti.catalog_number", "catg.code"));
+            new CrudTableViewMultiFilter(FullTextIndex.TRADING_ITEMS, "ti.id");
     private final CrudTableViewCategoryFilter categoryFilter = new CrudTableViewCategoryFilter();
     private final CrudTableViewConditionFilter conditionFilter = new CrudTableViewConditionFilter();
+    private final RefreshScheduler filterRefreshScheduler = new RefreshScheduler(
+            Duration.millis(AppContext.getConfigurationService().getFilterRefreshDelay()), this::refresh);
 
     protected FilteredCrudTableViewController(CrudService<T> crudService) {
         super(crudService);
     }
 
     @Override
-    protected Collection<T> loadTableItems() {
-        return getCrudService().getAll(getCrudTableView().getFilterConditions());
+    protected Collection<T> loadTableItems(Collection<FilterCondition> filterConditions) {
+        return getCrudService().getAll(filterConditions);
     }
 
     @Override
@@ -30,11 +36,26 @@ public abstract class FilteredCrudTableViewController<T extends BaseModel<T>> ex
         getCrudTableView().addFilter(categoryFilter);
         getCrudTableView().addFilter(conditionFilter);
 
+        // A burst of filter changes, e.g. typing or clearing all filters, ends in a single reload.
         getCrudTableView().getFilterConditions().addListener((observable, oldValue, newValue) -> {
-            refresh();
+            discardPendingLoad();
+            filterRefreshScheduler.schedule();
         });
     }
 
+    @Override
+    protected void refreshTable() {
+        // This reload already sees the latest filters.
+        filterRefreshScheduler.cancel();
+        super.refreshTable();
+    }
+
+    @Override
+    public void unload() {
+        filterRefreshScheduler.cancel();
+        super.unload();
+    }
+
     protected CrudTableViewMultiFilter getMultiFilter() {
         return multiFilter;
     }
@@ -1,6 +1,7 @@
 package com.philabid.ui;
 
 import com.philabid.AppContext;
+import com.philabid.service.BackgroundTaskService;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
@@ -20,10 +21,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URL;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.ResourceBundle;
 
 /**
@@ -122,18 +125,32 @@ public class MainController implements Initializable {
     private void setupStatusBar() {
         if (statusBar != null) {
             statusBar.setText("Ready");
+            AppContext.getBackgroundTaskService().addListener(() -> Platform.runLater(this::updateStatusBar));
 
-            // Add current time to status bar
-            Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
-                String currentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                statusBar.setProgress(0); // Hide progress bar
-                statusBar.setText("Ready - " + currentTime);
-            }));
+            // Add current time, or how long the running load takes, to status bar
+            Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> updateStatusBar()));
             timeline.setCycleCount(Timeline.INDEFINITE);
             timeline.play();
         }
     }
 
+    private void updateStatusBar() {
+        BackgroundTaskService backgroundTaskService = AppContext.getBackgroundTaskService();
+        Optional<Instant> runningSince = backgroundTaskService.getOldestRunningTaskStart();
+        if (runningSince.isPresent()) {
+            statusBar.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+            statusBar.setText(String.format("Loading... %d s",
+                    java.time.Duration.between(runningSince.get(), Instant.now()).toSeconds()));
+            return;
+        }
+
+        String currentTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+        statusBar.setProgress(0); // Hide progress bar
+        statusBar.setText("Ready - " + currentTime + backgroundTaskService.getLastTaskDuration()
+                .map(d -> String.format(" (last load %.1f s)", d.toMillis() / 1000.0))
+                .orElse(""));
+    }
+
     /**
      * Sets up listeners to refresh data when a tab is selected.
      */
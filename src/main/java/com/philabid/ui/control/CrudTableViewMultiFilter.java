@@ -1,28 +1,28 @@
 package com.philabid.ui.control;
 
 import com.philabid.database.util.FilterCondition;
-import com.philabid.database.util.MultiTextFilterCondition;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.philabid.database.util.FullTextFilterCondition;
+import com.philabid.database.util.FullTextIndex;
 
 public class CrudTableViewMultiFilter extends CrudTableViewTextFilter {
 
-    private final List<String> searchableFields = new ArrayList<>();
+    private FullTextIndex searchIndex;
+    private String keyField;
 
-    public CrudTableViewMultiFilter(List<String> fields) {
+    public CrudTableViewMultiFilter(FullTextIndex searchIndex, String keyField) {
         super("Search:");
-        setSearchableFields(fields);
+        setSearchIndex(searchIndex, keyField);
     }
 
     /**
-     * Sets the database column names that this filter should search in.
+     * Sets the full-text index this filter searches in.
      *
-     * @param fields A list of column names (e.g., "name", "description").
+     * @param searchIndex The index to match the search words against.
+     * @param keyField    The column of the filtered query holding the ids of the indexed rows (e.g., "ti.id").
      */
-    public void setSearchableFields(List<String> fields) {
-        this.searchableFields.clear();
-        this.searchableFields.addAll(fields);
+    public void setSearchIndex(FullTextIndex searchIndex, String keyField) {
+        this.searchIndex = searchIndex;
+        this.keyField = keyField;
     }
 
     @Override
@@ -31,6 +31,6 @@ public class CrudTableViewMultiFilter extends CrudTableViewTextFilter {
         if (searchText == null || searchText.isBlank()) {
             return null;
         }
-        return new MultiTextFilterCondition(searchableFields, searchText);
+        return new FullTextFilterCondition(searchIndex, keyField, searchText);
     }
 }
@@ -2,6 +2,7 @@ package com.philabid.ui.control;
 
 import com.philabid.AppContext;
 import com.philabid.model.Auction;
+import com.philabid.util.FixedMoney;
 import com.philabid.util.MultiCurrencyMonetaryAmount;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -72,20 +73,23 @@ public class DashboardAuctionsSummary extends VBox {
                                     a.totalAuctions += 1;
                                     if (b.isWinningBid()) {
                                         a.winningAuctions += 1;
-                                        a.currentBids = a.currentBids.add(b.getCurrentPrice());
-                                        a.maximumBids = a.maximumBids.add(b.getMaxBid());
+                                        a.currentBidsMinor += toMinorUnits(b.getCurrentPrice());
+                                        a.maximumBidsMinor += toMinorUnits(b.getMaxBid());
                                     }
                                 },
                                 (a, b) -> {
                                     a.totalAuctions += b.totalAuctions;
                                     a.winningAuctions += b.winningAuctions;
-                                    a.currentBids = a.currentBids.add(b.currentBids);
-                                    a.maximumBids = a.maximumBids.add(b.maximumBids);
+                                    a.currentBidsMinor += b.currentBidsMinor;
+                                    a.maximumBidsMinor += b.maximumBidsMinor;
                                     return a;
                                 })
                 )).entrySet().stream().map(e -> {
-                    e.getValue().name = e.getKey().getValue1();
-                    return e.getValue();
+                    AuctionsSummaryEntry entry = e.getValue();
+                    entry.name = e.getKey().getValue1();
+                    entry.currentBids = toAmount(entry.currentBidsMinor);
+                    entry.maximumBids = toAmount(entry.maximumBidsMinor);
+                    return entry;
                 })
                 .toList();
         tableView.getItems().setAll(entries);
@@ -96,12 +100,24 @@ public class DashboardAuctionsSummary extends VBox {
         });
     }
 
+    // Bids are summed as minor units of the default currency and only turned into amounts for display.
+    private static long toMinorUnits(MultiCurrencyMonetaryAmount amount) {
+        return amount != null ? FixedMoney.of(amount.defaultCurrencyAmount()).minorUnits() : 0;
+    }
+
+    private static MultiCurrencyMonetaryAmount toAmount(long minorUnits) {
+        return FixedMoney.ofMinor(minorUnits, AppContext.getConfigurationService().getDefaultCurrency())
+                .toMultiCurrencyAmount();
+    }
+
     public static class AuctionsSummaryEntry {
         public String name;
         public Long totalAuctions = 0L;
         public Long winningAuctions = 0L;
-        public MultiCurrencyMonetaryAmount currentBids = MultiCurrencyMonetaryAmount.ZERO;
-        public MultiCurrencyMonetaryAmount maximumBids = MultiCurrencyMonetaryAmount.ZERO;
+        public MultiCurrencyMonetaryAmount currentBids = MultiCurrencyMonetaryAmount.zero();
+        public MultiCurrencyMonetaryAmount maximumBids = MultiCurrencyMonetaryAmount.zero();
+        private long currentBidsMinor;
+        private long maximumBidsMinor;
 
         public Long getWinningAuctions() {
             return winningAuctions;
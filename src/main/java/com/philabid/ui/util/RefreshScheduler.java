@@ -0,0 +1,28 @@
+package com.philabid.ui.util;
+
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+/**
+ * Runs an action once a burst of requests has settled: every request restarts the delay, so the action runs once,
+ * after the last one. Used on the JavaFX application thread only.
+ */
+public class RefreshScheduler {
+    private final PauseTransition timer;
+
+    public RefreshScheduler(Duration delay, Runnable action) {
+        timer = new PauseTransition(delay);
+        timer.setOnFinished(event -> action.run());
+    }
+
+    public void schedule() {
+        timer.playFromStart();
+    }
+
+    /**
+     * Drops a scheduled run, e.g. because the action was run directly.
+     */
+    public void cancel() {
+        timer.stop();
+    }
+}
@@ -0,0 +1,78 @@
+package com.philabid.util;
+
+import org.javatuples.Pair;
+
+import javax.money.CurrencyUnit;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The steps bids rise by at an auction house. A price above a threshold rises by the step of the highest threshold
+ * below it; a price at or below the lowest threshold rises by the lowest step. The thresholds are kept in a sorted
+ * primitive array, so a lookup is a binary search that allocates nothing. The steps of an auction house's ladder are in
+ * its currency; the default ladder has no currency and applies to prices in any.
+ */
+public class BidIncrementLadder {
+
+    /**
+     * The ladder of houses that have none of their own.
+     */
+    public static final BidIncrementLadder DEFAULT = of(List.of(
+            Pair.with(BigDecimal.ZERO, BigDecimal.ONE),
+            Pair.with(BigDecimal.valueOf(25), BigDecimal.valueOf(2)),
+            Pair.with(BigDecimal.valueOf(100), BigDecimal.valueOf(5)),
+            Pair.with(BigDecimal.valueOf(250), BigDecimal.valueOf(10)),
+            Pair.with(BigDecimal.valueOf(500), BigDecimal.valueOf(15)),
+            Pair.with(BigDecimal.valueOf(1000), BigDecimal.valueOf(25)),
+            Pair.with(BigDecimal.valueOf(2500), BigDecimal.valueOf(50)),
+            Pair.with(BigDecimal.valueOf(5000), BigDecimal.valueOf(100)),
+            Pair.with(BigDecimal.valueOf(10000), BigDecimal.valueOf(250))));
+
+    private final CurrencyUnit currency;
+    private final double[] thresholds;
+    private final BigDecimal[] steps;
+
+    private BidIncrementLadder(CurrencyUnit currency, double[] thresholds, BigDecimal[] steps) {
+        this.currency = currency;
+        this.thresholds = thresholds;
+        this.steps = steps;
+    }
+
+    /**
+     * Creates a ladder for prices in any currency from (threshold, step) pairs in any order.
+     */
+    public static BidIncrementLadder of(List<Pair<BigDecimal, BigDecimal>> increments) {
+        return of(null, increments);
+    }
+
+    /**
+     * Creates a ladder for prices in the given currency from (threshold, step) pairs in any order.
+     */
+    public static BidIncrementLadder of(CurrencyUnit currency, List<Pair<BigDecimal, BigDecimal>> increments) {
+        if (increments.isEmpty()) {
+            throw new IllegalArgumentException("A bid increment ladder needs at least one step");
+        }
+        List<Pair<BigDecimal, BigDecimal>> sorted = increments.stream()
+                .sorted(Comparator.comparing(Pair::getValue0))
+                .toList();
+        return new BidIncrementLadder(currency,
+                sorted.stream().mapToDouble(increment -> increment.getValue0().doubleValue()).toArray(),
+                sorted.stream().map(Pair::getValue1).toArray(BigDecimal[]::new));
+    }
+
+    public boolean appliesTo(CurrencyUnit priceCurrency) {
+        return currency == null || currency.equals(priceCurrency);
+    }
+
+    /**
+     * The step a bid at the given price rises by.
+     */
+    public BigDecimal getStep(double price) {
+        int index = Arrays.binarySearch(thresholds, price);
+        // An exact match is not above its threshold; otherwise the insertion point follows the highest one below.
+        int below = index >= 0 ? index - 1 : -index - 2;
+        return steps[Math.max(below, 0)];
+    }
+}
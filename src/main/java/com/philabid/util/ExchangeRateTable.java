@@ -0,0 +1,124 @@
+package com.philabid.util;
+
+import javax.money.CurrencyUnit;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Exchange rates held in memory as one array per currency pair, indexed by epoch day. Days without a rate of their
+ * own carry the nearest earlier rate for up to {@link #MAX_FILL_DAYS} days, so a lookup is a single array read.
+ * Rates are stored with {@link #SCALE} decimal places.
+ */
+public class ExchangeRateTable {
+
+    /**
+     * How many days after a known rate it is still used for days without one.
+     */
+    public static final int MAX_FILL_DAYS = 9;
+
+    /**
+     * Decimal places kept of each rate. Rates of other pairs are derived by dividing two stored ones, so more are kept
+     * than an amount needs.
+     */
+    public static final int SCALE = 6;
+
+    private final Map<CurrencyPair, Series> series = new HashMap<>();
+
+    /**
+     * Adds a known rate. An existing rate for the same day is kept, like {@code INSERT OR IGNORE} does.
+     */
+    public synchronized void put(LocalDate date, CurrencyUnit from, CurrencyUnit to, BigDecimal rate) {
+        series.computeIfAbsent(new CurrencyPair(from, to), k -> new Series(date.toEpochDay()))
+                .put(date.toEpochDay(), rate.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Finds the rate of the given day, or of the nearest earlier day with a rate at most {@link #MAX_FILL_DAYS}
+     * days before it.
+     */
+    public synchronized Optional<Entry> find(LocalDate date, CurrencyUnit from, CurrencyUnit to) {
+        Series pairSeries = series.get(new CurrencyPair(from, to));
+        if (pairSeries == null) {
+            return Optional.empty();
+        }
+        long day = date.toEpochDay();
+        long rate = pairSeries.get(day);
+        if (rate == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Entry(LocalDate.ofEpochDay(pairSeries.knownDay(day)), BigDecimal.valueOf(rate, SCALE)));
+    }
+
+    public synchronized void clear() {
+        series.clear();
+    }
+
+    /**
+     * A rate found in the table.
+     *
+     * @param date The day the rate was stored for, on or before the day looked up.
+     * @param rate The rate.
+     */
+    public record Entry(LocalDate date, BigDecimal rate) {
+    }
+
+    private record CurrencyPair(CurrencyUnit from, CurrencyUnit to) {
+    }
+
+    private static final class Series {
+        private long firstDay;
+        private long[] rates = new long[0];
+        private final BitSet known = new BitSet();
+
+        private Series(long firstDay) {
+            this.firstDay = firstDay;
+        }
+
+        private long get(long day) {
+            long index = day - firstDay;
+            return index >= 0 && index < rates.length ? rates[(int) index] : 0;
+        }
+
+        private long knownDay(long day) {
+            return firstDay + known.previousSetBit((int) (day - firstDay));
+        }
+
+        private void put(long day, long rate) {
+            ensureCapacity(day, day + MAX_FILL_DAYS);
+            int index = (int) (day - firstDay);
+            if (known.get(index)) {
+                return;
+            }
+            rates[index] = rate;
+            known.set(index);
+            // Up to the next known day, this is now the nearest earlier rate.
+            for (int i = index + 1; i <= index + MAX_FILL_DAYS && !known.get(i); i++) {
+                rates[i] = rate;
+            }
+        }
+
+        private void ensureCapacity(long fromDay, long toDay) {
+            if (fromDay < firstDay) {
+                int shift = (int) (firstDay - fromDay);
+                long[] shifted = new long[rates.length + shift];
+                System.arraycopy(rates, 0, shifted, shift, rates.length);
+                BitSet shiftedKnown = new BitSet();
+                known.stream().forEach(i -> shiftedKnown.set(i + shift));
+                known.clear();
+                known.or(shiftedKnown);
+                rates = shifted;
+                firstDay = fromDay;
+            }
+            int length = (int) (toDay - firstDay + 1);
+            if (length > rates.length) {
+                rates = Arrays.copyOf(rates, Math.max(length, rates.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.philabid.util;
+
+import org.javamoney.moneta.Money;
+import org.jetbrains.annotations.NotNull;
+
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An immutable amount held as a count of the currency's minor units (e.g. grosze for PLN), with the currency
+ * referenced by a small numeric id. Meant for statistics that add up, compare and sort many amounts; convert to
+ * {@link MonetaryAmount} or {@link MultiCurrencyMonetaryAmount} only for display.
+ *
+ * @param minorUnits The amount in minor units of the currency.
+ * @param currencyId The id of the currency, see {@link #currency()}.
+ */
+public record FixedMoney(long minorUnits, int currencyId) implements Comparable<FixedMoney> {
+
+    private static final List<CurrencyUnit> CURRENCIES = new CopyOnWriteArrayList<>();
+    private static final Map<CurrencyUnit, Integer> CURRENCY_IDS = new ConcurrentHashMap<>();
+
+    /**
+     * Converts an amount, rounding half up to the minor unit of its currency.
+     */
+    public static FixedMoney of(MonetaryAmount amount) {
+        CurrencyUnit currency = amount.getCurrency();
+        BigDecimal minorUnits = amount.getNumber().numberValue(BigDecimal.class)
+                .movePointRight(fractionDigits(currency))
+                .setScale(0, RoundingMode.HALF_UP);
+        return new FixedMoney(minorUnits.longValueExact(), currencyId(currency));
+    }
+
+    public static FixedMoney zero(CurrencyUnit currency) {
+        return new FixedMoney(0, currencyId(currency));
+    }
+
+    public static FixedMoney ofMinor(long minorUnits, CurrencyUnit currency) {
+        return new FixedMoney(minorUnits, currencyId(currency));
+    }
+
+    /**
+     * Returns the small id standing for the currency, assigning one on first use.
+     */
+    public static int currencyId(CurrencyUnit currency) {
+        Integer id = CURRENCY_IDS.get(currency);
+        if (id != null) {
+            return id;
+        }
+        synchronized (CURRENCIES) {
+            return CURRENCY_IDS.computeIfAbsent(currency, c -> {
+                CURRENCIES.add(c);
+                return CURRENCIES.size() - 1;
+            });
+        }
+    }
+
+    public CurrencyUnit currency() {
+        return CURRENCIES.get(currencyId);
+    }
+
+    public FixedMoney add(FixedMoney other) {
+        checkCurrency(other);
+        return new FixedMoney(Math.addExact(minorUnits, other.minorUnits), currencyId);
+    }
+
+    /**
+     * Multiplies by a factor, rounding half up to the minor unit.
+     */
+    public FixedMoney multiply(double factor) {
+        return new FixedMoney(Math.round(minorUnits * factor), currencyId);
+    }
+
+    /**
+     * Divides by a count, rounding half up (away from zero) to the minor unit.
+     */
+    public FixedMoney divide(long divisor) {
+        return new FixedMoney(divideHalfUp(minorUnits, divisor), currencyId);
+    }
+
+    public boolean isGreaterThan(FixedMoney other) {
+        return compareTo(other) > 0;
+    }
+
+    public boolean isLessThan(FixedMoney other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public int compareTo(@NotNull FixedMoney other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    public MonetaryAmount toMonetaryAmount() {
+        CurrencyUnit currency = currency();
+        return Money.of(BigDecimal.valueOf(minorUnits, fractionDigits(currency)), currency);
+    }
+
+    /**
+     * Converts back for display, treating the amount as already being in the default currency.
+     */
+    public MultiCurrencyMonetaryAmount toMultiCurrencyAmount() {
+        MonetaryAmount amount = toMonetaryAmount();
+        return MultiCurrencyMonetaryAmount.of(amount, amount);
+    }
+
+    /**
+     * Divides two minor-unit counts, rounding half up (away from zero).
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+
+    private static int fractionDigits(CurrencyUnit currency) {
+        int digits = currency.getDefaultFractionDigits();
+        if (digits < 0) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency);
+        }
+        return digits;
+    }
+
+    private void checkCurrency(FixedMoney other) {
+        if (currencyId != other.currencyId) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency() + " and " + other.currency());
+        }
+    }
+}
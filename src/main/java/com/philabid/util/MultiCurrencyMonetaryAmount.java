@@ -1,6 +1,7 @@
 package com.philabid.util;
 
 import com.philabid.AppContext;
+import com.philabid.service.ExchangeRateService;
 import org.javamoney.moneta.Money;
 import org.jetbrains.annotations.NotNull;
 
@@ -18,8 +19,12 @@ import javax.money.MonetaryAmount;
 public record MultiCurrencyMonetaryAmount(MonetaryAmount originalAmount, MonetaryAmount defaultCurrencyAmount)
         implements Comparable<MultiCurrencyMonetaryAmount> {
 
-    public static MultiCurrencyMonetaryAmount ZERO =
-            MultiCurrencyMonetaryAmount.of(Money.of(0, AppContext.getConfigurationService().getDefaultCurrency()));
+    /**
+     * Zero in the default currency. Not a constant, so that loading the class does not start the application context.
+     */
+    public static MultiCurrencyMonetaryAmount zero() {
+        return MultiCurrencyMonetaryAmount.of(Money.of(0, AppContext.getConfigurationService().getDefaultCurrency()));
+    }
 
     /**
      * Factory method to create a new instance of MultiCurrencyMonetaryAmount.
@@ -32,12 +37,26 @@ public record MultiCurrencyMonetaryAmount(MonetaryAmount originalAmount, Monetar
         if (amount == null) {
             return null;
         }
+        return of(amount, AppContext.getConfigurationService().getDefaultCurrency(),
+                AppContext.getExchangeRateService());
+    }
+
+    /**
+     * Creates a new instance, converting the amount to the given default currency with the given service.
+     *
+     * @param amount The original monetary amount.
+     * @return A new instance of MultiCurrencyMonetaryAmount, or null for a null amount.
+     */
+    public static MultiCurrencyMonetaryAmount of(MonetaryAmount amount, CurrencyUnit defaultCurrency,
+                                                 ExchangeRateService exchangeRateService) {
+        if (amount == null) {
+            return null;
+        }
 
-        CurrencyUnit defaultCurrency = AppContext.getConfigurationService().getDefaultCurrency();
         CurrencyUnit itemCurrency = amount.getCurrency();
 
         if (!itemCurrency.equals(defaultCurrency)) {
-            MonetaryAmount convertedAmount = AppContext.getExchangeRateService()
+            MonetaryAmount convertedAmount = exchangeRateService
                     .exchange(amount, defaultCurrency)
                     .orElse(amount); // Fallback to original if conversion fails
             return new MultiCurrencyMonetaryAmount(amount, convertedAmount);
@@ -30,6 +30,7 @@ module philabid {
     exports com.philabid.model;
     exports com.philabid.service;
     exports com.philabid.database;
+    exports com.philabid.database.pool;
     exports com.philabid.parsing;
     exports com.philabid.i18n;
     exports com.philabid.util;
@@ -0,0 +1,11 @@
+-- Active/archived auctions of an item in a given condition (history lookups and the archive joins).
+CREATE INDEX IF NOT EXISTS idx_auctions_item_condition_archived ON auctions (trading_item_id, condition_id, archived);
+
+-- Active and archived lists, ordered and paged by end date.
+CREATE INDEX IF NOT EXISTS idx_auctions_archived_end_date ON auctions (archived, end_date);
+
+-- Duplicate detection when importing lots; lot ids are compared case-insensitively.
+CREATE INDEX IF NOT EXISTS idx_auctions_house_lot ON auctions (auction_house_id, lot_id COLLATE NOCASE);
+
+-- catalog_values (trading_item_id, condition_id) and trading_items (category_id, ...) are already covered by the
+-- unique indexes created in V11 and V14.
@@ -0,0 +1,131 @@
+-- Trigram full-text indexes backing the table search box. Each row shares its rowid with the indexed entity,
+-- so a search resolves to "id IN (SELECT rowid ...)" and the outer query looks rows up by primary key.
+
+-- Trading items, searchable by catalog number and category.
+CREATE VIRTUAL TABLE trading_item_search USING fts5
+(
+    catalog_number,
+    category_code,
+    category_name,
+    tokenize = 'trigram'
+);
+
+INSERT INTO trading_item_search (rowid, catalog_number, category_code, category_name)
+SELECT ti.id, ti.catalog_number, c.code, c.name
+FROM trading_items ti
+         LEFT JOIN categories c ON c.id = ti.category_id;
+
+-- Auctions, additionally searchable by lot id and seller.
+CREATE VIRTUAL TABLE auction_search USING fts5
+(
+    catalog_number,
+    category_code,
+    category_name,
+    lot_id,
+    seller_name,
+    seller_full_name,
+    tokenize = 'trigram'
+);
+
+INSERT INTO auction_search (rowid, catalog_number, category_code, category_name, lot_id, seller_name,
+                            seller_full_name)
+SELECT a.id, ti.catalog_number, c.code, c.name, a.lot_id, s.name, s.full_name
+FROM auctions a
+         LEFT JOIN trading_items ti ON ti.id = a.trading_item_id
+         LEFT JOIN categories c ON c.id = ti.category_id
+         LEFT JOIN sellers s ON s.id = a.seller_id;
+
+-- Keep trading_item_search in sync.
+CREATE TRIGGER trading_items_search_insert
+    AFTER INSERT
+    ON trading_items
+BEGIN
+    INSERT INTO trading_item_search (rowid, catalog_number, category_code, category_name)
+    VALUES (NEW.id, NEW.catalog_number, (SELECT code FROM categories WHERE id = NEW.category_id),
+            (SELECT name FROM categories WHERE id = NEW.category_id));
+END;
+
+CREATE TRIGGER trading_items_search_update
+    AFTER UPDATE OF catalog_number, category_id
+    ON trading_items
+BEGIN
+    UPDATE trading_item_search
+    SET catalog_number = NEW.catalog_number,
+        category_code  = (SELECT code FROM categories WHERE id = NEW.category_id),
+        category_name  = (SELECT name FROM categories WHERE id = NEW.category_id)
+    WHERE rowid = NEW.id;
+    UPDATE auction_search
+    SET catalog_number = NEW.catalog_number,
+        category_code  = (SELECT code FROM categories WHERE id = NEW.category_id),
+        category_name  = (SELECT name FROM categories WHERE id = NEW.category_id)
+    WHERE rowid IN (SELECT id FROM auctions WHERE trading_item_id = NEW.id);
+END;
+
+CREATE TRIGGER trading_items_search_delete
+    AFTER DELETE
+    ON trading_items
+BEGIN
+    DELETE FROM trading_item_search WHERE rowid = OLD.id;
+END;
+
+CREATE TRIGGER categories_search_update
+    AFTER UPDATE OF code, name
+    ON categories
+BEGIN
+    UPDATE trading_item_search
+    SET category_code = NEW.code,
+        category_name = NEW.name
+    WHERE rowid IN (SELECT id FROM trading_items WHERE category_id = NEW.id);
+    UPDATE auction_search
+    SET category_code = NEW.code,
+        category_name = NEW.name
+    WHERE rowid IN (SELECT a.id
+                    FROM auctions a
+                             JOIN trading_items ti ON ti.id = a.trading_item_id
+                    WHERE ti.category_id = NEW.id);
+END;
+
+-- Keep auction_search in sync.
+CREATE TRIGGER auctions_search_insert
+    AFTER INSERT
+    ON auctions
+BEGIN
+    INSERT INTO auction_search (rowid, catalog_number, category_code, category_name, lot_id, seller_name,
+                                seller_full_name)
+    SELECT NEW.id, ti.catalog_number, c.code, c.name, NEW.lot_id, s.name, s.full_name
+    FROM (SELECT 1)
+             LEFT JOIN trading_items ti ON ti.id = NEW.trading_item_id
+             LEFT JOIN categories c ON c.id = ti.category_id
+             LEFT JOIN sellers s ON s.id = NEW.seller_id;
+END;
+
+CREATE TRIGGER auctions_search_update
+    AFTER UPDATE OF lot_id, trading_item_id, seller_id
+    ON auctions
+BEGIN
+    DELETE FROM auction_search WHERE rowid = OLD.id;
+    INSERT INTO auction_search (rowid, catalog_number, category_code, category_name, lot_id, seller_name,
+                                seller_full_name)
+    SELECT NEW.id, ti.catalog_number, c.code, c.name, NEW.lot_id, s.name, s.full_name
+    FROM (SELECT 1)
+             LEFT JOIN trading_items ti ON ti.id = NEW.trading_item_id
+             LEFT JOIN categories c ON c.id = ti.category_id
+             LEFT JOIN sellers s ON s.id = NEW.seller_id;
+END;
+
+CREATE TRIGGER auctions_search_delete
+    AFTER DELETE
+    ON auctions
+BEGIN
+    DELETE FROM auction_search WHERE rowid = OLD.id;
+END;
+
+CREATE TRIGGER sellers_search_update
+    AFTER UPDATE OF name, full_name
+    ON sellers
+BEGIN
+    UPDATE auction_search
+    SET seller_name      = NEW.name,
+        seller_full_name = NEW.full_name
+    WHERE rowid IN (SELECT id FROM auctions WHERE seller_id = NEW.id);
+END;
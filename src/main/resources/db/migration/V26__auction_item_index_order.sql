@@ -0,0 +1,4 @@
+-- Put archived before condition_id, so lookups by a list of trading items and the archived flag (without a
+-- condition) can still seek on both columns instead of falling back to idx_auctions_archived_end_date.
+DROP INDEX IF EXISTS idx_auctions_item_condition_archived;
+CREATE INDEX IF NOT EXISTS idx_auctions_item_archived_condition ON auctions (trading_item_id, archived, condition_id);
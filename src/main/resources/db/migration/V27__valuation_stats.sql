@@ -0,0 +1,90 @@
+-- Price statistics of archived auctions per trading item and condition, computed by ValuationService.
+-- Amounts are in currency_code (the default currency at the time of computing) and only include prices within the
+-- catalog value boundary given by max_price_multiplier. A NULL computed_on marks a row for recomputation.
+CREATE TABLE valuation_stats
+(
+    trading_item_id      INTEGER NOT NULL,
+    condition_id         INTEGER NOT NULL,
+    auction_count        INTEGER,
+    currency_code        TEXT,
+    average_price        DECIMAL(16, 4),
+    median_price         DECIMAL(16, 4),
+    min_price            DECIMAL(16, 4),
+    max_price            DECIMAL(16, 4),
+    max_price_multiplier REAL,
+    computed_on          DATE,
+    PRIMARY KEY (trading_item_id, condition_id)
+);
+
+-- Every item and condition with an auction or a catalog value has a valuation.
+INSERT INTO valuation_stats (trading_item_id, condition_id)
+SELECT trading_item_id, condition_id
+FROM auctions
+UNION
+SELECT trading_item_id, condition_id
+FROM catalog_values;
+
+-- Mark the affected rows stale whenever their auctions or catalog values change.
+CREATE TRIGGER auctions_valuation_stats_insert
+    AFTER INSERT
+    ON auctions
+BEGIN
+    INSERT INTO valuation_stats (trading_item_id, condition_id)
+    VALUES (NEW.trading_item_id, NEW.condition_id)
+    ON CONFLICT (trading_item_id, condition_id) DO UPDATE SET computed_on = NULL;
+END;
+
+CREATE TRIGGER auctions_valuation_stats_update
+    AFTER UPDATE OF trading_item_id, condition_id, archived, current_price, currency_code
+    ON auctions
+BEGIN
+    UPDATE valuation_stats
+    SET computed_on = NULL
+    WHERE trading_item_id = OLD.trading_item_id
+      AND condition_id = OLD.condition_id;
+    INSERT INTO valuation_stats (trading_item_id, condition_id)
+    VALUES (NEW.trading_item_id, NEW.condition_id)
+    ON CONFLICT (trading_item_id, condition_id) DO UPDATE SET computed_on = NULL;
+END;
+
+CREATE TRIGGER auctions_valuation_stats_delete
+    AFTER DELETE
+    ON auctions
+BEGIN
+    UPDATE valuation_stats
+    SET computed_on = NULL
+    WHERE trading_item_id = OLD.trading_item_id
+      AND condition_id = OLD.condition_id;
+END;
+
+CREATE TRIGGER catalog_values_valuation_stats_insert
+    AFTER INSERT
+    ON catalog_values
+BEGIN
+    INSERT INTO valuation_stats (trading_item_id, condition_id)
+    VALUES (NEW.trading_item_id, NEW.condition_id)
+    ON CONFLICT (trading_item_id, condition_id) DO UPDATE SET computed_on = NULL;
+END;
+
+CREATE TRIGGER catalog_values_valuation_stats_update
+    AFTER UPDATE OF trading_item_id, condition_id, value, currency_code
+    ON catalog_values
+BEGIN
+    UPDATE valuation_stats
+    SET computed_on = NULL
+    WHERE trading_item_id = OLD.trading_item_id
+      AND condition_id = OLD.condition_id;
+    INSERT INTO valuation_stats (trading_item_id, condition_id)
+    VALUES (NEW.trading_item_id, NEW.condition_id)
+    ON CONFLICT (trading_item_id, condition_id) DO UPDATE SET computed_on = NULL;
+END;
+
+CREATE TRIGGER catalog_values_valuation_stats_delete
+    AFTER DELETE
+    ON catalog_values
+BEGIN
+    UPDATE valuation_stats
+    SET computed_on = NULL
+    WHERE trading_item_id = OLD.trading_item_id
+      AND condition_id = OLD.condition_id;
+END;
@@ -0,0 +1,75 @@
+-- Log of archived price to catalog value ratios entering (delta = 1) or leaving (delta = -1) a category and
+-- condition. ValuationService keeps running per-category totals in memory and applies new entries on each read.
+CREATE TABLE category_percentage_changes
+(
+    id           INTEGER PRIMARY KEY AUTOINCREMENT,
+    category_id  INTEGER,
+    condition_id INTEGER NOT NULL,
+    percentage   REAL    NOT NULL,
+    delta        INTEGER NOT NULL
+);
+
+CREATE TRIGGER auctions_category_percentage_insert
+    AFTER INSERT
+    ON auctions
+    WHEN NEW.archived = 1 AND NEW.current_price IS NOT NULL AND NEW.archived_catalog_value_percentage IS NOT NULL
+BEGIN
+    INSERT INTO category_percentage_changes (category_id, condition_id, percentage, delta)
+    VALUES ((SELECT category_id FROM trading_items WHERE id = NEW.trading_item_id), NEW.condition_id,
+            NEW.archived_catalog_value_percentage, 1);
+END;
+
+CREATE TRIGGER auctions_category_percentage_update
+    AFTER UPDATE OF archived, current_price, archived_catalog_value_percentage, trading_item_id, condition_id
+    ON auctions
+    WHEN OLD.archived IS NOT NEW.archived
+        OR OLD.current_price IS NOT NEW.current_price
+        OR OLD.archived_catalog_value_percentage IS NOT NEW.archived_catalog_value_percentage
+        OR OLD.trading_item_id IS NOT NEW.trading_item_id
+        OR OLD.condition_id IS NOT NEW.condition_id
+BEGIN
+    INSERT INTO category_percentage_changes (category_id, condition_id, percentage, delta)
+    SELECT (SELECT category_id FROM trading_items WHERE id = OLD.trading_item_id), OLD.condition_id,
+           OLD.archived_catalog_value_percentage, -1
+    WHERE OLD.archived = 1
+      AND OLD.current_price IS NOT NULL
+      AND OLD.archived_catalog_value_percentage IS NOT NULL;
+    INSERT INTO category_percentage_changes (category_id, condition_id, percentage, delta)
+    SELECT (SELECT category_id FROM trading_items WHERE id = NEW.trading_item_id), NEW.condition_id,
+           NEW.archived_catalog_value_percentage, 1
+    WHERE NEW.archived = 1
+      AND NEW.current_price IS NOT NULL
+      AND NEW.archived_catalog_value_percentage IS NOT NULL;
+END;
+
+CREATE TRIGGER auctions_category_percentage_delete
+    AFTER DELETE
+    ON auctions
+    WHEN OLD.archived = 1 AND OLD.current_price IS NOT NULL AND OLD.archived_catalog_value_percentage IS NOT NULL
+BEGIN
+    INSERT INTO category_percentage_changes (category_id, condition_id, percentage, delta)
+    VALUES ((SELECT category_id FROM trading_items WHERE id = OLD.trading_item_id), OLD.condition_id,
+            OLD.archived_catalog_value_percentage, -1);
+END;
+
+-- Moving an item to another category moves its archived auctions along.
+CREATE TRIGGER trading_items_category_percentage_update
+    AFTER UPDATE OF category_id
+    ON trading_items
+    WHEN OLD.category_id IS NOT NEW.category_id
+BEGIN
+    INSERT INTO category_percentage_changes (category_id, condition_id, percentage, delta)
+    SELECT OLD.category_id, a.condition_id, a.archived_catalog_value_percentage, -1
+    FROM auctions a
+    WHERE a.trading_item_id = OLD.id
+      AND a.archived = 1
+      AND a.current_price IS NOT NULL
+      AND a.archived_catalog_value_percentage IS NOT NULL;
+    INSERT INTO category_percentage_changes (category_id, condition_id, percentage, delta)
+    SELECT NEW.category_id, a.condition_id, a.archived_catalog_value_percentage, 1
+    FROM auctions a
+    WHERE a.trading_item_id = NEW.id
+      AND a.archived = 1
+      AND a.current_price IS NOT NULL
+      AND a.archived_catalog_value_percentage IS NOT NULL;
+END;
@@ -0,0 +1,31 @@
+-- Exchange rates are stored against USD only; rates of other pairs are derived from two of them.
+-- Rates to USD become rates from USD.
+INSERT OR IGNORE INTO exchange_rates (rate_date, source_currency, target_currency, rate)
+SELECT rate_date, 'USD', source_currency, ROUND(1.0 / rate, 6)
+FROM exchange_rates
+WHERE target_currency = 'USD'
+  AND source_currency <> 'USD'
+  AND rate > 0;
+
+-- Other pairs give the rate of one currency when the rate of the other one is known on the same day.
+INSERT OR IGNORE INTO exchange_rates (rate_date, source_currency, target_currency, rate)
+SELECT r.rate_date, 'USD', r.source_currency, ROUND(l.rate / r.rate, 6)
+FROM exchange_rates r
+         JOIN exchange_rates l ON l.rate_date = r.rate_date AND l.source_currency = 'USD' AND
+                                  l.target_currency = r.target_currency
+WHERE r.source_currency <> 'USD'
+  AND r.target_currency <> 'USD'
+  AND r.rate > 0;
+
+INSERT OR IGNORE INTO exchange_rates (rate_date, source_currency, target_currency, rate)
+SELECT r.rate_date, 'USD', r.target_currency, ROUND(l.rate * r.rate, 6)
+FROM exchange_rates r
+         JOIN exchange_rates l ON l.rate_date = r.rate_date AND l.source_currency = 'USD' AND
+                                  l.target_currency = r.source_currency
+WHERE r.source_currency <> 'USD'
+  AND r.target_currency <> 'USD';
+
+-- Other pairs are no longer read; their currencies are fetched again against USD when needed.
+DELETE
+FROM exchange_rates
+WHERE source_currency <> 'USD';
@@ -0,0 +1,10 @@
+-- Bid increment ladder of each auction house: above a threshold, bids rise by the step of the highest threshold
+-- below them. Both are in the auction house's currency. Houses without rows use the default ladder of
+-- BidIncrementLadder.
+CREATE TABLE bid_increments
+(
+    auction_house_id INTEGER        NOT NULL REFERENCES auction_houses (id) ON DELETE CASCADE,
+    threshold        DECIMAL(16, 2) NOT NULL,
+    step             DECIMAL(16, 2) NOT NULL,
+    PRIMARY KEY (auction_house_id, threshold)
+);
@@ -0,0 +1,78 @@
+package com.philabid.database;
+
+import com.philabid.database.pool.ConnectionPoolSettings;
+import com.philabid.model.AuctionHouse;
+import com.philabid.util.BidIncrementLadder;
+import org.javatuples.Pair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the bid increment ladders of AuctionHouseRepository.
+ */
+class AuctionHouseRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager databaseManager;
+    private AuctionHouseRepository repository;
+    private Long auctionHouseId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        databaseManager = new DatabaseManager(tempDir.resolve("houses.db").toString(), ConnectionPoolSettings.DEFAULTS);
+        databaseManager.initialize();
+        repository = new AuctionHouseRepository(databaseManager);
+        auctionHouseId = repository.save(new AuctionHouse("House")).orElseThrow().getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseManager.close();
+    }
+
+    @Test
+    void testSaveBidIncrementsReplacesTheLadder() throws SQLException {
+        repository.saveBidIncrements(auctionHouseId, List.of(
+                Pair.with(new BigDecimal("0"), new BigDecimal("1")),
+                Pair.with(new BigDecimal("100"), new BigDecimal("5"))));
+        repository.saveBidIncrements(auctionHouseId, List.of(
+                Pair.with(new BigDecimal("50"), new BigDecimal("2.5")),
+                Pair.with(new BigDecimal("0"), new BigDecimal("0.5"))));
+
+        assertEquals(List.of(
+                        Pair.with(new BigDecimal("0"), new BigDecimal("0.5")),
+                        Pair.with(new BigDecimal("50"), new BigDecimal("2.5"))),
+                repository.findBidIncrements(auctionHouseId));
+
+        Map<Long, BidIncrementLadder> ladders = repository.findBidIncrementLadders();
+        BidIncrementLadder ladder = ladders.get(auctionHouseId);
+        assertEquals(new BigDecimal("2.5"), ladder.getStep(60));
+        assertTrue(ladder.appliesTo(Monetary.getCurrency("USD")));
+        assertFalse(ladder.appliesTo(Monetary.getCurrency("EUR")));
+    }
+
+    @Test
+    void testSavingNoBidIncrementsRemovesTheLadder() throws SQLException {
+        repository.saveBidIncrements(auctionHouseId, List.of(Pair.with(BigDecimal.ZERO, BigDecimal.ONE)));
+        long generation = databaseManager.getDataGeneration();
+
+        repository.saveBidIncrements(auctionHouseId, List.of());
+
+        assertEquals(List.of(), repository.findBidIncrements(auctionHouseId));
+        assertEquals(Map.of(), repository.findBidIncrementLadders());
+        assertNotEquals(generation, databaseManager.getDataGeneration());
+    }
+}
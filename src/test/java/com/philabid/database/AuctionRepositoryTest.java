@@ -0,0 +1,110 @@
+package com.philabid.database;
+
+import com.philabid.database.pool.ConnectionPoolSettings;
+import com.philabid.model.Auction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the archive lookups of AuctionRepository.
+ */
+class AuctionRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager databaseManager;
+    private AuctionRepository auctionRepository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        databaseManager = new DatabaseManager(tempDir.resolve("auctions.db").toString(),
+                ConnectionPoolSettings.DEFAULTS);
+        databaseManager.initialize();
+        auctionRepository = new AuctionRepository(databaseManager);
+
+        try (Connection conn = databaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            new TestCatalog("EUR")
+                    .category("A", "A")
+                    .category("B", "B")
+                    .condition("Mint", "MNH")
+                    .condition("Used", "U")
+                    .tradingItem(1, "1")
+                    .tradingItem(1, "2")
+                    .tradingItem(2, "3")
+                    .insert(stmt);
+            // Active auctions in the same categories and conditions as the archive, which lookups must leave out.
+            insertAuction(stmt, 1, 1, false);
+            insertAuction(stmt, 1, 1, false);
+            insertAuction(stmt, 2, 1, false);
+            insertAuction(stmt, 3, 2, false);
+            // Archive: two in A / Mint, one in A / Used, one in B / Mint.
+            insertAuction(stmt, 1, 1, true);
+            insertAuction(stmt, 2, 1, true);
+            insertAuction(stmt, 1, 2, true);
+            insertAuction(stmt, 3, 1, true);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseManager.close();
+    }
+
+    @Test
+    void testCategoryArchiveCoversAllItemsOfTheCategories() {
+        assertEquals(List.of(5L, 6L), archivedIds(List.of(1L), List.of(1L)));
+        assertEquals(List.of(5L, 6L, 7L), archivedIds(List.of(1L), List.of(1L, 2L)));
+        assertEquals(List.of(5L, 6L, 8L), archivedIds(List.of(1L, 2L), List.of(1L)));
+    }
+
+    @Test
+    void testChangeEventsCarryKeysBeforeAndAfter() throws Exception {
+        List<RepositoryChangeEvent<Auction>> events = new ArrayList<>();
+        auctionRepository.addChangeListener(events::add);
+        CompletableFuture<RepositoryChangeEvent<Auction>> asyncEvent = new CompletableFuture<>();
+        auctionRepository.addAsyncChangeListener(asyncEvent::complete);
+
+        Auction auction = auctionRepository.findById(1L).orElseThrow();
+        auction.setTradingItemId(2L);
+        auctionRepository.save(auction);
+        auctionRepository.delete(1L);
+
+        Map<String, Object> before = Map.of("trading_item_id", 1L, "condition_id", 1L);
+        Map<String, Object> after = Map.of("trading_item_id", 2L, "condition_id", 1L);
+        assertEquals(List.of(
+                new RepositoryChangeEvent<>(Auction.class, 1L, RepositoryChangeEvent.Operation.UPDATE, before, after),
+                new RepositoryChangeEvent<>(Auction.class, 1L, RepositoryChangeEvent.Operation.DELETE, after,
+                        Map.of())), events);
+        assertEquals(events.getFirst(), asyncEvent.get(5, TimeUnit.SECONDS));
+    }
+
+    private List<Long> archivedIds(List<Long> categoryIds, List<Long> conditionIds) {
+        return auctionRepository.findArchivedByCategoriesAndConditions(categoryIds, conditionIds).stream()
+                .map(Auction::getId)
+                .sorted()
+                .toList();
+    }
+
+    private static void insertAuction(Statement stmt, int tradingItemId, int conditionId, boolean archived)
+            throws SQLException {
+        stmt.execute("INSERT INTO auctions (auction_house_id, trading_item_id, condition_id, lot_id, url, " +
+                "currency_code, end_date, archived) VALUES (1, " + tradingItemId + ", " + conditionId +
+                ", 'LOT', 'https://example.com', 'EUR', 0, " + (archived ? 1 : 0) + ")");
+    }
+}
@@ -0,0 +1,157 @@
+package com.philabid.database;
+
+import com.philabid.database.pool.ConnectionPoolSettings;
+import com.philabid.database.util.query.CompiledQuery;
+import com.philabid.database.util.query.QueryField;
+import com.philabid.database.util.query.RowContext;
+import com.philabid.database.util.query.RowMapper;
+import com.philabid.model.Auction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares name-based and index-based mapping of a full auctions scan.
+ * Run with {@code -Dphilabid.benchmark=true}; the rows/sec figures are logged.
+ */
+@EnabledIfSystemProperty(named = "philabid.benchmark", matches = "true")
+class AuctionScanBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(AuctionScanBenchmarkTest.class);
+    private static final int AUCTIONS = 100_000;
+    private static final int ITEMS = 1_000;
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager databaseManager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        databaseManager = new DatabaseManager(tempDir.resolve("benchmark.db").toString(),
+                ConnectionPoolSettings.DEFAULTS);
+        databaseManager.initialize();
+        populate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseManager.close();
+    }
+
+    @Test
+    void benchmarkAuctionScan() throws SQLException {
+        AuctionRepository repository = new AuctionRepository(databaseManager);
+        CompiledQuery<Auction> query = repository.newQuery().compile();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Auction> byName = new ArrayList<>(AUCTIONS);
+            long byNameNanos = scan(query.sql(), rs -> {
+                while (rs.next()) {
+                    Auction auction = new Auction();
+                    for (QueryField<Auction, ?> field : query.fields()) {
+                        field.mapToEntity(rs, auction);
+                    }
+                    byName.add(auction);
+                }
+            });
+
+            List<Auction> byIndex = new ArrayList<>(AUCTIONS);
+            long byIndexNanos = scan(query.sql(), rs -> {
+                RowMapper<Auction> rowMapper = RowMapper.compile(query.fields(), rs);
+                RowContext row = rowMapper.newRowContext();
+                while (rs.next()) {
+                    Auction auction = new Auction();
+                    rowMapper.map(rs, row, auction);
+                    byIndex.add(auction);
+                }
+            });
+
+            assertEquals(AUCTIONS, byName.size());
+            assertEquals(AUCTIONS, byIndex.size());
+            assertEquals(byName.getLast().getCurrentPrice(), byIndex.getLast().getCurrentPrice());
+            assertEquals(byName.getLast().getCatalogValue(), byIndex.getLast().getCatalogValue());
+            logger.info("Round {}: by name {} rows/s, by index {} rows/s", round + 1,
+                    Math.round(rowsPerSecond(byNameNanos)), Math.round(rowsPerSecond(byIndexNanos)));
+        }
+    }
+
+    private long scan(String sql, ResultSetConsumer consumer) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            consumer.accept(rs);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static double rowsPerSecond(long nanos) {
+        return AUCTIONS / (nanos / 1_000_000_000.0);
+    }
+
+    private void populate() throws SQLException {
+        long now = System.currentTimeMillis();
+        try (Connection conn = databaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            new TestCatalog("EUR")
+                    .seller("seller", "Seller")
+                    .category("Category", "C")
+                    .condition("Mint", "MNH")
+                    .insert(stmt);
+            try (PreparedStatement item = conn.prepareStatement(
+                    "INSERT INTO trading_items (category_id, catalog_number, order_number) VALUES (1, ?, ?)");
+                 PreparedStatement value = conn.prepareStatement(
+                         "INSERT INTO catalog_values (trading_item_id, condition_id, catalog_id, value, " +
+                                 "currency_code) VALUES (?, 1, 1, ?, 'PLN')")) {
+                for (int i = 1; i <= ITEMS; i++) {
+                    item.setString(1, String.valueOf(i));
+                    item.setInt(2, i);
+                    item.addBatch();
+                    value.setInt(1, i);
+                    value.setDouble(2, i * 1.5);
+                    value.addBatch();
+                }
+                item.executeBatch();
+                value.executeBatch();
+            }
+            try (PreparedStatement auction = conn.prepareStatement(
+                    "INSERT INTO auctions (auction_house_id, seller_id, trading_item_id, condition_id, lot_id, url, " +
+                            "starting_price, current_price, max_bid, currency_code, end_date, archived, " +
+                            "created_at, updated_at) VALUES (1, 1, ?, 1, ?, 'https://example.com', ?, ?, ?, 'EUR', " +
+                            "?, ?, ?, ?)")) {
+                for (int i = 0; i < AUCTIONS; i++) {
+                    auction.setInt(1, i % ITEMS + 1);
+                    auction.setString(2, "LOT-" + i);
+                    auction.setDouble(3, 1.0);
+                    auction.setDouble(4, 10.0 + i % 100);
+                    auction.setDouble(5, 20.0);
+                    auction.setLong(6, now + i);
+                    auction.setBoolean(7, i % 2 == 0);
+                    auction.setLong(8, now);
+                    auction.setLong(9, now);
+                    auction.addBatch();
+                }
+                auction.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultSetConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,222 @@
+package com.philabid.database;
+
+import com.philabid.database.pool.ConnectionPoolSettings;
+import com.philabid.database.util.query.Page;
+import com.philabid.database.util.query.PageKey;
+import com.philabid.database.util.query.QueryOrder;
+import com.philabid.model.Seller;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CrudRepository bulk operations, streaming and paging.
+ */
+class CrudRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager databaseManager;
+    private SellerRepository sellerRepository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // A batch size of 2 makes every bulk operation below span several JDBC batches.
+        databaseManager = new DatabaseManager(tempDir.resolve("crud.db").toString(), ConnectionPoolSettings.DEFAULTS,
+                2);
+        databaseManager.initialize();
+        sellerRepository = new SellerRepository(databaseManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseManager.close();
+    }
+
+    @Test
+    void testSaveAllAssignsGeneratedIdsInOrder() {
+        sellerRepository.save(seller("existing"));
+        List<Seller> sellers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sellers.add(seller("seller" + i));
+        }
+
+        assertTrue(sellerRepository.saveAll(sellers).isPresent());
+
+        for (Seller seller : sellers) {
+            assertNotNull(seller.getId());
+            assertEquals(seller.getName(), sellerRepository.findById(seller.getId()).orElseThrow().getName());
+        }
+    }
+
+    @Test
+    void testSaveAllUpdatesExistingEntities() {
+        List<Seller> sellers = List.of(seller("a"), seller("b"), seller("c"));
+        sellerRepository.saveAll(sellers);
+
+        sellers.forEach(seller -> seller.setName(seller.getName().toUpperCase()));
+        List<Seller> mixed = new ArrayList<>(sellers);
+        mixed.add(seller("d"));
+        assertTrue(sellerRepository.saveAll(mixed).isPresent());
+
+        assertEquals(List.of("A", "B", "C", "d"),
+                sellerRepository.findAll(List.of()).stream().map(Seller::getName).toList());
+    }
+
+    @Test
+    void testSaveAllRollsBackOnFailure() {
+        // sellers.name is NOT NULL, so the last row fails and nothing may be committed.
+        List<Seller> sellers = List.of(seller("a"), seller("b"), seller(null));
+
+        assertTrue(sellerRepository.saveAll(sellers).isEmpty());
+
+        assertTrue(sellerRepository.findAll(List.of()).isEmpty());
+        assertNull(sellers.getFirst().getId());
+    }
+
+    @Test
+    void testSaveUpdatesOnOneConnection() {
+        Seller seller = sellerRepository.save(seller("a")).orElseThrow();
+        sellerRepository.addChangeListener(event -> {
+        });
+        long acquisitionsBefore = databaseManager.getPoolMetrics().snapshot().acquisitions();
+
+        seller.setName("b");
+        assertTrue(sellerRepository.save(seller).isPresent());
+        assertEquals(acquisitionsBefore + 1, databaseManager.getPoolMetrics().snapshot().acquisitions());
+
+        // sellers.name is NOT NULL, so the update fails and is reported as not saved.
+        seller.setName(null);
+        assertTrue(sellerRepository.save(seller).isEmpty());
+        assertEquals("b", sellerRepository.findById(seller.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void testSaveReportsFailedInsert() {
+        // sellers.name is NOT NULL, so the insert fails and is reported as not saved.
+        Seller seller = seller(null);
+
+        assertTrue(sellerRepository.save(seller).isEmpty());
+        assertNull(seller.getId());
+        assertTrue(sellerRepository.findAll(List.of()).isEmpty());
+    }
+
+    @Test
+    void testDeleteAll() {
+        List<Seller> sellers = List.of(seller("a"), seller("b"), seller("c"));
+        sellerRepository.saveAll(sellers);
+
+        assertTrue(sellerRepository.deleteAll(List.of(sellers.get(0).getId(), sellers.get(2).getId())));
+        assertFalse(sellerRepository.deleteAll(List.of(sellers.get(0).getId())));
+
+        assertEquals(List.of("b"), sellerRepository.findAll(List.of()).stream().map(Seller::getName).toList());
+    }
+
+    @Test
+    void testWritesRaiseDataGeneration() {
+        long generation = databaseManager.getDataGeneration();
+        Seller seller = sellerRepository.save(seller("a")).orElseThrow();
+        assertTrue(databaseManager.getDataGeneration() > generation);
+
+        generation = databaseManager.getDataGeneration();
+        sellerRepository.findAll(List.of());
+        assertFalse(sellerRepository.saveAll(List.of(seller(null))).isPresent());
+        assertEquals(generation, databaseManager.getDataGeneration());
+
+        assertTrue(sellerRepository.delete(seller.getId()));
+        assertTrue(databaseManager.getDataGeneration() > generation);
+    }
+
+    @Test
+    void testStreamReadsLazilyAndReleasesConnection() {
+        sellerRepository.saveAll(List.of(seller("a"), seller("b"), seller("c")));
+        long acquisitionsBefore = databaseManager.getPoolMetrics().snapshot().acquisitions();
+
+        try (Stream<Seller> sellers = sellerRepository.stream(List.of(),
+                List.of(new QueryOrder("sellers", "name", QueryOrder.Direction.DESC)))) {
+            assertEquals(List.of("c", "b"), sellers.limit(2).map(Seller::getName).toList());
+        }
+
+        assertEquals(acquisitionsBefore + 1, databaseManager.getPoolMetrics().snapshot().acquisitions());
+        // The connection went back to the pool, so the next query reuses it.
+        assertEquals(3, sellerRepository.findAll(List.of()).size());
+    }
+
+    @Test
+    void testFindPageWalksAllRowsWithDuplicateKeys() {
+        List<Seller> sellers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Seller seller = seller("name" + i % 3);
+            seller.setContactEmail("mail" + i % 2);
+            sellers.add(seller);
+        }
+        sellerRepository.saveAll(sellers);
+
+        List<List<QueryOrder>> orderings = List.of(
+                List.of(new QueryOrder("sellers", "name", QueryOrder.Direction.ASC)),
+                List.of(new QueryOrder("sellers", "name", QueryOrder.Direction.ASC),
+                        new QueryOrder("sellers", "contact_email", QueryOrder.Direction.DESC)));
+        for (List<QueryOrder> orders : orderings) {
+            List<Seller> expected = new ArrayList<>(sellerRepository.findAll(List.of(), orders));
+            List<Seller> paged = new ArrayList<>();
+            PageKey afterKey = null;
+            do {
+                Page<Seller> page = sellerRepository.findPage(List.of(), afterKey, 3, orders);
+                paged.addAll(page.items());
+                afterKey = page.nextKey();
+            } while (afterKey != null);
+
+            assertEquals(expected.stream().map(Seller::getName).toList(), paged.stream().map(Seller::getName).toList());
+            assertEquals(7, paged.stream().map(Seller::getId).distinct().count());
+        }
+    }
+
+    @Test
+    void testFindPageWalksAllRowsOrderedByNullableColumn() {
+        List<Seller> sellers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Seller seller = seller("name" + i % 2);
+            seller.setContactEmail(i % 3 == 0 ? null : "mail" + i % 3);
+            sellers.add(seller);
+        }
+        sellerRepository.saveAll(sellers);
+
+        for (QueryOrder.Direction direction : QueryOrder.Direction.values()) {
+            List<List<QueryOrder>> orderings = List.of(
+                    List.of(new QueryOrder("sellers", "contact_email", direction, true)),
+                    List.of(new QueryOrder("sellers", "name", QueryOrder.Direction.ASC),
+                            new QueryOrder("sellers", "contact_email", direction, true)));
+            for (List<QueryOrder> orders : orderings) {
+                List<QueryOrder> withId = new ArrayList<>(orders);
+                withId.add(new QueryOrder("sellers", "id", direction));
+                List<Seller> expected = new ArrayList<>(sellerRepository.findAll(List.of(), withId));
+                List<Seller> paged = new ArrayList<>();
+                PageKey afterKey = null;
+                do {
+                    Page<Seller> page = sellerRepository.findPage(List.of(), afterKey, 2, orders);
+                    paged.addAll(page.items());
+                    afterKey = page.nextKey();
+                } while (afterKey != null);
+
+                assertEquals(expected.stream().map(Seller::getId).toList(), paged.stream().map(Seller::getId).toList());
+                assertEquals(7, paged.size());
+            }
+        }
+    }
+
+    private static Seller seller(String name) {
+        Seller seller = new Seller();
+        seller.setName(name);
+        return seller;
+    }
+}
@@ -0,0 +1,125 @@
+package com.philabid.database;
+
+import com.philabid.database.pool.ConnectionPoolSettings;
+import com.philabid.database.util.FullTextFilterCondition;
+import com.philabid.database.util.FullTextIndex;
+import com.philabid.model.Auction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the full-text search tables, their triggers and {@link FullTextFilterCondition}.
+ */
+class FullTextSearchTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager databaseManager;
+    private AuctionRepository auctionRepository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        databaseManager = new DatabaseManager(tempDir.resolve("search.db").toString(), ConnectionPoolSettings.DEFAULTS);
+        databaseManager.initialize();
+        auctionRepository = new AuctionRepository(databaseManager);
+
+        new TestCatalog("EUR")
+                .seller("stampdealer", "John Smith")
+                .category("Definitives", "DEF")
+                .category("Airmail", "AIR")
+                .condition("Mint", "MNH")
+                .tradingItem(1, "123a")
+                .tradingItem(2, "7")
+                .insert(databaseManager);
+        execute(auctionSql(1, "LOT-100", "NULL"),
+                auctionSql(2, "lot-200", "1"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseManager.close();
+    }
+
+    @Test
+    void testMatchesEveryWordInAnyColumn() {
+        assertEquals(List.of("LOT-100"), search("123"));
+        assertEquals(List.of("LOT-100"), search("def 123A"));
+        assertEquals(List.of("lot-200"), search("smith"));
+        assertEquals(List.of("LOT-100", "lot-200"), search("lot"));
+        assertEquals(List.of(), search("def smith"));
+    }
+
+    @Test
+    void testShortWordsFallBackToLike() {
+        assertEquals(List.of("lot-200"), search("7"));
+        assertEquals(List.of("lot-200"), search("air 7"));
+        assertEquals(List.of("LOT-100", "lot-200"), search("lo 0"));
+    }
+
+    @Test
+    void testSearchSyntaxIsTakenLiterally() {
+        assertEquals(List.of(), search("\"lot OR"));
+        assertEquals(List.of(), search("lot*"));
+    }
+
+    @Test
+    void testTriggersKeepIndexInSync() throws SQLException {
+        execute("UPDATE categories SET code = 'ORD' WHERE id = 1",
+                "UPDATE sellers SET full_name = 'Jane Doe' WHERE id = 1",
+                "UPDATE trading_items SET catalog_number = '7b' WHERE id = 2",
+                auctionSql(1, "LOT-300", "1"));
+
+        assertEquals(List.of("LOT-100", "LOT-300"), search("ord"));
+        assertEquals(List.of("LOT-300", "lot-200"), search("doe"));
+        assertEquals(List.of("lot-200"), search("7b"));
+
+        execute("UPDATE auctions SET seller_id = NULL, lot_id = 'X-1' WHERE lot_id = 'lot-200'",
+                "DELETE FROM auctions WHERE lot_id = 'LOT-100'");
+
+        assertEquals(List.of("LOT-300"), search("doe"));
+        assertEquals(List.of("LOT-300"), search("ord"));
+        assertEquals(List.of("X-1"), search("7b"));
+        assertEquals(1, count("SELECT COUNT(*) FROM trading_item_search WHERE trading_item_search MATCH '\"ord\"'"));
+    }
+
+    private List<String> search(String text) {
+        return auctionRepository.findAll(List.of(new FullTextFilterCondition(FullTextIndex.AUCTIONS, "a.id", text)))
+                .stream()
+                .map(Auction::getLotId)
+                .sorted()
+                .toList();
+    }
+
+    private static String auctionSql(int tradingItemId, String lotId, String sellerId) {
+        return "INSERT INTO auctions (auction_house_id, seller_id, trading_item_id, condition_id, lot_id, url, " +
+                "currency_code, end_date, archived) VALUES (1, " + sellerId + ", " + tradingItemId + ", 1, '" +
+                lotId + "', 'https://example.com', 'EUR', 0, 0)";
+    }
+
+    private void execute(String... sqls) throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : sqls) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            return stmt.executeQuery(sql).getInt(1);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.philabid.database;
+
+import com.philabid.database.pool.ConnectionPoolSettings;
+import com.philabid.database.util.FullTextFilterCondition;
+import com.philabid.database.util.FullTextIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.money.Monetary;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the access paths of the hot lookup queries: every query the repositories issue is run through
+ * {@code EXPLAIN QUERY PLAN} and must reach every table through an index rather than a full scan.
+ */
+class QueryPlanTest {
+    private static final Pattern SCAN = Pattern.compile("^SCAN (\\w++)(?! USING (COVERING )?INDEX| VIRTUAL TABLE)");
+
+    @TempDir
+    Path tempDir;
+
+    private RecordingDatabaseManager databaseManager;
+    private AuctionRepository auctionRepository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        databaseManager = new RecordingDatabaseManager(tempDir.resolve("plan.db").toString());
+        databaseManager.initialize();
+        auctionRepository = new AuctionRepository(databaseManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseManager.close();
+    }
+
+    @Test
+    void testAuctionListsUseArchivedIndex() throws SQLException {
+        assertNoScans(() -> auctionRepository.findAllActive(List.of()));
+        assertNoScans(() -> auctionRepository.findAllArchived(List.of()));
+        assertNoScans(() -> auctionRepository.findArchivedPage(List.of(), null, 100, List.of()));
+    }
+
+    @Test
+    void testAuctionLookupsUseIndexes() throws SQLException {
+        assertNoScans(() -> auctionRepository.findById(1L));
+        assertNoScans(() -> auctionRepository.findArchivedByItemAndCondition(1L, 1L));
+        assertNoScans(() -> auctionRepository.findActiveByItemAndCondition(1L, 1L));
+        assertNoScans(() -> auctionRepository.findByAuctionHouseAndLotId(1L, "LOT-1"));
+    }
+
+    @Test
+    void testEnrichmentLookupsUseIndexes() throws SQLException {
+        assertPlanUses("idx_auctions_item_archived_condition",
+                () -> auctionRepository.findActiveByTradingItems(List.of(1L, 2L)));
+        assertPlanUses("idx_auctions_item_archived_condition",
+                () -> auctionRepository.findArchivedByCategoriesAndConditions(List.of(1L, 2L), List.of(1L)));
+    }
+
+    @Test
+    void testFullTextSearchLooksUpRowsById() throws SQLException {
+        assertNoScans(() -> auctionRepository.findAllActive(
+                List.of(new FullTextFilterCondition(FullTextIndex.AUCTIONS, "a.id", "lot 12"))));
+        assertNoScans(() -> new TradingItemRepository(databaseManager).findAll(
+                List.of(new FullTextFilterCondition(FullTextIndex.TRADING_ITEMS, "ti.id", "123a"))));
+        assertNoScans(() -> new CatalogValueRepository(databaseManager).findAll(
+                List.of(new FullTextFilterCondition(FullTextIndex.TRADING_ITEMS, "cv.trading_item_id", "123a"))));
+    }
+
+    @Test
+    void testCatalogValueAndExchangeRateLookupsUseIndexes() throws SQLException {
+        CatalogValueRepository catalogValueRepository = new CatalogValueRepository(databaseManager);
+        ExchangeRateRepository exchangeRateRepository = new ExchangeRateRepository(databaseManager);
+
+        assertNoScans(() -> catalogValueRepository.findByTradingItemAndCondition(1L, 1L));
+        assertNoScans(() -> exchangeRateRepository.findRate(LocalDate.of(2024, 1, 1),
+                Monetary.getCurrency("EUR"), Monetary.getCurrency("PLN")));
+    }
+
+    private void assertNoScans(QueryRunner runner) throws SQLException {
+        databaseManager.statements.clear();
+        try {
+            runner.run();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        assertFalse(databaseManager.statements.isEmpty(), "no query was issued");
+
+        for (String sql : List.copyOf(databaseManager.statements)) {
+            List<String> plan = explain(sql);
+            for (String step : plan) {
+                assertFalse(SCAN.matcher(step).find(), "full scan in plan " + plan + " of query " + sql);
+            }
+        }
+    }
+
+    private void assertPlanUses(String indexName, QueryRunner runner) throws SQLException {
+        assertNoScans(runner);
+        for (String sql : List.copyOf(databaseManager.statements)) {
+            List<String> plan = explain(sql);
+            assertTrue(plan.getFirst().contains(indexName), "plan " + plan + " does not start with " + indexName);
+        }
+    }
+
+    private List<String> explain(String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+        }
+        return plan;
+    }
+
+    @FunctionalInterface
+    private interface QueryRunner {
+        void run() throws Exception;
+    }
+
+    /**
+     * Records the SQL of every statement prepared through its connections.
+     */
+    private static final class RecordingDatabaseManager extends DatabaseManager {
+        private static final Set<String> IGNORED_PREFIXES = Set.of("EXPLAIN", "INSERT", "UPDATE", "DELETE");
+        private final List<String> statements = new ArrayList<>();
+
+        private RecordingDatabaseManager(String databaseFile) {
+            super(databaseFile, ConnectionPoolSettings.DEFAULTS);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("prepareStatement")) {
+                            String sql = (String) args[0];
+                            if (IGNORED_PREFIXES.stream().noneMatch(sql::startsWith)) {
+                                statements.add(sql);
+                            }
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.philabid.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rows auctions refer to, for seeding test databases: one auction house, one catalog, and the sellers,
+ * categories, conditions and trading items a test adds. Ids follow the order in which rows of a table are added,
+ * starting at 1.
+ */
+public class TestCatalog {
+
+    private final List<String> sqls = new ArrayList<>();
+    private int categoryCount;
+    private int tradingItemCount;
+
+    /**
+     * @param auctionHouseCurrency The currency of the auction house.
+     */
+    public TestCatalog(String auctionHouseCurrency) {
+        sqls.add("INSERT INTO auction_houses (name, currency) VALUES ('House', '" + auctionHouseCurrency + "')");
+        sqls.add("INSERT INTO catalogs (name, issue_year, currency_code) VALUES ('Catalog', 2024, 'PLN')");
+    }
+
+    public TestCatalog seller(String name, String fullName) {
+        sqls.add("INSERT INTO sellers (name, full_name) VALUES ('" + name + "', '" + fullName + "')");
+        return this;
+    }
+
+    public TestCatalog category(String name, String code) {
+        sqls.add("INSERT INTO categories (name, code, catalog_id, order_number) VALUES ('" + name + "', '" + code +
+                "', 1, " + ++categoryCount + ")");
+        return this;
+    }
+
+    public TestCatalog condition(String name, String code) {
+        sqls.add("INSERT INTO conditions (name, code) VALUES ('" + name + "', '" + code + "')");
+        return this;
+    }
+
+    public TestCatalog tradingItem(int categoryId, String catalogNumber) {
+        sqls.add("INSERT INTO trading_items (category_id, catalog_number, order_number) VALUES (" + categoryId +
+                ", '" + catalogNumber + "', " + ++tradingItemCount + ")");
+        return this;
+    }
+
+    public void insert(Statement stmt) throws SQLException {
+        for (String sql : sqls) {
+            stmt.execute(sql);
+        }
+    }
+
+    public void insert(DatabaseManager databaseManager) throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            insert(stmt);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.philabid.database;
+
+import com.philabid.database.pool.ConnectionPoolSettings;
+import com.philabid.database.ValuationStatsRepository.CategoryPercentageChange;
+import com.philabid.database.ValuationStatsRepository.CategoryPercentageTotal;
+import com.philabid.model.Valuation;
+import com.philabid.util.MultiCurrencyMonetaryAmount;
+import org.javatuples.Pair;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for the {@code valuation_stats} triggers and {@link ValuationStatsRepository}.
+ */
+class ValuationStatsRepositoryTest {
+
+    private static final CurrencyUnit PLN = Monetary.getCurrency("PLN");
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+    private static final double MULTIPLIER = 3.0;
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager databaseManager;
+    private ValuationStatsRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        databaseManager = new DatabaseManager(tempDir.resolve("stats.db").toString(), ConnectionPoolSettings.DEFAULTS);
+        databaseManager.initialize();
+        repository = new ValuationStatsRepository(databaseManager);
+
+        new TestCatalog("PLN")
+                .category("Definitives", "DEF")
+                .condition("Mint", "MNH")
+                .condition("Used", "U")
+                .tradingItem(1, "1")
+                .tradingItem(1, "2")
+                .insert(databaseManager);
+        execute(auctionSql(1, 1, "10", "PLN", 0.5),
+                auctionSql(1, 1, "30", "PLN", 1.5),
+                auctionSql(2, 2, "5", "PLN", 4.0),
+                "INSERT INTO catalog_values (trading_item_id, condition_id, catalog_id, value, currency_code) " +
+                        "VALUES (1, 1, 1, 20, 'PLN')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseManager.close();
+    }
+
+    @Test
+    void testChangesMarkRowsStale() throws SQLException {
+        assertEquals(List.of(Pair.with(1L, 1L), Pair.with(2L, 2L)), staleKeys(TODAY));
+
+        repository.saveStats(List.of(valuation(1, 1), valuation(2, 2)), TODAY, PLN, MULTIPLIER);
+        assertEquals(List.of(), staleKeys(TODAY));
+        assertEquals(List.of(), staleKeys(TODAY.plusDays(1)));
+
+        execute("UPDATE auctions SET current_price = 12 WHERE id = 1");
+        assertEquals(List.of(Pair.with(1L, 1L)), staleKeys(TODAY));
+
+        repository.saveStats(List.of(valuation(1, 1)), TODAY, PLN, MULTIPLIER);
+        execute("UPDATE auctions SET condition_id = 1 WHERE id = 3");
+        assertEquals(List.of(Pair.with(2L, 1L), Pair.with(2L, 2L)), staleKeys(TODAY));
+        assertEquals(List.of(Pair.with(1L, 1L), Pair.with(2L, 1L), Pair.with(2L, 2L)),
+                repository.findStaleKeys(TODAY, Monetary.getCurrency("EUR"), MULTIPLIER).stream().sorted().toList());
+    }
+
+    @Test
+    void testRowsWithForeignAmountsExpireDaily() throws SQLException {
+        execute(auctionSql(2, 2, "2", "EUR", null));
+        repository.saveStats(List.of(valuation(1, 1), valuation(2, 2)), TODAY, PLN, MULTIPLIER);
+
+        assertEquals(List.of(), staleKeys(TODAY));
+        assertEquals(List.of(Pair.with(2L, 2L)), staleKeys(TODAY.plusDays(1)));
+    }
+
+    @Test
+    void testDeleteOrphans() throws SQLException {
+        repository.saveStats(List.of(valuation(1, 1), valuation(2, 2)), TODAY, PLN, MULTIPLIER);
+        execute("DELETE FROM auctions WHERE trading_item_id = 1",
+                "DELETE FROM auctions WHERE trading_item_id = 2");
+
+        assertEquals(1, repository.deleteOrphans());
+        assertEquals(List.of(Pair.with(1L, 1L)), staleKeys(TODAY));
+    }
+
+    @Test
+    void testComputeStats() throws SQLException {
+        execute(auctionSql(1, 1, "5", "EUR", null),
+                auctionSql(1, 1, "100", "PLN", null),
+                "INSERT INTO catalog_values (trading_item_id, condition_id, catalog_id, value, currency_code) " +
+                        "VALUES (2, 1, 1, 20, 'PLN')");
+
+        Map<Pair<Long, Long>, Valuation> valuations = repository.computeStats(List.of(1L, 2L),
+                        Map.of(Monetary.getCurrency("EUR"), new BigDecimal("4.0000")), PLN, MULTIPLIER)
+                .stream()
+                .collect(Collectors.toMap(v -> Pair.with(v.getTradingItemId(), v.getConditionId()), v -> v));
+
+        // 10, 20 (5 EUR) and 30 PLN are within three times the catalog value, 100 PLN only counts for the median.
+        Valuation valuation = valuations.get(Pair.with(1L, 1L));
+        assertEquals(3, valuation.getAuctionCount());
+        assertAmount("20", valuation.getAveragePrice());
+        assertAmount("25", valuation.getMedianPrice());
+        assertAmount("10", valuation.getMinPrice());
+        assertAmount("30", valuation.getMaxPrice());
+
+        valuation = valuations.get(Pair.with(2L, 2L));
+        assertEquals(1, valuation.getAuctionCount());
+        assertAmount("5", valuation.getMedianPrice());
+
+        valuation = valuations.get(Pair.with(2L, 1L));
+        assertNull(valuation.getAuctionCount());
+        assertNull(valuation.getMedianPrice());
+        assertEquals(3, valuations.size());
+
+        assertEquals(Set.of(PLN, Monetary.getCurrency("EUR")), repository.findCurrencies(List.of(1L, 2L)));
+        assertEquals(Set.of(PLN), repository.findCurrencies(List.of(2L)));
+    }
+
+    @Test
+    void testCategoryPercentageTotals() throws SQLException {
+        Pair<Long, List<CategoryPercentageTotal>> totals = repository.findCategoryPercentageTotals(MULTIPLIER);
+
+        // The setup already logged its three archived auctions.
+        assertEquals(Pair.with(3L, List.of(new CategoryPercentageTotal(1L, 1L, 2_000_000, 2))), totals);
+    }
+
+    @Test
+    void testTriggersLogCategoryPercentageChanges() throws SQLException {
+        repository.deleteCategoryPercentageChanges(3);
+        execute("INSERT INTO categories (name, code, catalog_id, order_number) VALUES ('Airmail', 'AIR', 1, 2)",
+                auctionSql(2, 1, "NULL", "PLN", 0.8),
+                "UPDATE auctions SET current_price = 8 WHERE id = 4",
+                "UPDATE auctions SET archived_catalog_value_percentage = 0.7 WHERE id = 1",
+                "UPDATE auctions SET lot_id = 'LOT-1' WHERE id = 1",
+                "UPDATE trading_items SET category_id = 2 WHERE id = 2",
+                "DELETE FROM auctions WHERE id = 2");
+
+        assertEquals(List.of(
+                        new CategoryPercentageChange(4, 1L, 1L, 0.8, 800_000, 1),
+                        new CategoryPercentageChange(5, 1L, 1L, 0.5, 500_000, -1),
+                        new CategoryPercentageChange(6, 1L, 1L, 0.7, 700_000, 1),
+                        new CategoryPercentageChange(7, 1L, 1L, 0.8, 800_000, -1),
+                        new CategoryPercentageChange(8, 1L, 2L, 4.0, 4_000_000, -1),
+                        new CategoryPercentageChange(9, 2L, 1L, 0.8, 800_000, 1),
+                        new CategoryPercentageChange(10, 2L, 2L, 4.0, 4_000_000, 1),
+                        new CategoryPercentageChange(11, 1L, 1L, 1.5, 1_500_000, -1)),
+                repository.findCategoryPercentageChanges(0));
+        assertEquals(11L, repository.findCategoryPercentageTotals(MULTIPLIER).getValue0());
+        assertEquals(11L, repository.findLastCategoryPercentageChangeId());
+
+        repository.deleteCategoryPercentageChanges(9);
+        assertEquals(List.of(10L, 11L),
+                repository.findCategoryPercentageChanges(0).stream().map(CategoryPercentageChange::id).toList());
+    }
+
+    private static void assertAmount(String expected, MultiCurrencyMonetaryAmount amount) {
+        assertEquals(0, new BigDecimal(expected).compareTo(
+                amount.originalAmount().getNumber().numberValue(BigDecimal.class)), () -> expected + " != " + amount);
+        assertEquals(PLN, amount.getOriginalCurrency());
+    }
+
+    private List<Pair<Long, Long>> staleKeys(LocalDate today) throws SQLException {
+        return repository.findStaleKeys(today, PLN, MULTIPLIER).stream().sorted().toList();
+    }
+
+    private static Valuation valuation(long tradingItemId, long conditionId) {
+        Valuation valuation = new Valuation();
+        valuation.setTradingItemId(tradingItemId);
+        valuation.setConditionId(conditionId);
+        valuation.setAuctionCount(1);
+        valuation.setAveragePrice(Money.of(10, PLN));
+        return valuation;
+    }
+
+    private static String auctionSql(int tradingItemId, int conditionId, String price, String currency,
+                                     Double percentage) {
+        return "INSERT INTO auctions (auction_house_id, trading_item_id, condition_id, lot_id, url, currency_code, " +
+                "current_price, end_date, archived, archived_catalog_value_percentage) VALUES (1, " + tradingItemId +
+                ", " + conditionId + ", 'LOT', 'https://example.com', '" + currency + "', " + price + ", 0, 1, " +
+                percentage + ")";
+    }
+
+    private void execute(String... sqls) throws SQLException {
+        try (Connection conn = databaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : sqls) {
+                stmt.execute(sql);
+            }
+        }
+    }
+}
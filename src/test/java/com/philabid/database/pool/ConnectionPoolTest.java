@@ -0,0 +1,149 @@
+package com.philabid.database.pool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ConnectionPool functionality.
+ */
+class ConnectionPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionPoolSettings settings =
+                new ConnectionPoolSettings(2, 100, "WAL", "NORMAL", 0, -2000, "MEMORY", 1000, 8);
+        pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("pool.db"), settings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testPhysicalConnectionIsReused() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+
+        ConnectionPoolMetrics.Snapshot snapshot = pool.getMetrics().snapshot();
+        assertEquals(2, snapshot.acquisitions());
+        assertEquals(1, snapshot.physicalConnectionsOpened());
+    }
+
+    @Test
+    void testPragmasAreApplied() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            assertEquals("wal", queryString(stmt, "PRAGMA journal_mode"));
+            assertEquals("1", queryString(stmt, "PRAGMA synchronous"));
+            assertEquals("2", queryString(stmt, "PRAGMA temp_store"));
+            assertEquals("1000", queryString(stmt, "PRAGMA busy_timeout"));
+        }
+    }
+
+    @Test
+    void testClosedLeaseCannotBeUsed() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+    }
+
+    @Test
+    void testNestedAcquisitionOverflowsInsteadOfBlocking() throws SQLException {
+        try (Connection first = pool.getConnection();
+             Connection second = pool.getConnection();
+             Connection third = pool.getConnection()) {
+            assertNotSame(first, second);
+            assertNotSame(second, third);
+        }
+
+        ConnectionPoolMetrics.Snapshot snapshot = pool.getMetrics().snapshot();
+        assertEquals(3, snapshot.acquisitions());
+        assertEquals(1, snapshot.overflowConnections());
+    }
+
+    @Test
+    void testUncommittedTransactionIsRolledBackOnRelease() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (v INTEGER)");
+        }
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.execute("INSERT INTO t VALUES (1)");
+        }
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            assertTrue(conn.getAutoCommit());
+            assertEquals("0", queryString(stmt, "SELECT COUNT(*) FROM t"));
+        }
+    }
+
+    @Test
+    void testPreparedStatementsAreCachedPerConnection() throws SQLException {
+        String sql = "SELECT ?";
+        for (int i = 0; i < 2; i++) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement outer = conn.prepareStatement(sql)) {
+                outer.setInt(1, i);
+                // The same SQL while the cached statement is in use must get its own statement.
+                try (PreparedStatement nested = conn.prepareStatement(sql)) {
+                    assertNotSame(outer, nested);
+                    nested.setInt(1, 42);
+                    assertEquals("42", queryString(nested));
+                }
+                assertEquals(String.valueOf(i), queryString(outer));
+                assertSame(conn, outer.getConnection());
+            }
+        }
+
+        ConnectionPoolMetrics.Snapshot snapshot = pool.getMetrics().snapshot();
+        assertEquals(1, snapshot.statementCacheHits());
+        assertEquals(3, snapshot.statementCacheMisses());
+    }
+
+    @Test
+    void testInvalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConnectionPoolSettings(4, 100, "WAL; DROP TABLE x", "NORMAL", 0, 0, "MEMORY", 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConnectionPoolSettings(0, 100, "WAL", "NORMAL", 0, 0, "MEMORY", 0, 0));
+    }
+
+    private String queryString(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+
+    private String queryString(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.philabid.service;
+
+import com.philabid.database.AuctionHouseRepository;
+import com.philabid.database.AuctionRepository;
+import com.philabid.database.DatabaseManager;
+import com.philabid.database.ExchangeRateRepository;
+import com.philabid.database.TestCatalog;
+import com.philabid.database.pool.ConnectionPoolSettings;
+import com.philabid.model.Auction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the loading of active auctions by AuctionService. Amounts are in the default currency, so that no exchange
+ * rate is needed.
+ */
+class AuctionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager databaseManager;
+    private AuctionService auctionService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        databaseManager = new DatabaseManager(tempDir.resolve("auctions.db").toString(),
+                ConnectionPoolSettings.DEFAULTS);
+        databaseManager.initialize();
+        ConfigurationService configurationService = new ConfigurationService(tempDir.resolve("config.json"));
+        ExchangeRateService exchangeRateService = new ExchangeRateService(new ExchangeRateRepository(databaseManager),
+                query -> {
+                    throw new IllegalStateException("No rate is needed in the default currency");
+                });
+        auctionService = new AuctionService(new AuctionRepository(databaseManager),
+                new AuctionHouseService(new AuctionHouseRepository(databaseManager), configurationService,
+                        exchangeRateService),
+                new PriceRecommendationService(configurationService, exchangeRateService), exchangeRateService,
+                configurationService);
+        String currency = configurationService.getDefaultCurrency().getCurrencyCode();
+
+        try (Connection conn = databaseManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+            new TestCatalog(currency)
+                    .category("A", "A")
+                    .condition("Mint", "MNH")
+                    .tradingItem(1, "1")
+                    .insert(stmt);
+            // Two lots of the same item and condition, the second one with a winning max bid.
+            stmt.execute("INSERT INTO auctions (auction_house_id, trading_item_id, condition_id, lot_id, url, " +
+                    "currency_code, current_price, end_date, archived) " +
+                    "VALUES (1, 1, 1, 'LOT1', 'https://example.com', '" + currency + "', 10, 0, 0)");
+            stmt.execute("INSERT INTO auctions (auction_house_id, trading_item_id, condition_id, lot_id, url, " +
+                    "currency_code, current_price, max_bid, end_date, archived) " +
+                    "VALUES (1, 1, 1, 'LOT2', 'https://example.com', '" + currency + "', 10, 15, 0, 0)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseManager.close();
+    }
+
+    @Test
+    void testStatusesSeeTheOtherActiveLotsOfTheItem() {
+        Map<String, Auction> auctions = auctionService.getActiveAuctions(List.of()).stream()
+                .collect(Collectors.toMap(Auction::getLotId, auction -> auction));
+
+        assertEquals(2, auctions.size());
+        assertTrue(auctions.get("LOT1").isOtherActiveAuctionWinning());
+        assertFalse(auctions.get("LOT1").isWinningBid());
+        assertTrue(auctions.get("LOT2").isWinningBid());
+        assertFalse(auctions.get("LOT2").isOtherActiveAuctionWinning());
+    }
+}
@@ -0,0 +1,52 @@
+package com.philabid.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link BackgroundTaskService}.
+ */
+class BackgroundTaskServiceTest {
+
+    private final BackgroundTaskService service = new BackgroundTaskService();
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testTracksRunningTasks() throws InterruptedException {
+        AtomicInteger notifications = new AtomicInteger();
+        service.addListener(notifications::incrementAndGet);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> result = service.submit("test", () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        });
+        while (service.getRunningTaskCount() == 0) {
+            Thread.sleep(1);
+        }
+        assertTrue(service.getOldestRunningTaskStart().isPresent());
+        assertTrue(service.getLastTaskDuration().isEmpty());
+
+        release.countDown();
+        assertEquals("done", result.join());
+        assertEquals(0, service.getRunningTaskCount());
+        assertTrue(service.getOldestRunningTaskStart().isEmpty());
+        assertTrue(service.getLastTaskDuration().isPresent());
+        assertEquals(2, notifications.get());
+    }
+}
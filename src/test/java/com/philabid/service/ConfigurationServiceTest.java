@@ -22,9 +22,7 @@ class ConfigurationServiceTest {
     
     @BeforeEach
     void setUp() throws IOException {
-        // Change to temp directory for testing
-        System.setProperty("user.dir", tempDir.toString());
-        configurationService = new ConfigurationService();
+        configurationService = new ConfigurationService(tempDir.resolve("philabid-config.json"));
     }
     
     @Test
@@ -46,6 +44,11 @@ class ConfigurationServiceTest {
         // Test setting and getting integer values
         configurationService.setValue("test.intValue", 42);
         assertEquals(42, configurationService.getInt("test.intValue", 0));
+
+        // Test setting and getting long values beyond the int range
+        configurationService.setValue("test.longValue", 4294967296L);
+        assertEquals(4294967296L, configurationService.getLong("test.longValue", 0));
+        assertEquals(42, configurationService.getLong("test.intValue", 0));
         
         // Test setting and getting boolean values
         configurationService.setValue("test.boolValue", true);
@@ -103,7 +106,7 @@ class ConfigurationServiceTest {
         configurationService.saveConfiguration();
         
         // Create a new service instance (simulating restart)
-        ConfigurationService newService = new ConfigurationService();
+        ConfigurationService newService = new ConfigurationService(tempDir.resolve("philabid-config.json"));
         
         // Verify the value persisted
         assertEquals("persistedValue", newService.getString("test.persistence", "default"));
@@ -0,0 +1,206 @@
+package com.philabid.service;
+
+import com.philabid.database.DatabaseManager;
+import com.philabid.database.ExchangeRateRepository;
+import com.philabid.database.pool.ConnectionPoolSettings;
+import com.philabid.util.ExchangeRateTable;
+import org.javamoney.moneta.convert.ExchangeRateBuilder;
+import org.javamoney.moneta.spi.DefaultNumberValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import javax.money.convert.*;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link ExchangeRateService}, with a stub provider in place of the IMF ones.
+ */
+class ExchangeRateServiceTest {
+
+    private static final CurrencyUnit EUR = Monetary.getCurrency("EUR");
+    private static final CurrencyUnit PLN = Monetary.getCurrency("PLN");
+    private static final CurrencyUnit USD = Monetary.getCurrency("USD");
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager databaseManager;
+    private ExchangeRateRepository repository;
+    private StubRateProvider provider;
+    private ExchangeRateService service;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        databaseManager = new DatabaseManager(tempDir.resolve("rates.db").toString(), ConnectionPoolSettings.DEFAULTS);
+        databaseManager.initialize();
+        repository = new ExchangeRateRepository(databaseManager);
+        provider = new StubRateProvider(Map.of(
+                PLN, Map.of(DAY.minusDays(1), new BigDecimal("4.3"), DAY.minusDays(20), new BigDecimal("4.0")),
+                EUR, Map.of(DAY.minusDays(1), new BigDecimal("0.86"))));
+        service = new ExchangeRateService(repository, query -> provider);
+
+        com.philabid.model.ExchangeRate stored = new com.philabid.model.ExchangeRate();
+        stored.setDate(DAY.minusDays(5));
+        stored.setSourceCurrency(USD);
+        stored.setTargetCurrency(PLN);
+        stored.setRate(new BigDecimal("4.2"));
+        repository.saveRate(stored);
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseManager.close();
+    }
+
+    @Test
+    void testBackfillFetchesMissingDaysAndStoresThemInOneBatch() throws SQLException {
+        service.backfill(List.of(new ExchangeRateRequest(DAY, USD, PLN),
+                new ExchangeRateRequest(DAY.minusDays(3), USD, PLN),
+                new ExchangeRateRequest(DAY.minusDays(18), USD, PLN),
+                new ExchangeRateRequest(DAY, EUR, PLN),
+                new ExchangeRateRequest(DAY, PLN, PLN)));
+
+        // Each request looks up the day before; newer days than the nearest known rate are tried first.
+        assertEquals(Map.of(PLN, List.of(DAY.minusDays(19), DAY.minusDays(20), DAY.minusDays(4), DAY.minusDays(1)),
+                EUR, List.of(DAY.minusDays(1))), provider.queriedDates);
+        assertEquals(Map.of(DAY.minusDays(20), "4.000000",
+                        DAY.minusDays(19), "4.000000",
+                        DAY.minusDays(5), "4.200000",
+                        DAY.minusDays(4), "4.200000",
+                        DAY.minusDays(1), "4.300000"),
+                storedRates(PLN));
+        assertEquals(Map.of(DAY.minusDays(1), "0.860000"), storedRates(EUR));
+
+        provider.queriedDates.clear();
+        assertEquals(0, new BigDecimal("4.3").compareTo(rate(DAY, USD, PLN)));
+        assertEquals(0, new BigDecimal("4.2").compareTo(rate(DAY.minusDays(3), USD, PLN)));
+        assertEquals(0, new BigDecimal("4.0").compareTo(rate(DAY.minusDays(18), USD, PLN)));
+        assertEquals(Map.of(), provider.queriedDates);
+    }
+
+    @Test
+    void testDerivesCrossRatesFromPivotRates() {
+        assertEquals(0, new BigDecimal("5").compareTo(rate(DAY, EUR, PLN)));
+        assertEquals(0, new BigDecimal("0.2").compareTo(rate(DAY, PLN, EUR)));
+        assertEquals(0, new BigDecimal("1.162791").compareTo(rate(DAY, EUR, USD)));
+
+        // Each currency is fetched once, whichever pairs it is part of.
+        assertEquals(Map.of(PLN, List.of(DAY.minusDays(1)), EUR, List.of(DAY.minusDays(1))), provider.queriedDates);
+    }
+
+    @Test
+    void testRemembersMissingRatesUntilTheyExpire() {
+        MutableClock clock = new MutableClock();
+        service = new ExchangeRateService(repository, query -> provider, clock);
+        CurrencyUnit gbp = Monetary.getCurrency("GBP");
+
+        assertTrue(service.getExchangeRate(DAY, gbp, PLN).isEmpty());
+        assertEquals(ExchangeRateTable.MAX_FILL_DAYS + 1, provider.queriedDates.get(gbp).size());
+        assertTrue(service.getExchangeRate(DAY, gbp, PLN).isEmpty());
+        assertTrue(service.getExchangeRate(DAY, gbp, EUR).isEmpty());
+        assertEquals(ExchangeRateTable.MAX_FILL_DAYS + 1, provider.queriedDates.get(gbp).size());
+
+        clock.now = clock.now.plus(Duration.ofHours(1));
+        assertTrue(service.getExchangeRate(DAY, gbp, PLN).isEmpty());
+        assertEquals(2 * (ExchangeRateTable.MAX_FILL_DAYS + 1), provider.queriedDates.get(gbp).size());
+    }
+
+    @Test
+    void testPrefetchLoadsCurrentRatesInBackground() {
+        LocalDate today = DAY;
+        provider = new StubRateProvider(Map.of(EUR, Map.of(today.minusDays(1), new BigDecimal("0.86"),
+                today.minusDays(2), new BigDecimal("0.87"))));
+        service = new ExchangeRateService(repository, query -> provider, new MutableClock());
+
+        service.prefetch(List.of(EUR, USD)).join();
+        assertEquals(Map.of(EUR, List.of(today.minusDays(2), today.minusDays(1))), provider.queriedDates);
+
+        provider.queriedDates.clear();
+        assertEquals(0, new BigDecimal("0.86").compareTo(rate(today, USD, EUR)));
+        assertEquals(0, new BigDecimal("0.87").compareTo(rate(today.minusDays(1), USD, EUR)));
+        assertEquals(Map.of(), provider.queriedDates);
+        service.shutdown();
+    }
+
+    private BigDecimal rate(LocalDate date, CurrencyUnit from, CurrencyUnit to) {
+        return service.getExchangeRate(date, from, to).orElseThrow().getFactor().numberValue(BigDecimal.class);
+    }
+
+    private Map<LocalDate, String> storedRates(CurrencyUnit currency) throws SQLException {
+        Map<LocalDate, String> rates = new HashMap<>();
+        repository.findAll(rate -> {
+            if (rate.getSourceCurrency().equals(USD) && rate.getTargetCurrency().equals(currency)) {
+                rates.put(rate.getDate(), rate.getRate().setScale(6).toPlainString());
+            }
+        });
+        return rates;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-03-10T12:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static final class StubRateProvider implements ExchangeRateProvider {
+        private final Map<CurrencyUnit, Map<LocalDate, BigDecimal>> rates;
+        private final Map<CurrencyUnit, List<LocalDate>> queriedDates = new HashMap<>();
+
+        private StubRateProvider(Map<CurrencyUnit, Map<LocalDate, BigDecimal>> rates) {
+            this.rates = rates;
+        }
+
+        @Override
+        public ProviderContext getContext() {
+            return ProviderContextBuilder.of("STUB", RateType.HISTORIC).build();
+        }
+
+        @Override
+        public ExchangeRate getExchangeRate(ConversionQuery conversionQuery) {
+            LocalDate date = conversionQuery.get(LocalDate.class);
+            queriedDates.computeIfAbsent(conversionQuery.getCurrency(), k -> new ArrayList<>()).add(date);
+            BigDecimal rate = rates.getOrDefault(conversionQuery.getCurrency(), Map.of()).get(date);
+            if (rate == null) {
+                throw new IllegalArgumentException("No rate for " + date);
+            }
+            return new ExchangeRateBuilder(ConversionContext.HISTORIC_CONVERSION)
+                    .setBase(conversionQuery.getBaseCurrency())
+                    .setTerm(conversionQuery.getCurrency())
+                    .setFactor(DefaultNumberValue.of(rate))
+                    .build();
+        }
+
+        @Override
+        public CurrencyConversion getCurrencyConversion(ConversionQuery conversionQuery) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.philabid.service;
+
+import com.philabid.util.FixedMoney;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the median of archived prices used by {@link PriceRecommendationService}.
+ */
+class PriceRecommendationServiceTest {
+
+    private static final CurrencyUnit PLN = Monetary.getCurrency("PLN");
+    private static final CurrencyUnit EUR = Monetary.getCurrency("EUR");
+
+    @Test
+    void testMedianRoundsHalfUpBetweenTheMiddlePrices() {
+        assertEquals(Optional.of(FixedMoney.ofMinor(1000, PLN)),
+                PriceRecommendationService.median(List.of(pln("12"), pln("8"), pln("10")), PLN));
+        assertEquals(Optional.of(FixedMoney.ofMinor(1001, PLN)),
+                PriceRecommendationService.median(List.of(pln("10.01"), pln("50"), pln("10"), pln("1")), PLN));
+        assertEquals(Optional.empty(), PriceRecommendationService.median(List.of(), PLN));
+    }
+
+    @Test
+    void testMedianLeavesOutPricesThatWereNotConverted() {
+        assertEquals(Optional.of(FixedMoney.ofMinor(1000, PLN)),
+                PriceRecommendationService.median(List.of(pln("10"), Money.of(1, EUR), pln("10")), PLN));
+        assertEquals(Optional.empty(), PriceRecommendationService.median(List.of(Money.of(1, EUR)), PLN));
+    }
+
+    private static Money pln(String amount) {
+        return Money.of(new BigDecimal(amount), PLN);
+    }
+}
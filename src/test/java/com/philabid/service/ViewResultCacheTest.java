@@ -0,0 +1,97 @@
+package com.philabid.service;
+
+import com.philabid.database.DatabaseManager;
+import com.philabid.database.ExchangeRateRepository;
+import com.philabid.database.pool.ConnectionPoolSettings;
+import com.philabid.model.ExchangeRate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Tests for {@link ViewResultCache}.
+ */
+class ViewResultCacheTest {
+
+    private static final Object VIEW = new Object();
+    private static final Instant NOON = Instant.parse("2024-03-10T12:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager databaseManager;
+    private ViewResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        databaseManager = new DatabaseManager(tempDir.resolve("cache.db").toString(), ConnectionPoolSettings.DEFAULTS);
+        cache = new ViewResultCache(databaseManager, Clock.fixed(NOON, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseManager.close();
+    }
+
+    @Test
+    void testReturnsResultOnceWhileDataIsUnchanged() {
+        cache.put(VIEW, List.of("filter"), cache.getDataGeneration(), List.of(1, 2));
+
+        assertEquals(Optional.empty(), cache.take(VIEW, List.of("other filter")));
+        cache.put(VIEW, List.of("filter"), cache.getDataGeneration(), List.of(1, 2));
+        assertEquals(Optional.of(List.of(1, 2)), cache.take(VIEW, List.of("filter")));
+        assertEquals(Optional.empty(), cache.take(VIEW, List.of("filter")));
+    }
+
+    @Test
+    void testDropsResultLoadedBeforeDataChanged() {
+        long generation = cache.getDataGeneration();
+        databaseManager.markDataChanged();
+        cache.put(VIEW, List.of(), generation, List.of(1, 2));
+
+        assertEquals(Optional.empty(), cache.take(VIEW, List.of()));
+    }
+
+    @Test
+    void testKeyChangesWithTheDay() {
+        ViewResultCache nextDayCache =
+                new ViewResultCache(databaseManager, Clock.fixed(NOON.plusSeconds(24 * 3600), ZoneOffset.UTC));
+
+        assertEquals(List.of("filter", LocalDate.of(2024, 3, 10)), cache.getKey(List.of("filter")));
+        assertNotEquals(cache.getKey(List.of("filter")), nextDayCache.getKey(List.of("filter")));
+    }
+
+    @Test
+    void testStoredRatesChangeTheData() throws SQLException {
+        databaseManager.initialize();
+        ExchangeRateRepository repository = new ExchangeRateRepository(databaseManager);
+        ExchangeRate rate = new ExchangeRate();
+        rate.setDate(LocalDate.of(2024, 3, 10));
+        rate.setSourceCurrency(Monetary.getCurrency("USD"));
+        rate.setTargetCurrency(Monetary.getCurrency("PLN"));
+        rate.setRate(new BigDecimal("4.0"));
+
+        long generation = cache.getDataGeneration();
+        repository.saveRate(rate);
+        assertNotEquals(generation, cache.getDataGeneration());
+
+        generation = cache.getDataGeneration();
+        repository.saveRates(List.of(rate));
+        assertNotEquals(generation, cache.getDataGeneration());
+    }
+}
@@ -0,0 +1,49 @@
+package com.philabid.util;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link BidIncrementLadder}.
+ */
+class BidIncrementLadderTest {
+
+    @Test
+    void testDefaultLadderRisesAboveEachThreshold() {
+        assertEquals(BigDecimal.ONE, BidIncrementLadder.DEFAULT.getStep(-5));
+        assertEquals(BigDecimal.ONE, BidIncrementLadder.DEFAULT.getStep(0));
+        assertEquals(BigDecimal.ONE, BidIncrementLadder.DEFAULT.getStep(25));
+        assertEquals(BigDecimal.valueOf(2), BidIncrementLadder.DEFAULT.getStep(25.01));
+        assertEquals(BigDecimal.valueOf(100), BidIncrementLadder.DEFAULT.getStep(10000));
+        assertEquals(BigDecimal.valueOf(250), BidIncrementLadder.DEFAULT.getStep(10000.5));
+    }
+
+    @Test
+    void testSortsThresholds() {
+        BidIncrementLadder ladder = BidIncrementLadder.of(List.of(
+                Pair.with(new BigDecimal("50"), new BigDecimal("5")),
+                Pair.with(new BigDecimal("10"), new BigDecimal("0.5"))));
+
+        assertEquals(new BigDecimal("0.5"), ladder.getStep(3));
+        assertEquals(new BigDecimal("0.5"), ladder.getStep(50));
+        assertEquals(new BigDecimal("5"), ladder.getStep(51));
+    }
+
+    @Test
+    void testAppliesToPricesInItsCurrency() {
+        BidIncrementLadder ladder = BidIncrementLadder.of(Monetary.getCurrency("PLN"),
+                List.of(Pair.with(BigDecimal.ZERO, BigDecimal.ONE)));
+
+        assertTrue(ladder.appliesTo(Monetary.getCurrency("PLN")));
+        assertFalse(ladder.appliesTo(Monetary.getCurrency("EUR")));
+        assertTrue(BidIncrementLadder.DEFAULT.appliesTo(Monetary.getCurrency("EUR")));
+    }
+}
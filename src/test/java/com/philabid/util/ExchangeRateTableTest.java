@@ -0,0 +1,55 @@
+package com.philabid.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link ExchangeRateTable}.
+ */
+class ExchangeRateTableTest {
+
+    private static final CurrencyUnit EUR = Monetary.getCurrency("EUR");
+    private static final CurrencyUnit PLN = Monetary.getCurrency("PLN");
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    private final ExchangeRateTable table = new ExchangeRateTable();
+
+    @Test
+    void testFillsGapsWithNearestEarlierRate() {
+        table.put(DAY, EUR, PLN, new BigDecimal("4.2"));
+        table.put(DAY.plusDays(3), EUR, PLN, new BigDecimal("4.3"));
+
+        assertEquals(entry(DAY, "4.200000"), table.find(DAY, EUR, PLN));
+        assertEquals(entry(DAY, "4.200000"), table.find(DAY.plusDays(2), EUR, PLN));
+        assertEquals(entry(DAY.plusDays(3), "4.300000"), table.find(DAY.plusDays(3), EUR, PLN));
+        assertEquals(entry(DAY.plusDays(3), "4.300000"),
+                table.find(DAY.plusDays(3 + ExchangeRateTable.MAX_FILL_DAYS), EUR, PLN));
+        assertEquals(Optional.empty(), table.find(DAY.plusDays(4 + ExchangeRateTable.MAX_FILL_DAYS), EUR, PLN));
+        assertEquals(Optional.empty(), table.find(DAY.minusDays(1), EUR, PLN));
+        assertEquals(Optional.empty(), table.find(DAY, PLN, EUR));
+    }
+
+    @Test
+    void testInsertsInAnyOrder() {
+        table.put(DAY, EUR, PLN, new BigDecimal("4.2"));
+        table.put(DAY.minusDays(30), EUR, PLN, new BigDecimal("4.0"));
+        table.put(DAY.minusDays(2), EUR, PLN, new BigDecimal("4.1"));
+        table.put(DAY, EUR, PLN, new BigDecimal("5.0"));
+
+        assertEquals(entry(DAY.minusDays(30), "4.000000"), table.find(DAY.minusDays(25), EUR, PLN));
+        assertEquals(Optional.empty(), table.find(DAY.minusDays(20), EUR, PLN));
+        assertEquals(entry(DAY.minusDays(2), "4.100000"), table.find(DAY.minusDays(1), EUR, PLN));
+        assertEquals(entry(DAY, "4.200000"), table.find(DAY.plusDays(1), EUR, PLN));
+    }
+
+    private static Optional<ExchangeRateTable.Entry> entry(LocalDate date, String rate) {
+        return Optional.of(new ExchangeRateTable.Entry(date, new BigDecimal(rate)));
+    }
+}
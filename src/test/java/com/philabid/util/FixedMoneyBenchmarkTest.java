@@ -0,0 +1,89 @@
+package com.philabid.util;
+
+import org.javamoney.moneta.Money;
+import org.javamoney.moneta.function.MonetaryOperators;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import javax.money.MonetaryAmount;
+import java.lang.management.ManagementFactory;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the sum, average and median of many prices computed with Moneta amounts and with {@link FixedMoney}.
+ * Run with {@code -Dphilabid.benchmark=true}; the throughput and allocation figures are logged.
+ */
+@EnabledIfSystemProperty(named = "philabid.benchmark", matches = "true")
+class FixedMoneyBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(FixedMoneyBenchmarkTest.class);
+    private static final int PRICES = 100_000;
+    private static final int ROUNDS = 10;
+    private static final CurrencyUnit PLN = Monetary.getCurrency("PLN");
+
+    @Test
+    void benchmarkStatistics() {
+        Random random = new Random(42);
+        List<MonetaryAmount> amounts = random.ints(PRICES, 100, 1_000_000)
+                .mapToObj(minor -> (MonetaryAmount) Money.ofMinor(PLN, minor))
+                .toList();
+        List<FixedMoney> fixedAmounts = amounts.stream().map(FixedMoney::of).toList();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Measurement moneta = measure(() -> monetaStatistics(amounts));
+            Measurement fixed = measure(() -> fixedStatistics(fixedAmounts));
+
+            assertEquals(moneta.result(), fixed.result());
+            logger.info("Round {}: Money {} prices/s {} B/price, FixedMoney {} prices/s {} B/price", round + 1,
+                    Math.round(moneta.pricesPerSecond()), moneta.bytesPerPrice(),
+                    Math.round(fixed.pricesPerSecond()), fixed.bytesPerPrice());
+        }
+    }
+
+    private static List<MonetaryAmount> monetaStatistics(List<MonetaryAmount> amounts) {
+        MonetaryAmount sum = amounts.stream().reduce(MonetaryAmount::add).orElseThrow();
+        MonetaryAmount average = sum.divide(amounts.size()).with(MonetaryOperators.rounding(RoundingMode.HALF_UP, 2));
+        List<MonetaryAmount> sorted = amounts.stream().sorted().toList();
+        MonetaryAmount median = sorted.get(sorted.size() / 2).add(sorted.get(sorted.size() / 2 - 1)).divide(2)
+                .with(MonetaryOperators.rounding(RoundingMode.HALF_UP, 2));
+        return List.of(sum.stripTrailingZeros(), average.stripTrailingZeros(), median.stripTrailingZeros());
+    }
+
+    private static List<MonetaryAmount> fixedStatistics(List<FixedMoney> amounts) {
+        long[] minorUnits = new long[amounts.size()];
+        long sum = 0;
+        for (int i = 0; i < minorUnits.length; i++) {
+            minorUnits[i] = amounts.get(i).minorUnits();
+            sum += minorUnits[i];
+        }
+        Arrays.sort(minorUnits);
+        long median = FixedMoney.divideHalfUp(minorUnits[minorUnits.length / 2] +
+                minorUnits[minorUnits.length / 2 - 1], 2);
+        return List.of(FixedMoney.ofMinor(sum, PLN).toMonetaryAmount().stripTrailingZeros(),
+                FixedMoney.ofMinor(FixedMoney.divideHalfUp(sum, minorUnits.length), PLN).toMonetaryAmount()
+                        .stripTrailingZeros(),
+                FixedMoney.ofMinor(median, PLN).toMonetaryAmount().stripTrailingZeros());
+    }
+
+    private static Measurement measure(Supplier<List<MonetaryAmount>> statistics) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        List<MonetaryAmount> result = statistics.get();
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new Measurement(result, PRICES / (nanos / 1_000_000_000.0), allocated / PRICES);
+    }
+
+    private record Measurement(List<MonetaryAmount> result, double pricesPerSecond, long bytesPerPrice) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.philabid.util;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link FixedMoney}.
+ */
+class FixedMoneyTest {
+
+    private static final CurrencyUnit PLN = Monetary.getCurrency("PLN");
+    private static final CurrencyUnit JPY = Monetary.getCurrency("JPY");
+
+    @Test
+    void testConvertsToMinorUnits() {
+        assertEquals(1235, FixedMoney.of(Money.of(new BigDecimal("12.345"), PLN)).minorUnits());
+        assertEquals(-1235, FixedMoney.of(Money.of(new BigDecimal("-12.345"), PLN)).minorUnits());
+        assertEquals(1235, FixedMoney.of(Money.of(new BigDecimal("1234.5"), JPY)).minorUnits());
+
+        FixedMoney amount = FixedMoney.ofMinor(1205, PLN);
+        assertEquals(PLN, amount.currency());
+        assertEquals(0, new BigDecimal("12.05").compareTo(
+                amount.toMonetaryAmount().getNumber().numberValue(BigDecimal.class)));
+        assertEquals(FixedMoney.currencyId(PLN), FixedMoney.zero(PLN).currencyId());
+    }
+
+    @Test
+    void testArithmeticRoundsHalfUp() {
+        FixedMoney amount = FixedMoney.ofMinor(1000, PLN);
+
+        assertEquals(FixedMoney.ofMinor(1500, PLN), amount.add(FixedMoney.ofMinor(500, PLN)));
+        assertEquals(FixedMoney.ofMinor(333, PLN), amount.divide(3));
+        assertEquals(FixedMoney.ofMinor(167, PLN), FixedMoney.ofMinor(500, PLN).divide(3));
+        assertEquals(FixedMoney.ofMinor(-167, PLN), FixedMoney.ofMinor(-500, PLN).divide(3));
+        assertEquals(FixedMoney.ofMinor(1235, PLN), FixedMoney.ofMinor(1000, PLN).multiply(1.2345));
+        assertTrue(amount.isGreaterThan(FixedMoney.ofMinor(999, PLN)));
+        assertTrue(amount.isLessThan(FixedMoney.ofMinor(1001, PLN)));
+    }
+
+    @Test
+    void testRejectsMixedCurrencies() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FixedMoney.ofMinor(1, PLN).add(FixedMoney.ofMinor(1, JPY)));
+        assertThrows(IllegalArgumentException.class,
+                () -> FixedMoney.ofMinor(1, PLN).compareTo(FixedMoney.ofMinor(1, JPY)));
+    }
+}